@@ -0,0 +1,48 @@
+package software.amazon.ses.configurationset;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ses.SesClient;
+import software.amazon.cloudformation.LambdaWrapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of obtaining an {@link SesClient}: the cached client handed out by
+ * {@link ClientBuilder} against building a new client for every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ClientBuilderBenchmark {
+
+    @Param({"us-east-1"})
+    public String region;
+
+    @TearDown
+    public void tearDown() {
+        ClientBuilder.closeClients();
+    }
+
+    @Benchmark
+    public SesClient cachedClient() {
+        return ClientBuilder.getClient(region);
+    }
+
+    @Benchmark
+    public SesClient newClientPerCall() {
+        final SesClient client = SesClient.builder()
+            .httpClient(LambdaWrapper.HTTP_CLIENT)
+            .region(Region.of(region))
+            .build();
+        client.close();
+        return client;
+    }
+}
@@ -0,0 +1,125 @@
+package software.amazon.ses.configurationset;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.LoggerProxy;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sync against async {@link SesInvoker} execution for handlers that issue several
+ * independent SES calls, against {@link LocalSesServer} with injected service latency.
+ *
+ * Each update flips all four option groups, so it issues four calls; with latency the sync
+ * path should cost about four round trips and the async path about one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ClientModeBenchmark {
+
+    private static final Logger NO_OP_LOGGER = message -> { };
+
+    // a SesInvoker.Mode name; the generated harness cannot see the package-private enum
+    @Param({"SYNC", "ASYNC"})
+    public String mode;
+
+    @Param({"0", "20"})
+    public long latencyMillis;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private LocalSesServer localSes;
+    private AmazonWebServicesClientProxy proxy;
+    private CreateHandler createHandler;
+    private UpdateHandler updateHandler;
+    private DeleteHandler deleteHandler;
+
+    private ResourceHandlerRequest<ResourceModel> enable;
+    private ResourceHandlerRequest<ResourceModel> disable;
+    private boolean enabled;
+
+    @Setup
+    public void setup() throws IOException {
+        // measure handler cost, not the client-side quota
+        RateLimiter.shared().configure(RateLimiter.Limit.UNLIMITED, RateLimiter.Limit.UNLIMITED, Collections.emptyMap());
+        localSes = LocalSesServer.start().setLatencyMillis(latencyMillis);
+        localSes.addConfigurationSet("benchmark-set");
+        ClientBuilder.setEndpointOverride(localSes.getEndpoint());
+
+        proxy = new AmazonWebServicesClientProxy(new LoggerProxy(),
+            new Credentials("accessKeyId", "secretAccessKey", "sessionToken"),
+            () -> TimeUnit.MINUTES.toMillis(15));
+        createHandler = new CreateHandler(SesInvoker.Mode.valueOf(mode));
+        updateHandler = new UpdateHandler(SesInvoker.Mode.valueOf(mode));
+        deleteHandler = new DeleteHandler();
+
+        final ResourceModel defaults = ResourceModel.builder().name("benchmark-set").build();
+        final ResourceModel nonDefaults = withOptions("benchmark-set");
+        enable = request(nonDefaults);
+        enable.setPreviousResourceState(defaults);
+        disable = request(defaults);
+        disable.setPreviousResourceState(nonDefaults);
+        enabled = false;
+    }
+
+    @TearDown
+    public void tearDown() {
+        RateLimiter.shared().configure(RateLimiter.DEFAULT_LIMIT, RateLimiter.DEFAULT_READ_LIMIT, Collections.emptyMap());
+        ClientBuilder.setEndpointOverride(null);
+        DescribeCache.shared().clear();
+        localSes.close();
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> updateAllOptions() {
+        enabled = !enabled;
+        return updateHandler.handleRequest(proxy, enabled ? enable : disable, null, NO_OP_LOGGER);
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> createWithOptionsAndDelete() {
+        final ResourceHandlerRequest<ResourceModel> request = request(withOptions("benchmark-new-" + sequence.incrementAndGet()));
+        createHandler.handleRequest(proxy, request, null, NO_OP_LOGGER);
+        return deleteHandler.handleRequest(proxy, request, null, NO_OP_LOGGER);
+    }
+
+    private static ResourceModel withOptions(final String name) {
+        return ResourceModel.builder()
+            .name(name)
+            .reputationOptions(ReputationOptions.builder().reputationMetricsEnabled(true).build())
+            .sendingOptions(SendingOptions.builder().sendingEnabled(false).build())
+            .deliveryOptions(DeliveryOptions.builder().tlsPolicy("REQUIRE").build())
+            .trackingOptions(TrackingOptions.builder().customRedirectDomain("track.example.com").build())
+            .build();
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel model) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+            .awsAccountId("123456789012")
+            .region("us-east-1")
+            .desiredResourceState(model)
+            .build();
+    }
+}
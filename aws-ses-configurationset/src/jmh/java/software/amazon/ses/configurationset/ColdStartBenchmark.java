@@ -0,0 +1,107 @@
+package software.amazon.ses.configurationset;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to the first response of a fresh JVM: every measurement runs in its own fork and
+ * sends one Read through {@code HandlerWrapper.testEntrypoint}, the SAM test entry point,
+ * against {@link LocalSesServer}.
+ *
+ * {@code firstResponse} starts the clock after the wrapper is constructed, i.e. after the
+ * Lambda init phase, and {@code initAndFirstResponse} includes it. Compare
+ * {@code eagerInit=false} (the state before {@link ContainerInitializer}) with
+ * {@code eagerInit=true}: eager initialization moves work into the init phase rather than
+ * removing it, so the first benchmark shows the gain and the second its cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(10)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class ColdStartBenchmark {
+
+    private static final String REGION = "us-east-1";
+
+    private static final String PAYLOAD = "{"
+        + "\"credentials\":{\"accessKeyId\":\"accessKeyId\",\"secretAccessKey\":\"secretAccessKey\","
+        + "\"sessionToken\":\"sessionToken\"},"
+        + "\"action\":\"READ\","
+        + "\"request\":{\"clientRequestToken\":\"cold-start\",\"region\":\"" + REGION + "\","
+        + "\"awsAccountId\":\"123456789012\",\"desiredResourceState\":{\"Name\":\"cold-start-set\"}},"
+        + "\"callbackContext\":null}";
+
+    @Param({"false", "true"})
+    public boolean eagerInit;
+
+    private LocalSesServer localSes;
+
+    @Setup
+    public void setup() throws IOException {
+        localSes = LocalSesServer.start().addConfigurationSet("cold-start-set");
+        ClientBuilder.setEndpointOverride(localSes.getEndpoint());
+    }
+
+    @TearDown
+    public void tearDown() {
+        ClientBuilder.setEndpointOverride(null);
+        localSes.close();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Initialized {
+
+        private HandlerWrapper wrapper;
+
+        @Setup
+        public void setup(final ColdStartBenchmark benchmark) {
+            wrapper = benchmark.initialize();
+        }
+    }
+
+    @Benchmark
+    public String firstResponse(final Initialized initialized) throws IOException {
+        return invoke(initialized.wrapper);
+    }
+
+    @Benchmark
+    public String initAndFirstResponse() throws IOException {
+        return invoke(initialize());
+    }
+
+    private HandlerWrapper initialize() {
+        if (eagerInit) {
+            // what the handlers trigger on load inside Lambda
+            ContainerInitializer.initialize(REGION);
+        }
+        return new HandlerWrapper();
+    }
+
+    private static String invoke(final HandlerWrapper wrapper) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        wrapper.testEntrypoint(new ByteArrayInputStream(PAYLOAD.getBytes(StandardCharsets.UTF_8)), output,
+            new LambdaContext("ColdStartBenchmark"));
+        final String response = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        if (!response.contains("\"SUCCESS\"")) {
+            throw new IllegalStateException("Read failed: " + response);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,107 @@
+package software.amazon.ses.configurationset;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.LoggerProxy;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Handlers driven through the real SDK client, marshalling and HTTP stack against
+ * {@link LocalSesServer}, with optional injected service latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EndToEndBenchmark {
+
+    private static final Logger NO_OP_LOGGER = message -> { };
+
+    @Param({"0"})
+    public long latencyMillis;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private LocalSesServer localSes;
+    private AmazonWebServicesClientProxy proxy;
+    private ResourceHandlerRequest<ResourceModel> readRequest;
+    private ResourceHandlerRequest<ResourceModel> listRequest;
+
+    private ReadHandler uncachedReadHandler;
+    private ListHandler listHandler;
+
+    @Setup
+    public void setup() throws IOException {
+        // measure handler cost, not the client-side quota
+        RateLimiter.shared().configure(RateLimiter.Limit.UNLIMITED, RateLimiter.Limit.UNLIMITED, Collections.emptyMap());
+        localSes = LocalSesServer.start().setLatencyMillis(latencyMillis);
+        for (int i = 0; i < 100; i++) {
+            localSes.addConfigurationSet("benchmark-set-" + i);
+        }
+        ClientBuilder.setEndpointOverride(localSes.getEndpoint());
+
+        proxy = new AmazonWebServicesClientProxy(new LoggerProxy(),
+            new Credentials("accessKeyId", "secretAccessKey", "sessionToken"),
+            () -> TimeUnit.MINUTES.toMillis(15));
+        readRequest = request("benchmark-set-0");
+        listRequest = request(null);
+
+        uncachedReadHandler = new ReadHandler(new DescribeCache(0, 0L, System::currentTimeMillis), new SingleFlight<>());
+        listHandler = new ListHandler();
+    }
+
+    @TearDown
+    public void tearDown() {
+        RateLimiter.shared().configure(RateLimiter.DEFAULT_LIMIT, RateLimiter.DEFAULT_READ_LIMIT, Collections.emptyMap());
+        ClientBuilder.setEndpointOverride(null);
+        DescribeCache.shared().clear();
+        InventoryIndex.shared().clear();
+        localSes.close();
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> read() {
+        return uncachedReadHandler.handleRequest(proxy, readRequest, null, NO_OP_LOGGER);
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> list() {
+        return listHandler.handleRequest(proxy, listRequest, null, NO_OP_LOGGER);
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> createAndDelete() {
+        final ResourceHandlerRequest<ResourceModel> request = request("benchmark-new-" + sequence.incrementAndGet());
+        new CreateHandler().handleRequest(proxy, request, null, NO_OP_LOGGER);
+        return new DeleteHandler().handleRequest(proxy, request, null, NO_OP_LOGGER);
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final String name) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+            .awsAccountId("123456789012")
+            .region("us-east-1")
+            .desiredResourceState(ResourceModel.builder().name(name).build())
+            .build();
+    }
+}
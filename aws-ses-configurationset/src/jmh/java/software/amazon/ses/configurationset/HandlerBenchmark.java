@@ -0,0 +1,198 @@
+package software.amazon.ses.configurationset;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.ses.model.ConfigurationSet;
+import software.amazon.awssdk.services.ses.model.ConfigurationSetDoesNotExistException;
+import software.amazon.awssdk.services.ses.model.CreateConfigurationSetRequest;
+import software.amazon.awssdk.services.ses.model.CreateConfigurationSetResponse;
+import software.amazon.awssdk.services.ses.model.DeleteConfigurationSetRequest;
+import software.amazon.awssdk.services.ses.model.DeleteConfigurationSetResponse;
+import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetRequest;
+import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetResponse;
+import software.amazon.awssdk.services.ses.model.ListConfigurationSetsRequest;
+import software.amazon.awssdk.services.ses.model.ListConfigurationSetsResponse;
+import software.amazon.awssdk.services.sesv2.model.ListTagsForResourceRequest;
+import software.amazon.awssdk.services.sesv2.model.ListTagsForResourceResponse;
+import software.amazon.awssdk.services.sesv2.model.TagResourceRequest;
+import software.amazon.awssdk.services.sesv2.model.TagResourceResponse;
+import software.amazon.awssdk.services.sesv2.model.UntagResourceRequest;
+import software.amazon.awssdk.services.sesv2.model.UntagResourceResponse;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Per-invocation overhead of each handler's {@code handleRequest} against a {@link StubProxy},
+ * plus the helpers on their hot paths. Run with the gc profiler (the benchmark profile's
+ * default) to track allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HandlerBenchmark {
+
+    private static final Logger NO_OP_LOGGER = message -> { };
+
+    @Param({"50"})
+    public int listPageSize;
+
+    private StubProxy proxy;
+    private StubProxy deleteProxy;
+    private ResourceHandlerRequest<ResourceModel> request;
+    private ResourceHandlerRequest<ResourceModel> updateRequest;
+    private ResourceHandlerRequest<ResourceModel> listRequest;
+    private ListConfigurationSetsResponse listResponse;
+
+    private CreateHandler createHandler;
+    private ReadHandler readHandler;
+    private ReadHandler uncachedReadHandler;
+    private UpdateHandler updateHandler;
+    private DeleteHandler deleteHandler;
+    private ListHandler listHandler;
+    private ListHandler uncachedListHandler;
+
+    @Setup
+    public void setup() {
+        // measure handler cost, not the client-side quota
+        RateLimiter.shared().configure(RateLimiter.Limit.UNLIMITED, RateLimiter.Limit.UNLIMITED, Collections.emptyMap());
+        final ConfigurationSet set = ConfigurationSet.builder().name("benchmark-set").build();
+        final List<ConfigurationSet> sets = IntStream.range(0, listPageSize)
+            .mapToObj(i -> ConfigurationSet.builder().name("benchmark-set-" + i).build())
+            .collect(Collectors.toList());
+        listResponse = ListConfigurationSetsResponse.builder()
+            .configurationSets(sets)
+            .build();
+
+        proxy = new StubProxy()
+            .respond(CreateConfigurationSetRequest.class, CreateConfigurationSetResponse.builder().build())
+            .respond(DescribeConfigurationSetRequest.class,
+                DescribeConfigurationSetResponse.builder().configurationSet(set).build())
+            .respond(DeleteConfigurationSetRequest.class, DeleteConfigurationSetResponse.builder().build())
+            .respond(ListConfigurationSetsRequest.class, listResponse)
+            .respond(ListTagsForResourceRequest.class, ListTagsForResourceResponse.builder().build())
+            .respond(TagResourceRequest.class, TagResourceResponse.builder().build())
+            .respond(UntagResourceRequest.class, UntagResourceResponse.builder().build());
+
+        // the set is found by the first describe and gone by the second, so delete reaches SUCCESS
+        deleteProxy = new StubProxy()
+            .respond(DescribeConfigurationSetRequest.class, (DescribeConfigurationSetRequest r) -> {
+                if (r.configurationSetAttributeNames().isEmpty()) {
+                    throw ConfigurationSetDoesNotExistException.builder().build();
+                }
+                return DescribeConfigurationSetResponse.builder().configurationSet(set).build();
+            })
+            .respond(DeleteConfigurationSetRequest.class, DeleteConfigurationSetResponse.builder().build());
+
+        final ResourceModel model = ResourceModel.builder()
+            .name(set.name())
+            .tags(Arrays.asList(Tag.builder().key("team").value("mail").build()))
+            .build();
+        request = ResourceHandlerRequest.<ResourceModel>builder()
+            .awsAccountId("123456789012")
+            .region("us-east-1")
+            .desiredResourceState(model)
+            .previousResourceState(model)
+            .build();
+        // one tag changed and one removed: a TagResource and an UntagResource call
+        updateRequest = ResourceHandlerRequest.<ResourceModel>builder()
+            .awsAccountId("123456789012")
+            .region("us-east-1")
+            .desiredResourceState(model)
+            .previousResourceState(ResourceModel.builder()
+                .name(set.name())
+                .tags(Arrays.asList(
+                    Tag.builder().key("team").value("ops").build(),
+                    Tag.builder().key("stage").value("beta").build()))
+                .build())
+            .build();
+        listRequest = ResourceHandlerRequest.<ResourceModel>builder()
+            .awsAccountId("123456789012")
+            .region("us-east-1")
+            .build();
+
+        createHandler = new CreateHandler();
+        readHandler = new ReadHandler();
+        // zero-capacity cache: every read goes to the proxy
+        uncachedReadHandler = new ReadHandler(new DescribeCache(0, 0L, System::currentTimeMillis), new SingleFlight<>());
+        updateHandler = new UpdateHandler();
+        deleteHandler = new DeleteHandler();
+        listHandler = new ListHandler(listPageSize);
+        // zero TTL: every list goes to the proxy
+        uncachedListHandler = new ListHandler(listPageSize, new SingleFlight<>(),
+            new InventoryIndex(0L, System::currentTimeMillis, null));
+    }
+
+    @TearDown
+    public void tearDown() {
+        RateLimiter.shared().configure(RateLimiter.DEFAULT_LIMIT, RateLimiter.DEFAULT_READ_LIMIT, Collections.emptyMap());
+        DescribeCache.shared().clear();
+        InventoryIndex.shared().clear();
+        ClientBuilder.closeClients();
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> create() {
+        return createHandler.handleRequest(proxy, request, null, NO_OP_LOGGER);
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> read() {
+        return readHandler.handleRequest(proxy, request, null, NO_OP_LOGGER);
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> readUncached() {
+        return uncachedReadHandler.handleRequest(proxy, request, null, NO_OP_LOGGER);
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> update() {
+        return updateHandler.handleRequest(proxy, updateRequest, null, NO_OP_LOGGER);
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> delete() {
+        return deleteHandler.handleRequest(deleteProxy, request, null, NO_OP_LOGGER);
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> list() {
+        return listHandler.handleRequest(proxy, listRequest, null, NO_OP_LOGGER);
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> listUncached() {
+        return uncachedListHandler.handleRequest(proxy, listRequest, null, NO_OP_LOGGER);
+    }
+
+    @Benchmark
+    public List<ResourceModel> listModelMapping() {
+        return ListHandler.toResourceModels(ListHandler.names(listResponse));
+    }
+
+    @Benchmark
+    public Object getClient() {
+        return ClientBuilder.getClient(request.getRegion());
+    }
+}
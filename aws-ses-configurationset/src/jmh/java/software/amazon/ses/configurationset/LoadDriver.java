@@ -0,0 +1,300 @@
+package software.amazon.ses.configurationset;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import software.amazon.cloudformation.Action;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.proxy.ResourceHandlerTestPayload;
+import software.amazon.cloudformation.resource.Serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays CloudFormation handler traffic against one warm {@code HandlerWrapper}, the way a
+ * single handler JVM sees it when many stack operations arrive back to back.
+ *
+ * Each worker repeatedly takes a configuration set of its own through Create, Read, Update,
+ * List and Delete, sending every request through {@code HandlerWrapper.testEntrypoint} to a
+ * {@link LocalSesServer}. An IN_PROGRESS response is sent again at once with its callback
+ * context, as a separate invocation. After a warm-up, each invocation's latency and outcome
+ * are recorded per action; the report gives throughput, p50, p95 and p99 latency and the mix
+ * of outcomes, with failures by error code.
+ *
+ * Workers run on a fixed thread pool, or on virtual threads with {@code --virtual} when the
+ * JVM has them. Options, all {@code --name=value}:
+ * <ul>
+ *   <li>{@code threads}: concurrent workers, default 16</li>
+ *   <li>{@code virtual}: run workers on virtual threads, default false</li>
+ *   <li>{@code seconds}: measured duration, default 30</li>
+ *   <li>{@code warmup}: seconds run before measuring, default 5</li>
+ *   <li>{@code latency-ms}: latency the stub adds to every SES call, default 0</li>
+ *   <li>{@code throttle-rate}: share of SES calls the stub throttles, default 0</li>
+ *   <li>{@code rate-limits}: client-side rate limits in {@link RateLimiter} syntax;
+ *       unlimited by default so the handlers, not the quota, are measured</li>
+ * </ul>
+ */
+public final class LoadDriver {
+
+    private static final Action[] ACTIONS = {Action.CREATE, Action.READ, Action.UPDATE, Action.LIST, Action.DELETE};
+
+    private static final Credentials CREDENTIALS = new Credentials("accessKeyId", "secretAccessKey", "sessionToken");
+
+    private static final TypeReference<ProgressEvent<ResourceModel, CallbackContext>> RESPONSE_REFERENCE =
+        new TypeReference<ProgressEvent<ResourceModel, CallbackContext>>() { };
+
+    private final Options options;
+    private final HandlerWrapper wrapper = new HandlerWrapper();
+    private final Serializer serializer = new Serializer();
+    private final Map<Action, Recorder> recorders = new EnumMap<>(Action.class);
+
+    private volatile boolean running = true;
+    private volatile boolean measuring;
+
+    private LoadDriver(final Options options) {
+        this.options = options;
+        for (final Action action : ACTIONS) {
+            recorders.put(action, new Recorder());
+        }
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final Options options = Options.parse(args);
+        if (options.rateLimits == null) {
+            RateLimiter.shared().configure(RateLimiter.Limit.UNLIMITED, RateLimiter.Limit.UNLIMITED, Collections.emptyMap());
+        } else {
+            RateLimiter.shared().configure(options.rateLimits);
+        }
+
+        try (LocalSesServer localSes = LocalSesServer.start()
+            .setLatencyMillis(options.latencyMillis)
+            .setThrottleRate(options.throttleRate)) {
+            ClientBuilder.setEndpointOverride(localSes.getEndpoint());
+            try {
+                new LoadDriver(options).run(System.out);
+            } finally {
+                ClientBuilder.setEndpointOverride(null);
+            }
+        }
+        // the async clients' event loop threads would otherwise keep the JVM alive
+        System.exit(0);
+    }
+
+    private void run(final PrintStream out) throws InterruptedException {
+        final ExecutorService workers = options.virtual ? virtualThreadExecutor() : null;
+        final ExecutorService executor = workers != null ? workers : Executors.newFixedThreadPool(options.threads);
+        out.printf("%d workers on %s, %ds warm-up, %ds measured%n", options.threads,
+            workers != null ? "virtual threads" : "platform threads", options.warmupSeconds, options.seconds);
+
+        final AtomicInteger workerIds = new AtomicInteger();
+        for (int i = 0; i < options.threads; i++) {
+            executor.execute(() -> work(workerIds.getAndIncrement()));
+        }
+
+        TimeUnit.SECONDS.sleep(options.warmupSeconds);
+        measuring = true;
+        final long startedAt = System.nanoTime();
+        TimeUnit.SECONDS.sleep(options.seconds);
+        measuring = false;
+        final long elapsedNanos = System.nanoTime() - startedAt;
+
+        running = false;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        report(out, elapsedNanos);
+    }
+
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final ReflectiveOperationException e) {
+            // before Java 21
+            return null;
+        }
+    }
+
+    private void work(final int workerId) {
+        long iteration = 0;
+        while (running) {
+            final String name = "load-" + workerId + "-" + iteration++;
+            final ResourceModel created = ResourceModel.builder().name(name).build();
+            final ResourceModel updated = ResourceModel.builder()
+                .name(name)
+                .sendingOptions(SendingOptions.builder().sendingEnabled(iteration % 2 == 0).build())
+                .build();
+
+            invoke(Action.CREATE, request(created, null));
+            invoke(Action.READ, request(created, null));
+            invoke(Action.UPDATE, request(updated, created));
+            invoke(Action.LIST, request(null, null));
+            invoke(Action.DELETE, request(updated, null));
+        }
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel desired, final ResourceModel previous) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+            .clientRequestToken("load-driver")
+            .awsAccountId("123456789012")
+            .region("us-east-1")
+            .desiredResourceState(desired)
+            .previousResourceState(previous)
+            .build();
+    }
+
+    /**
+     * Sends the request, and its callbacks while IN_PROGRESS, recording every invocation.
+     */
+    private void invoke(final Action action, final ResourceHandlerRequest<ResourceModel> request) {
+        CallbackContext context = null;
+        while (running) {
+            final ResourceHandlerTestPayload<ResourceModel, CallbackContext> payload =
+                ResourceHandlerTestPayload.<ResourceModel, CallbackContext>builder()
+                    .credentials(CREDENTIALS)
+                    .action(action)
+                    .request(request)
+                    .callbackContext(context)
+                    .build();
+
+            final long startedAt = System.nanoTime();
+            ProgressEvent<ResourceModel, CallbackContext> response = null;
+            String outcome;
+            try {
+                response = send(payload);
+                outcome = response.getStatus() == OperationStatus.FAILED
+                    ? "FAILED " + response.getErrorCode()
+                    : String.valueOf(response.getStatus());
+            } catch (final IOException | RuntimeException e) {
+                outcome = "EXCEPTION " + e.getClass().getSimpleName();
+            }
+            if (measuring) {
+                recorders.get(action).record(System.nanoTime() - startedAt, outcome);
+            }
+
+            if (response == null || response.getStatus() != OperationStatus.IN_PROGRESS) {
+                return;
+            }
+            context = response.getCallbackContext();
+        }
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> send(
+        final ResourceHandlerTestPayload<ResourceModel, CallbackContext> payload) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        wrapper.testEntrypoint(
+            new ByteArrayInputStream(serializer.serialize(payload).getBytes(StandardCharsets.UTF_8)),
+            output, new LambdaContext("LoadDriver"));
+        return serializer.deserialize(new String(output.toByteArray(), StandardCharsets.UTF_8), RESPONSE_REFERENCE);
+    }
+
+    private void report(final PrintStream out, final long elapsedNanos) {
+        final double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        out.printf("%-8s %12s %10s %9s %9s %9s  %s%n", "action", "invocations", "per sec", "p50 ms", "p95 ms", "p99 ms",
+            "outcomes");
+        for (final Action action : ACTIONS) {
+            final Recorder recorder = recorders.get(action);
+            final long[] latencies = recorder.sortedLatencies();
+            out.printf("%-8s %12d %10.1f %9.2f %9.2f %9.2f  %s%n", action, latencies.length, latencies.length / seconds,
+                millis(percentile(latencies, 0.50)), millis(percentile(latencies, 0.95)),
+                millis(percentile(latencies, 0.99)), recorder.outcomes());
+        }
+    }
+
+    private static long percentile(final long[] sorted, final double percentile) {
+        if (sorted.length == 0) {
+            return 0L;
+        }
+        final int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(1, rank) - 1];
+    }
+
+    private static double millis(final long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static final class Recorder {
+
+        private final Map<String, Integer> outcomes = new TreeMap<>();
+        private long[] latencies = new long[1024];
+        private int size;
+
+        private synchronized void record(final long nanos, final String outcome) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = nanos;
+            outcomes.merge(outcome, 1, Integer::sum);
+        }
+
+        private synchronized long[] sortedLatencies() {
+            final long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        private synchronized String outcomes() {
+            return outcomes.toString();
+        }
+    }
+
+    private static final class Options {
+
+        private int threads = 16;
+        private boolean virtual;
+        private int seconds = 30;
+        private int warmupSeconds = 5;
+        private long latencyMillis;
+        private double throttleRate;
+        private String rateLimits;
+
+        private static Options parse(final String[] args) {
+            final Options options = new Options();
+            for (final String arg : args) {
+                if (arg.isEmpty()) {
+                    continue;
+                }
+                final String[] nameAndValue = arg.split("=", 2);
+                final String value = nameAndValue.length == 2 ? nameAndValue[1] : "true";
+                switch (nameAndValue[0]) {
+                    case "--threads":
+                        options.threads = Integer.parseInt(value);
+                        break;
+                    case "--virtual":
+                        options.virtual = Boolean.parseBoolean(value);
+                        break;
+                    case "--seconds":
+                        options.seconds = Integer.parseInt(value);
+                        break;
+                    case "--warmup":
+                        options.warmupSeconds = Integer.parseInt(value);
+                        break;
+                    case "--latency-ms":
+                        options.latencyMillis = Long.parseLong(value);
+                        break;
+                    case "--throttle-rate":
+                        options.throttleRate = Double.parseDouble(value);
+                        break;
+                    case "--rate-limits":
+                        options.rateLimits = value;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+            return options;
+        }
+    }
+}
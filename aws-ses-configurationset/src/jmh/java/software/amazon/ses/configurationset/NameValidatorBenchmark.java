@@ -0,0 +1,53 @@
+package software.amazon.ses.configurationset;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Names validated per second by {@link NameValidator}, whose schema pattern is compiled once,
+ * against compiling the same pattern on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class NameValidatorBenchmark {
+
+    private static final String PATTERN = "^[a-zA-Z0-9_-]{1,64}$";
+
+    private final String name = "benchmark-configuration-set";
+
+    private final String[] names = {"my-set", "another_configuration_set", "set-0123456789"};
+
+    private int next;
+
+    @Benchmark
+    public void precompiled() {
+        NameValidator.schema().validate(name);
+    }
+
+    /**
+     * Cycles through names of different lengths, as a stack of sets would.
+     */
+    @Benchmark
+    public void precompiledMixedNames() {
+        NameValidator.schema().validate(names[next++ % names.length]);
+    }
+
+    @Benchmark
+    public boolean compiledPerCall() {
+        return name.length() <= 64 && Pattern.compile(PATTERN).matcher(name).matches();
+    }
+}
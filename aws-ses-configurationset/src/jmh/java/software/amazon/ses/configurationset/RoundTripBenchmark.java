@@ -0,0 +1,226 @@
+package software.amazon.ses.configurationset;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.LoggerProxy;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * SES round trips and latency per CRUD operation on a fully configured set: every option
+ * group and two event destinations, against {@link LocalSesServer} with injected latency.
+ *
+ * Alongside the time per operation, the {@code sesCalls} and {@code operations} counters
+ * give the SES requests and handler invocations of each iteration; their ratio is the calls
+ * per operation. Create runs to completion through its IN_PROGRESS callbacks, Read bypasses
+ * the describe cache, and Update flips every option group and one destination.
+ *
+ * {@code api} runs the same operations through {@link SesApi#V1} and {@link SesApi#V2}:
+ * SESv2 takes a new set's options and tags inline in CreateConfigurationSet and returns them
+ * from one GetConfigurationSet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RoundTripBenchmark {
+
+    private static final Logger NO_OP_LOGGER = message -> { };
+
+    private static final String SET = "round-trip-set";
+
+    @Param({"0", "10"})
+    public long latencyMillis;
+
+    @Param({"V1", "V2"})
+    public String api;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private LocalSesServer localSes;
+    private AmazonWebServicesClientProxy proxy;
+    private SesApi sesApi;
+    private ReadHandler uncachedReadHandler;
+    private boolean flipped;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long sesCalls;
+        public long operations;
+    }
+
+    @State(Scope.Thread)
+    public static class Existing {
+
+        private String name;
+
+        @Setup(Level.Invocation)
+        public void setup(final RoundTripBenchmark benchmark) {
+            name = "round-trip-existing-" + benchmark.sequence.incrementAndGet();
+            benchmark.localSes.addConfigurationSet(name)
+                .addEventDestination(name, "bounces")
+                .addEventDestination(name, "metrics");
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        // measure round trips, not the client-side quota
+        RateLimiter.shared().configure(RateLimiter.Limit.UNLIMITED, RateLimiter.Limit.UNLIMITED, Collections.emptyMap());
+        localSes = LocalSesServer.start().setLatencyMillis(latencyMillis);
+        for (int i = 0; i < 100; i++) {
+            localSes.addConfigurationSet("round-trip-list-" + i);
+        }
+        ClientBuilder.setEndpointOverride(localSes.getEndpoint());
+
+        proxy = new AmazonWebServicesClientProxy(new LoggerProxy(),
+            new Credentials("accessKeyId", "secretAccessKey", "sessionToken"),
+            () -> TimeUnit.MINUTES.toMillis(15));
+        sesApi = SesApi.valueOf(api);
+        uncachedReadHandler =
+            new ReadHandler(new DescribeCache(0, 0L, System::currentTimeMillis), new SingleFlight<>(), sesApi);
+        complete(new CreateHandler(SesInvoker.Mode.ASYNC, sesApi), request(model(SET, false), null));
+    }
+
+    @TearDown
+    public void tearDown() {
+        RateLimiter.shared().configure(RateLimiter.DEFAULT_LIMIT, RateLimiter.DEFAULT_READ_LIMIT, Collections.emptyMap());
+        ClientBuilder.setEndpointOverride(null);
+        DescribeCache.shared().clear();
+        InventoryIndex.shared().clear();
+        localSes.close();
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> create(final Counters counters) {
+        final String name = "round-trip-new-" + sequence.incrementAndGet();
+        return counted(counters, () -> complete(new CreateHandler(SesInvoker.Mode.ASYNC, sesApi),
+            request(model(name, false), null)));
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> read(final Counters counters) {
+        return counted(counters, () -> uncachedReadHandler.handleRequest(proxy, request(model(SET, flipped), null),
+            null, NO_OP_LOGGER));
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> update(final Counters counters) {
+        final ResourceModel previous = model(SET, flipped);
+        flipped = !flipped;
+        return counted(counters, () -> complete(new UpdateHandler(SesInvoker.Mode.ASYNC, sesApi),
+            request(model(SET, flipped), previous)));
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> delete(final Counters counters, final Existing existing) {
+        return counted(counters, () -> complete(new DeleteHandler(DescribeCache.shared(), sesApi),
+            request(model(existing.name, false), null)));
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> list(final Counters counters) {
+        return counted(counters, () -> new ListHandler(ListHandler.DEFAULT_PAGE_SIZE, new SingleFlight<>(),
+            InventoryIndex.shared(), sesApi).handleRequest(proxy, request(null, null), null, NO_OP_LOGGER));
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> counted(
+        final Counters counters,
+        final Supplier<ProgressEvent<ResourceModel, CallbackContext>> operation) {
+        final long before = localSes.getRequestCount();
+        final ProgressEvent<ResourceModel, CallbackContext> event = operation.get();
+        counters.sesCalls += localSes.getRequestCount() - before;
+        counters.operations++;
+        return event;
+    }
+
+    /**
+     * Invokes the handler again with its callback context, as CloudFormation would, until
+     * it stops reporting IN_PROGRESS.
+     */
+    private ProgressEvent<ResourceModel, CallbackContext> complete(
+        final InstrumentedHandler handler,
+        final ResourceHandlerRequest<ResourceModel> request) {
+        ProgressEvent<ResourceModel, CallbackContext> event = handler.handleRequest(proxy, request, null, NO_OP_LOGGER);
+        while (event.getStatus() == OperationStatus.IN_PROGRESS) {
+            event = handler.handleRequest(proxy, request, event.getCallbackContext(), NO_OP_LOGGER);
+        }
+        if (event.getStatus() != OperationStatus.SUCCESS) {
+            throw new IllegalStateException(event.getErrorCode() + ": " + event.getMessage());
+        }
+        return event;
+    }
+
+    private static ResourceModel model(final String name, final boolean flipped) {
+        if (name == null) {
+            return ResourceModel.builder().build();
+        }
+        return ResourceModel.builder()
+            .name(name)
+            .reputationOptions(ReputationOptions.builder().reputationMetricsEnabled(!flipped).build())
+            .sendingOptions(SendingOptions.builder().sendingEnabled(flipped).build())
+            .deliveryOptions(DeliveryOptions.builder().tlsPolicy(flipped ? "OPTIONAL" : "REQUIRE").build())
+            .trackingOptions(TrackingOptions.builder()
+                .customRedirectDomain(flipped ? "b.example.com" : "a.example.com")
+                .build())
+            .eventDestinations(Arrays.asList(
+                EventDestination.builder()
+                    .name("bounces")
+                    .enabled(true)
+                    .matchingEventTypes(Arrays.asList("BOUNCE", "COMPLAINT"))
+                    .snsDestination(SnsDestination.builder()
+                        .topicARN("arn:aws:sns:us-east-1:123456789012:bounces")
+                        .build())
+                    .build(),
+                EventDestination.builder()
+                    .name("metrics")
+                    .enabled(!flipped)
+                    .matchingEventTypes(Arrays.asList("SEND", "DELIVERY"))
+                    .cloudWatchDestination(CloudWatchDestination.builder()
+                        .dimensionConfigurations(Arrays.asList(DimensionConfiguration.builder()
+                            .dimensionName("campaign")
+                            .dimensionValueSource("MESSAGE_TAG")
+                            .defaultDimensionValue("none")
+                            .build()))
+                        .build())
+                    .build()))
+            .build();
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(
+        final ResourceModel desired,
+        final ResourceModel previous) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+            .awsAccountId("123456789012")
+            .region("us-east-1")
+            .desiredResourceState(desired)
+            .previousResourceState(previous)
+            .build();
+    }
+}
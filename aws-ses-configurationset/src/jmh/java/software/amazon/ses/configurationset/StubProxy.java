@@ -0,0 +1,54 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.AwsResponse;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.LoggerProxy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Proxy that answers SES calls with canned responses, keyed by request type, so benchmarks
+ * measure handler overhead without any network or marshalling cost.
+ */
+class StubProxy extends AmazonWebServicesClientProxy {
+
+    private final Map<Class<?>, Function<AwsRequest, AwsResponse>> responses = new HashMap<>();
+
+    StubProxy() {
+        super(new LoggerProxy(), new Credentials("accessKeyId", "secretAccessKey", "sessionToken"),
+            () -> TimeUnit.MINUTES.toMillis(15));
+    }
+
+    StubProxy respond(final Class<? extends AwsRequest> requestType, final AwsResponse response) {
+        responses.put(requestType, request -> response);
+        return this;
+    }
+
+    /**
+     * Answers with whatever {@code answer} returns or throws for the request.
+     */
+    @SuppressWarnings("unchecked")
+    <RequestT extends AwsRequest> StubProxy respond(
+        final Class<RequestT> requestType,
+        final Function<RequestT, AwsResponse> answer) {
+        responses.put(requestType, request -> answer.apply((RequestT) request));
+        return this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <RequestT extends AwsRequest, ResultT extends AwsResponse> ResultT injectCredentialsAndInvokeV2(
+        final RequestT request,
+        final Function<RequestT, ResultT> requestFunction) {
+        final Function<AwsRequest, AwsResponse> answer = responses.get(request.getClass());
+        if (answer == null) {
+            throw new IllegalStateException("No stubbed response for " + request.getClass().getSimpleName());
+        }
+        return (ResultT) answer.apply(request);
+    }
+}
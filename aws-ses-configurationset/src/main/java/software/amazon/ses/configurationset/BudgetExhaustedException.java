@@ -0,0 +1,21 @@
+package software.amazon.ses.configurationset;
+
+/**
+ * Raised by {@link ExecutionBudget} when the next SES call is unlikely to finish before the
+ * invocation times out.
+ */
+final class BudgetExhaustedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String operation;
+
+    BudgetExhaustedException(final String operation, final long remainingMillis, final long estimateMillis) {
+        super(operation + " expected to take " + estimateMillis + " ms with " + remainingMillis + " ms left");
+        this.operation = operation;
+    }
+
+    String getOperation() {
+        return operation;
+    }
+}
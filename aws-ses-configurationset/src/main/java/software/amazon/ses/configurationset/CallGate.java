@@ -0,0 +1,18 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+/**
+ * Checks every SES call makes before it is sent: the {@link RateLimiter} first, since it
+ * may wait, then the {@link ExecutionBudget} with whatever time is left after that.
+ */
+final class CallGate {
+
+    private CallGate() {
+    }
+
+    static void enter(final String operation, final AmazonWebServicesClientProxy proxy) {
+        RateLimiter.shared().acquire(operation, proxy::getRemainingTimeInMillis);
+        ExecutionBudget.shared().check(operation, proxy::getRemainingTimeInMillis);
+    }
+}
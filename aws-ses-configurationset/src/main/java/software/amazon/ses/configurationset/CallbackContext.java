@@ -1,7 +1,33 @@
 package software.amazon.ses.configurationset;
 
+import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
 @NoArgsConstructor
 public class CallbackContext {
+
+    // number of consecutive throttled attempts, drives the backoff delay
+    private int throttledAttempts;
+
+    // epoch millis after which a throttled call fails instead of being retried
+    private Long throttleRetryDeadline;
+
+    // set once the mutating call has succeeded; re-invocations only poll for visibility
+    private boolean mutationComplete;
+
+    // set once delete has removed everything attached to the set, e.g. event destinations
+    private boolean dependentsRemoved;
+
+    // epoch millis at which stabilization polling started
+    private Long stabilizationStartedAt;
+
+    // number of stabilization polls that did not yet observe the expected state
+    private int stabilizationAttempts;
+
+    // ids of option mutations that have already been applied, so a retry resumes instead of restarting
+    private List<String> completedMutations = new ArrayList<>();
 }
@@ -0,0 +1,164 @@
+package software.amazon.ses.configurationset;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-region circuit breaker for SES calls, shared by every invocation in a warm container.
+ *
+ * While closed, outcomes are counted over a fixed window of {@link #WINDOW_MILLIS}; once at
+ * least {@link #MINIMUM_CALLS} calls in a window fail at {@link #FAILURE_RATE_THRESHOLD} or
+ * more, the breaker opens and rejects calls without sending them. After
+ * {@link #OPEN_MILLIS} it lets a single trial call through (half-open): success closes the
+ * breaker, failure opens it again.
+ *
+ * Only failures that point at the service or the network count, see
+ * {@link CircuitBreakerInterceptor}; an answer such as ConfigurationSetDoesNotExist is a
+ * healthy response.
+ */
+class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    static final int MINIMUM_CALLS = 10;
+    static final double FAILURE_RATE_THRESHOLD = 0.5;
+    static final long WINDOW_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    static final long OPEN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private static final ConcurrentMap<String, CircuitBreaker> REGIONS = new ConcurrentHashMap<>();
+
+    private final String region;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private long windowStartedAt;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    CircuitBreaker(final String region, final LongSupplier clock) {
+        this.region = region;
+        this.clock = clock;
+        this.windowStartedAt = clock.getAsLong();
+    }
+
+    static CircuitBreaker forRegion(final String region) {
+        return REGIONS.computeIfAbsent(region, r -> new CircuitBreaker(r, System::currentTimeMillis));
+    }
+
+    /**
+     * Closes every breaker and forgets its counts, e.g. between tests.
+     */
+    static void resetAll() {
+        REGIONS.values().forEach(CircuitBreaker::reset);
+    }
+
+    synchronized void reset() {
+        close();
+    }
+
+    String getRegion() {
+        return region;
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Whether a call may be sent now; moves an open breaker whose wait is over to half-open
+     * and admits the caller as its trial call.
+     */
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.getAsLong() - openedAt < OPEN_MILLIS) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            default:
+                // a trial that never reported back must not keep the breaker half-open forever
+                if (probeInFlight && clock.getAsLong() - openedAt < 2 * OPEN_MILLIS) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    /**
+     * Records a healthy response; returns the new state if it changed, otherwise {@code null}.
+     */
+    synchronized State onSuccess() {
+        if (state == State.HALF_OPEN) {
+            close();
+            return state;
+        }
+        if (state == State.CLOSED) {
+            roll();
+            calls++;
+        }
+        return null;
+    }
+
+    /**
+     * Records a failed call; returns the new state if it changed, otherwise {@code null}.
+     */
+    synchronized State onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return state;
+        }
+        if (state == State.CLOSED) {
+            roll();
+            calls++;
+            failures++;
+            if (calls >= MINIMUM_CALLS && failures >= FAILURE_RATE_THRESHOLD * calls) {
+                open();
+                return state;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Time until an open breaker admits its trial call.
+     */
+    synchronized long millisUntilHalfOpen() {
+        return state == State.OPEN ? Math.max(0L, OPEN_MILLIS - (clock.getAsLong() - openedAt)) : 0L;
+    }
+
+    private void roll() {
+        final long now = clock.getAsLong();
+        if (now - windowStartedAt >= WINDOW_MILLIS) {
+            windowStartedAt = now;
+            calls = 0;
+            failures = 0;
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+        probeInFlight = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        probeInFlight = false;
+        windowStartedAt = clock.getAsLong();
+        calls = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,90 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+/**
+ * Puts the {@link CircuitBreaker} of a client's region in front of every call the client
+ * makes: rejected calls fail with {@link CircuitOpenException} before anything is sent, and
+ * the final outcome of each call, after SDK retries, is fed back to the breaker.
+ *
+ * State transitions are counted in the {@link HandlerMetrics} of the invocation whose call
+ * caused them, as {@code CircuitBreaker.Open}, {@code CircuitBreaker.HalfOpen} and
+ * {@code CircuitBreaker.Closed}; rejected calls as {@code CircuitBreaker.Rejected}.
+ */
+class CircuitBreakerInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<HandlerMetrics> METRICS = new ExecutionAttribute<>("CircuitBreakerMetrics");
+    private static final ExecutionAttribute<Boolean> ADMITTED = new ExecutionAttribute<>("CircuitBreakerAdmitted");
+
+    private final CircuitBreaker breaker;
+
+    CircuitBreakerInterceptor(final CircuitBreaker breaker) {
+        this.breaker = breaker;
+    }
+
+    @Override
+    public void beforeExecution(final Context.BeforeExecution context, final ExecutionAttributes attributes) {
+        final HandlerMetrics metrics = HandlerMetrics.current();
+        if (metrics != null) {
+            attributes.putAttribute(METRICS, metrics);
+        }
+        final CircuitBreaker.State before = breaker.getState();
+        final boolean admitted = breaker.tryAcquire();
+        recordTransition(attributes, before, breaker.getState());
+        if (!admitted) {
+            if (metrics != null) {
+                metrics.increment("CircuitBreaker.Rejected");
+            }
+            throw new CircuitOpenException(breaker.getRegion(), breaker.millisUntilHalfOpen());
+        }
+        attributes.putAttribute(ADMITTED, Boolean.TRUE);
+    }
+
+    @Override
+    public void afterExecution(final Context.AfterExecution context, final ExecutionAttributes attributes) {
+        recordTransition(attributes, null, breaker.onSuccess());
+    }
+
+    @Override
+    public void onExecutionFailure(final Context.FailedExecution context, final ExecutionAttributes attributes) {
+        if (attributes.getAttribute(ADMITTED) == null) {
+            return;
+        }
+        recordTransition(attributes, null, isFailure(context.exception()) ? breaker.onFailure() : breaker.onSuccess());
+    }
+
+    /**
+     * Network and client-side failures and 5xx responses; any other error is an answer from
+     * a healthy service.
+     */
+    static boolean isFailure(final Throwable error) {
+        return error instanceof SdkClientException
+            || (error instanceof SdkServiceException && ((SdkServiceException) error).statusCode() >= 500);
+    }
+
+    private static void recordTransition(
+        final ExecutionAttributes attributes,
+        final CircuitBreaker.State before,
+        final CircuitBreaker.State after) {
+        final HandlerMetrics metrics = attributes.getAttribute(METRICS);
+        if (metrics == null || after == null || after == before) {
+            return;
+        }
+        switch (after) {
+            case OPEN:
+                metrics.increment("CircuitBreaker.Open");
+                break;
+            case HALF_OPEN:
+                metrics.increment("CircuitBreaker.HalfOpen");
+                break;
+            default:
+                metrics.increment("CircuitBreaker.Closed");
+                break;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package software.amazon.ses.configurationset;
+
+/**
+ * Raised instead of sending a call while the {@link CircuitBreaker} for its region is open;
+ * {@link InstrumentedHandler} reports it as a retryable service error.
+ */
+final class CircuitOpenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String region;
+
+    CircuitOpenException(final String region, final long millisUntilHalfOpen) {
+        super("SES circuit for region <" + region + "> is open; next trial call in " + millisUntilHalfOpen + " ms");
+        this.region = region;
+    }
+
+    String getRegion() {
+        return region;
+    }
+}
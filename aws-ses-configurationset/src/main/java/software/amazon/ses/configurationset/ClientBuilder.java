@@ -1,12 +1,139 @@
 package software.amazon.ses.configurationset;
 
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ses.SesAsyncClient;
 import software.amazon.awssdk.services.ses.SesClient;
+import software.amazon.awssdk.services.sesv2.SesV2AsyncClient;
+import software.amazon.awssdk.services.sesv2.SesV2Client;
 import software.amazon.cloudformation.LambdaWrapper;
 
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hands out {@link SesClient} and {@link SesAsyncClient} instances that live for the
+ * lifetime of the container.
+ *
+ * Clients are created lazily on first use for a region and reused by every subsequent
+ * invocation, so region, credential provider and interceptor resolution is paid once
+ * per container instead of once per request. Sync clients share the wrapper's HTTP client,
+ * which is owned by {@link LambdaWrapper} and is never closed from here; async clients share
+ * one Netty client, created on first use. All clients report retries and payload sizes
+ * through the {@link MetricsInterceptor}, and the sync and async clients of a region share
+ * one {@link CircuitBreaker}.
+ *
+ * Tags are only exposed by the SESv2 API, so a sync {@link SesV2Client}, configured the
+ * same way, is handed out for the tagging calls. Handlers running on {@link SesApi#V2} make
+ * every call through it, or through the matching {@link SesV2AsyncClient}.
+ */
 class ClientBuilder {
-    static SesClient getClient() {
-        return SesClient.builder()
-            .httpClient(LambdaWrapper.HTTP_CLIENT)
-            .build();
+
+    // key used when the caller does not supply a region and the SDK default chain applies
+    private static final String DEFAULT_REGION = "";
+
+    private static final ConcurrentMap<String, SesClient> CLIENTS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, SesAsyncClient> ASYNC_CLIENTS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, SesV2Client> V2_CLIENTS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, SesV2AsyncClient> V2_ASYNC_CLIENTS = new ConcurrentHashMap<>();
+
+    private static volatile URI endpointOverride;
+
+    static SesClient getClient(final String region) {
+        return CLIENTS.computeIfAbsent(region == null ? DEFAULT_REGION : region, ClientBuilder::newClient);
+    }
+
+    static SesAsyncClient getAsyncClient(final String region) {
+        return ASYNC_CLIENTS.computeIfAbsent(region == null ? DEFAULT_REGION : region, ClientBuilder::newAsyncClient);
+    }
+
+    static SesV2Client getV2Client(final String region) {
+        return V2_CLIENTS.computeIfAbsent(region == null ? DEFAULT_REGION : region, ClientBuilder::newV2Client);
+    }
+
+    static SesV2AsyncClient getV2AsyncClient(final String region) {
+        return V2_ASYNC_CLIENTS.computeIfAbsent(region == null ? DEFAULT_REGION : region,
+            ClientBuilder::newV2AsyncClient);
+    }
+
+    /**
+     * Closes and forgets every cached client; the next {@link #getClient(String)},
+     * {@link #getAsyncClient(String)}, {@link #getV2Client(String)} or
+     * {@link #getV2AsyncClient(String)} call builds a fresh one.
+     */
+    static void closeClients() {
+        CLIENTS.keySet().forEach(region -> {
+            final SesClient client = CLIENTS.remove(region);
+            if (client != null) {
+                client.close();
+            }
+        });
+        ASYNC_CLIENTS.keySet().forEach(region -> {
+            final SesAsyncClient client = ASYNC_CLIENTS.remove(region);
+            if (client != null) {
+                client.close();
+            }
+        });
+        V2_CLIENTS.keySet().forEach(region -> {
+            final SesV2Client client = V2_CLIENTS.remove(region);
+            if (client != null) {
+                client.close();
+            }
+        });
+        V2_ASYNC_CLIENTS.keySet().forEach(region -> {
+            final SesV2AsyncClient client = V2_ASYNC_CLIENTS.remove(region);
+            if (client != null) {
+                client.close();
+            }
+        });
+    }
+
+    /**
+     * Points every client at {@code endpoint} instead of the regional SES endpoint, e.g. a
+     * local SES stand-in for offline benchmarks; {@code null} restores the default.
+     * Cached clients are closed so the change applies to the next {@link #getClient(String)}.
+     */
+    static void setEndpointOverride(final URI endpoint) {
+        endpointOverride = endpoint;
+        closeClients();
+    }
+
+    private static SesClient newClient(final String region) {
+        return configure(SesClient.builder().httpClient(LambdaWrapper.HTTP_CLIENT), region).build();
+    }
+
+    private static SesAsyncClient newAsyncClient(final String region) {
+        return configure(SesAsyncClient.builder().httpClient(AsyncHttpClientHolder.HTTP_CLIENT), region).build();
+    }
+
+    private static SesV2Client newV2Client(final String region) {
+        return configure(SesV2Client.builder().httpClient(LambdaWrapper.HTTP_CLIENT), region).build();
+    }
+
+    private static SesV2AsyncClient newV2AsyncClient(final String region) {
+        return configure(SesV2AsyncClient.builder().httpClient(AsyncHttpClientHolder.HTTP_CLIENT), region).build();
+    }
+
+    private static <B extends AwsClientBuilder<B, ?>> B configure(final B builder, final String region) {
+        builder.overrideConfiguration(ClientOverrideConfiguration.builder()
+            .addExecutionInterceptor(new MetricsInterceptor())
+            .addExecutionInterceptor(new CircuitBreakerInterceptor(CircuitBreaker.forRegion(region)))
+            .build());
+        if (!DEFAULT_REGION.equals(region)) {
+            builder.region(Region.of(region));
+        }
+        if (endpointOverride != null) {
+            builder.endpointOverride(endpointOverride);
+        }
+        return builder;
+    }
+
+    // initialized on first use so handlers that never go async do not start an event loop
+    private static final class AsyncHttpClientHolder {
+        private static final SdkAsyncHttpClient HTTP_CLIENT = NettyNioAsyncHttpClient.builder().build();
     }
 }
@@ -0,0 +1,86 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.awssdk.services.ses.model.ConfigurationSetAttribute;
+import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetRequest;
+import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds DescribeConfigurationSet requests that ask SES for exactly what the caller needs,
+ * and maps full responses back onto the model.
+ *
+ * Read asks for every modeled attribute group, event destinations included, in one call.
+ * Delete asks only for the event destinations it has to remove. Existence checks ask for
+ * none, which keeps the response to the set name.
+ */
+final class ConfigurationSetAttributes {
+
+    // SendingEnabled is reported as part of the reputation options
+    static final List<ConfigurationSetAttribute> MODELED = Collections.unmodifiableList(Arrays.asList(
+        ConfigurationSetAttribute.REPUTATION_OPTIONS,
+        ConfigurationSetAttribute.DELIVERY_OPTIONS,
+        ConfigurationSetAttribute.TRACKING_OPTIONS,
+        ConfigurationSetAttribute.EVENT_DESTINATIONS));
+
+    private ConfigurationSetAttributes() {
+    }
+
+    static DescribeConfigurationSetRequest describeRequest(final String name) {
+        return DescribeConfigurationSetRequest.builder()
+            .configurationSetName(name)
+            .configurationSetAttributeNames(MODELED)
+            .build();
+    }
+
+    static DescribeConfigurationSetRequest eventDestinationsRequest(final String name) {
+        return DescribeConfigurationSetRequest.builder()
+            .configurationSetName(name)
+            .configurationSetAttributeNames(ConfigurationSetAttribute.EVENT_DESTINATIONS)
+            .build();
+    }
+
+    static DescribeConfigurationSetRequest existenceRequest(final String name) {
+        return DescribeConfigurationSetRequest.builder()
+            .configurationSetName(name)
+            .build();
+    }
+
+    static ResourceModel toResourceModel(final DescribeConfigurationSetResponse response) {
+        final ResourceModel model = ResourceModel.builder()
+            .name(response.configurationSet().name())
+            .build();
+
+        final software.amazon.awssdk.services.ses.model.ReputationOptions reputationOptions = response.reputationOptions();
+        if (reputationOptions != null) {
+            model.setReputationOptions(ReputationOptions.builder()
+                .reputationMetricsEnabled(reputationOptions.reputationMetricsEnabled())
+                .build());
+            model.setSendingOptions(SendingOptions.builder()
+                .sendingEnabled(reputationOptions.sendingEnabled())
+                .build());
+        }
+        if (response.deliveryOptions() != null) {
+            model.setDeliveryOptions(DeliveryOptions.builder()
+                .tlsPolicy(response.deliveryOptions().tlsPolicyAsString().toUpperCase(Locale.ROOT))
+                .build());
+        }
+        if (response.trackingOptions() != null && response.trackingOptions().customRedirectDomain() != null) {
+            model.setTrackingOptions(TrackingOptions.builder()
+                .customRedirectDomain(response.trackingOptions().customRedirectDomain())
+                .build());
+        }
+        if (!response.eventDestinations().isEmpty()) {
+            final List<EventDestination> destinations = new ArrayList<>(response.eventDestinations().size());
+            for (final software.amazon.awssdk.services.ses.model.EventDestination destination : response.eventDestinations()) {
+                destinations.add(EventDestinations.fromSes(destination));
+            }
+            model.setEventDestinations(destinations);
+        }
+        return model;
+    }
+}
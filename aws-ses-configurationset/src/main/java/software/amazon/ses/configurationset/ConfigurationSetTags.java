@@ -0,0 +1,79 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.awssdk.services.sesv2.model.ListTagsForResourceRequest;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Addresses a configuration set for the SESv2 tagging API and converts tags between the
+ * model and SESv2.
+ *
+ * The tagging calls take the set's ARN rather than its name; all of a set's tags are read
+ * with one ListTagsForResource and written with one TagResource and one UntagResource.
+ * On {@link SesApi#V2} a new set's tags go inline in CreateConfigurationSet instead, and
+ * GetConfigurationSet returns them; updates still use the tagging calls.
+ */
+final class ConfigurationSetTags {
+
+    private static final String DEFAULT_PARTITION = "aws";
+
+    private ConfigurationSetTags() {
+    }
+
+    static String arn(final ResourceHandlerRequest<ResourceModel> request, final String name) {
+        final String partition = request.getAwsPartition() == null ? DEFAULT_PARTITION : request.getAwsPartition();
+        return "arn:" + partition + ":ses:" + request.getRegion() + ":" + request.getAwsAccountId()
+            + ":configuration-set/" + name;
+    }
+
+    static ListTagsForResourceRequest listRequest(final String arn) {
+        return ListTagsForResourceRequest.builder()
+            .resourceArn(arn)
+            .build();
+    }
+
+    /**
+     * @return the tags keyed by key, in model order; empty for {@code null}
+     */
+    static Map<String, String> byKey(final List<Tag> tags) {
+        if (tags == null) {
+            return Collections.emptyMap();
+        }
+        final Map<String, String> byKey = new LinkedHashMap<>();
+        for (final Tag tag : tags) {
+            byKey.put(tag.getKey(), tag.getValue());
+        }
+        return byKey;
+    }
+
+    static List<software.amazon.awssdk.services.sesv2.model.Tag> toSes(final Map<String, String> tags) {
+        final List<software.amazon.awssdk.services.sesv2.model.Tag> sesTags = new ArrayList<>(tags.size());
+        for (final Map.Entry<String, String> tag : tags.entrySet()) {
+            sesTags.add(software.amazon.awssdk.services.sesv2.model.Tag.builder()
+                .key(tag.getKey())
+                .value(tag.getValue())
+                .build());
+        }
+        return sesTags;
+    }
+
+    /**
+     * @return the model tags, or {@code null} when the set has none, like the other
+     *     optional properties
+     */
+    static List<Tag> fromSes(final List<software.amazon.awssdk.services.sesv2.model.Tag> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return null;
+        }
+        final List<Tag> modelTags = new ArrayList<>(tags.size());
+        for (final software.amazon.awssdk.services.sesv2.model.Tag tag : tags) {
+            modelTags.add(Tag.builder().key(tag.key()).value(tag.value()).build());
+        }
+        return modelTags;
+    }
+}
@@ -0,0 +1,112 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.awssdk.services.sesv2.model.CreateConfigurationSetRequest;
+import software.amazon.awssdk.services.sesv2.model.DeleteConfigurationSetRequest;
+import software.amazon.awssdk.services.sesv2.model.GetConfigurationSetEventDestinationsRequest;
+import software.amazon.awssdk.services.sesv2.model.GetConfigurationSetRequest;
+import software.amazon.awssdk.services.sesv2.model.GetConfigurationSetResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the SESv2 requests that address a configuration set as a whole, and maps what
+ * SESv2 returns for one back onto the model, for handlers running on {@link SesApi#V2}.
+ *
+ * CreateConfigurationSet carries every option group the model sets, and the tags, so a new
+ * set starts out complete; an omitted group is left at the SES default, as on
+ * {@link SesApi#V1}. GetConfigurationSet returns the options and tags but not the event
+ * destinations, which GetConfigurationSetEventDestinations lists.
+ */
+final class ConfigurationSetV2 {
+
+    private ConfigurationSetV2() {
+    }
+
+    static CreateConfigurationSetRequest createRequest(final ResourceModel model) {
+        final CreateConfigurationSetRequest.Builder builder = CreateConfigurationSetRequest.builder()
+            .configurationSetName(model.getName())
+            .tags(ConfigurationSetTags.toSes(ConfigurationSetTags.byKey(model.getTags())));
+        if (model.getReputationOptions() != null && model.getReputationOptions().getReputationMetricsEnabled() != null) {
+            builder.reputationOptions(software.amazon.awssdk.services.sesv2.model.ReputationOptions.builder()
+                .reputationMetricsEnabled(model.getReputationOptions().getReputationMetricsEnabled())
+                .build());
+        }
+        if (model.getSendingOptions() != null && model.getSendingOptions().getSendingEnabled() != null) {
+            builder.sendingOptions(software.amazon.awssdk.services.sesv2.model.SendingOptions.builder()
+                .sendingEnabled(model.getSendingOptions().getSendingEnabled())
+                .build());
+        }
+        if (model.getDeliveryOptions() != null && model.getDeliveryOptions().getTlsPolicy() != null) {
+            builder.deliveryOptions(software.amazon.awssdk.services.sesv2.model.DeliveryOptions.builder()
+                .tlsPolicy(model.getDeliveryOptions().getTlsPolicy())
+                .build());
+        }
+        if (model.getTrackingOptions() != null && model.getTrackingOptions().getCustomRedirectDomain() != null) {
+            builder.trackingOptions(software.amazon.awssdk.services.sesv2.model.TrackingOptions.builder()
+                .customRedirectDomain(model.getTrackingOptions().getCustomRedirectDomain())
+                .build());
+        }
+        return builder.build();
+    }
+
+    static GetConfigurationSetRequest getRequest(final String name) {
+        return GetConfigurationSetRequest.builder()
+            .configurationSetName(name)
+            .build();
+    }
+
+    static GetConfigurationSetEventDestinationsRequest eventDestinationsRequest(final String name) {
+        return GetConfigurationSetEventDestinationsRequest.builder()
+            .configurationSetName(name)
+            .build();
+    }
+
+    static DeleteConfigurationSetRequest deleteRequest(final String name) {
+        return DeleteConfigurationSetRequest.builder()
+            .configurationSetName(name)
+            .build();
+    }
+
+    /**
+     * The same model {@link ConfigurationSetAttributes#toResourceModel} builds from a v1
+     * DescribeConfigurationSet and the set's tags.
+     */
+    static ResourceModel toResourceModel(
+        final GetConfigurationSetResponse response,
+        final List<software.amazon.awssdk.services.sesv2.model.EventDestination> eventDestinations) {
+        final ResourceModel model = ResourceModel.builder()
+            .name(response.configurationSetName())
+            .build();
+
+        if (response.reputationOptions() != null) {
+            model.setReputationOptions(ReputationOptions.builder()
+                .reputationMetricsEnabled(response.reputationOptions().reputationMetricsEnabled())
+                .build());
+        }
+        if (response.sendingOptions() != null) {
+            model.setSendingOptions(SendingOptions.builder()
+                .sendingEnabled(response.sendingOptions().sendingEnabled())
+                .build());
+        }
+        if (response.deliveryOptions() != null && response.deliveryOptions().tlsPolicyAsString() != null) {
+            model.setDeliveryOptions(DeliveryOptions.builder()
+                .tlsPolicy(response.deliveryOptions().tlsPolicyAsString())
+                .build());
+        }
+        if (response.trackingOptions() != null && response.trackingOptions().customRedirectDomain() != null) {
+            model.setTrackingOptions(TrackingOptions.builder()
+                .customRedirectDomain(response.trackingOptions().customRedirectDomain())
+                .build());
+        }
+        if (!eventDestinations.isEmpty()) {
+            final List<EventDestination> destinations = new ArrayList<>(eventDestinations.size());
+            for (final software.amazon.awssdk.services.sesv2.model.EventDestination destination : eventDestinations) {
+                destinations.add(EventDestinations.fromSesV2(destination));
+            }
+            model.setEventDestinations(destinations);
+        }
+        model.setTags(ConfigurationSetTags.fromSes(response.tags()));
+        return model;
+    }
+}
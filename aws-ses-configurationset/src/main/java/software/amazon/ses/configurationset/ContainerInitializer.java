@@ -0,0 +1,256 @@
+package software.amazon.ses.configurationset;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.services.ses.SesAsyncClient;
+import software.amazon.awssdk.services.ses.SesClient;
+import software.amazon.awssdk.services.ses.model.GetSendQuotaRequest;
+import software.amazon.awssdk.services.sesv2.SesV2AsyncClient;
+import software.amazon.awssdk.services.sesv2.SesV2Client;
+import software.amazon.awssdk.services.sesv2.model.GetAccountRequest;
+import software.amazon.cloudformation.proxy.HandlerRequest;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.resource.Serializer;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Moves the one-off work of a container's first invocation into the Lambda init phase,
+ * which runs before the first request arrives and at full CPU.
+ *
+ * It loads the SDK marshallers and model classes the handlers use, runs a request and a
+ * response through the rpdk {@link Serializer} so Jackson's deserializers are built, builds
+ * the sync and async SES clients for the function's region, and sends one unsigned
+ * GetSendQuota through each so the HTTP connection pools hold an open TLS connection to SES.
+ * The call is refused by SES; only the connection is wanted. Tags go through SESv2 on either
+ * API, so its tagging classes are loaded and both its clients primed with GetAccount as well.
+ * On {@link SesApi#V2} the same is done for the rest of the SESv2 classes, and only the SESv2
+ * clients are built. Each client is built and primed on its own pool thread, and init
+ * waits for all of them together for at most {@link #PRIME_TIMEOUT}. Every step is best
+ * effort: a failure leaves the work to the first invocation, as without initialization.
+ *
+ * Runs when the handlers are loaded inside Lambda, unless {@value #EAGER_INIT_VARIABLE} is
+ * {@code false}.
+ */
+final class ContainerInitializer {
+
+    static final String EAGER_INIT_VARIABLE = "SES_EAGER_INIT";
+
+    // the priming calls must not hold up the init phase when SES is unreachable
+    static final Duration PRIME_TIMEOUT = Duration.ofSeconds(1);
+
+    private static final String TRANSFORM_PACKAGE = "software.amazon.awssdk.services.ses.transform.";
+    private static final String MODEL_PACKAGE = "software.amazon.awssdk.services.ses.model.";
+    private static final String V2_TRANSFORM_PACKAGE = "software.amazon.awssdk.services.sesv2.transform.";
+    private static final String V2_MODEL_PACKAGE = "software.amazon.awssdk.services.sesv2.model.";
+
+    // every SES operation the handlers call
+    private static final String[] OPERATIONS = {
+        "CreateConfigurationSet",
+        "DescribeConfigurationSet",
+        "DeleteConfigurationSet",
+        "ListConfigurationSets",
+        "UpdateConfigurationSetReputationMetricsEnabled",
+        "UpdateConfigurationSetSendingEnabled",
+        "PutConfigurationSetDeliveryOptions",
+        "CreateConfigurationSetTrackingOptions",
+        "UpdateConfigurationSetTrackingOptions",
+        "DeleteConfigurationSetTrackingOptions",
+        "CreateConfigurationSetEventDestination",
+        "UpdateConfigurationSetEventDestination",
+        "DeleteConfigurationSetEventDestination"
+    };
+
+    private static final String[] EXCEPTIONS = {
+        "ConfigurationSetAlreadyExistsException",
+        "ConfigurationSetDoesNotExistException",
+        "EventDestinationAlreadyExistsException",
+        "EventDestinationDoesNotExistException",
+        "InvalidCloudWatchDestinationException",
+        "InvalidConfigurationSetException",
+        "InvalidDeliveryOptionsException",
+        "InvalidFirehoseDestinationException",
+        "InvalidSnsDestinationException",
+        "InvalidTrackingOptionsException",
+        "LimitExceededException",
+        "TrackingOptionsAlreadyExistsException",
+        "TrackingOptionsDoesNotExistException"
+    };
+
+    // every SESv2 operation the handlers call on SesApi.V2
+    private static final String[] V2_OPERATIONS = {
+        "CreateConfigurationSet",
+        "GetConfigurationSet",
+        "DeleteConfigurationSet",
+        "ListConfigurationSets",
+        "PutConfigurationSetReputationOptions",
+        "PutConfigurationSetSendingOptions",
+        "PutConfigurationSetDeliveryOptions",
+        "PutConfigurationSetTrackingOptions",
+        "GetConfigurationSetEventDestinations",
+        "CreateConfigurationSetEventDestination",
+        "UpdateConfigurationSetEventDestination",
+        "DeleteConfigurationSetEventDestination"
+    };
+
+    private static final String[] V2_EXCEPTIONS = {
+        "AlreadyExistsException",
+        "BadRequestException",
+        "LimitExceededException",
+        "NotFoundException"
+    };
+
+    // tags are read and written through SESv2 on either API
+    private static final String[] TAGGING_OPERATIONS = {
+        "ListTagsForResource",
+        "TagResource",
+        "UntagResource"
+    };
+
+    private static final TypeReference<HandlerRequest<ResourceModel, CallbackContext>> REQUEST_REFERENCE =
+        new TypeReference<HandlerRequest<ResourceModel, CallbackContext>>() { };
+
+    private static final String SAMPLE_REQUEST = "{\"region\":\"us-east-1\",\"action\":\"READ\","
+        + "\"requestData\":{\"resourceProperties\":{\"Name\":\"init\"}},"
+        + "\"requestContext\":{\"invocation\":1,\"callbackContext\":{}}}";
+
+    private static volatile boolean initialized;
+
+    private ContainerInitializer() {
+    }
+
+    /**
+     * Initializes once per container when running inside Lambda.
+     */
+    static void initializeInLambda() {
+        if (System.getenv("AWS_LAMBDA_FUNCTION_NAME") == null
+            || "false".equalsIgnoreCase(System.getenv(EAGER_INIT_VARIABLE))) {
+            return;
+        }
+        initialize(System.getenv("AWS_REGION"));
+    }
+
+    /**
+     * Does the work described above for {@code region}; later calls return immediately.
+     *
+     * @return whether this call did the work
+     */
+    static synchronized boolean initialize(final String region) {
+        if (initialized) {
+            return false;
+        }
+        initialized = true;
+        if (SesApi.configured() == SesApi.V2) {
+            preloadClasses(V2_TRANSFORM_PACKAGE, V2_MODEL_PACKAGE, V2_OPERATIONS, V2_EXCEPTIONS);
+            preloadClasses(V2_TRANSFORM_PACKAGE, V2_MODEL_PACKAGE, TAGGING_OPERATIONS, new String[0]);
+            warmSerializer();
+            awaitPriming(
+                CompletableFuture.runAsync(() -> prime(ClientBuilder.getV2Client(region))),
+                CompletableFuture.runAsync(() -> prime(ClientBuilder.getV2AsyncClient(region))));
+        } else {
+            preloadClasses(TRANSFORM_PACKAGE, MODEL_PACKAGE, OPERATIONS, EXCEPTIONS);
+            preloadClasses(V2_TRANSFORM_PACKAGE, V2_MODEL_PACKAGE, TAGGING_OPERATIONS, V2_EXCEPTIONS);
+            warmSerializer();
+            awaitPriming(
+                CompletableFuture.runAsync(() -> prime(ClientBuilder.getClient(region))),
+                CompletableFuture.runAsync(() -> prime(ClientBuilder.getAsyncClient(region))),
+                CompletableFuture.runAsync(() -> prime(ClientBuilder.getV2Client(region))),
+                CompletableFuture.runAsync(() -> prime(ClientBuilder.getV2AsyncClient(region))));
+        }
+        return true;
+    }
+
+    static boolean isInitialized() {
+        return initialized;
+    }
+
+    private static void preloadClasses(
+        final String transformPackage,
+        final String modelPackage,
+        final String[] operations,
+        final String[] exceptions) {
+        final ClassLoader loader = ContainerInitializer.class.getClassLoader();
+        for (final String operation : operations) {
+            load(transformPackage + operation + "RequestMarshaller", loader);
+            load(modelPackage + operation + "Request", loader);
+            load(modelPackage + operation + "Response", loader);
+        }
+        for (final String exception : exceptions) {
+            load(modelPackage + exception, loader);
+        }
+    }
+
+    private static void load(final String className, final ClassLoader loader) {
+        try {
+            Class.forName(className, true, loader);
+        } catch (final ClassNotFoundException | LinkageError e) {
+            // not in this SDK version; loaded on demand if ever needed
+        }
+    }
+
+    private static void warmSerializer() {
+        final Serializer serializer = new Serializer();
+        try {
+            final HandlerRequest<ResourceModel, CallbackContext> request =
+                serializer.deserialize(SAMPLE_REQUEST, REQUEST_REFERENCE);
+            serializer.serialize(ProgressEvent.defaultInProgressHandler(
+                request.getRequestContext().getCallbackContext(), 0, request.getRequestData().getResourceProperties()));
+        } catch (final IOException | RuntimeException e) {
+            // the wrapper builds the same deserializers on its first request
+        }
+    }
+
+    /**
+     * Waits for the clients being built and primed, for at most {@link #PRIME_TIMEOUT}.
+     */
+    private static void awaitPriming(final CompletableFuture<?>... calls) {
+        try {
+            CompletableFuture.allOf(calls).get(PRIME_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (final ExecutionException | TimeoutException e) {
+            // expected: the calls are unsigned, or SES is slow; the first invocation connects instead
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void prime(final SesClient client) {
+        client.getSendQuota(primingRequest());
+    }
+
+    private static void prime(final SesAsyncClient client) {
+        client.getSendQuota(primingRequest()).join();
+    }
+
+    private static void prime(final SesV2Client client) {
+        client.getAccount(v2PrimingRequest());
+    }
+
+    private static void prime(final SesV2AsyncClient client) {
+        client.getAccount(v2PrimingRequest()).join();
+    }
+
+    private static GetSendQuotaRequest primingRequest() {
+        return GetSendQuotaRequest.builder()
+            .overrideConfiguration(primingConfiguration())
+            .build();
+    }
+
+    private static GetAccountRequest v2PrimingRequest() {
+        return GetAccountRequest.builder()
+            .overrideConfiguration(primingConfiguration())
+            .build();
+    }
+
+    private static AwsRequestOverrideConfiguration primingConfiguration() {
+        return AwsRequestOverrideConfiguration.builder()
+            .credentialsProvider(AnonymousCredentialsProvider.create())
+            .apiCallTimeout(PRIME_TIMEOUT)
+            .build();
+    }
+}
@@ -2,34 +2,96 @@ package software.amazon.ses.configurationset;
 
 import software.amazon.cloudformation.exceptions.CfnAlreadyExistsException;
 import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.exceptions.CfnNotStabilizedException;
 import software.amazon.cloudformation.exceptions.CfnNotFoundException;
 import software.amazon.cloudformation.exceptions.CfnServiceLimitExceededException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 import software.amazon.cloudformation.resource.IdentifierUtils;
 import com.amazonaws.util.StringUtils;
-import software.amazon.awssdk.services.ses.SesClient;
 import software.amazon.awssdk.services.ses.model.ConfigurationSet;
 import software.amazon.awssdk.services.ses.model.ConfigurationSetAlreadyExistsException;
+import software.amazon.awssdk.services.ses.model.ConfigurationSetDoesNotExistException;
 import software.amazon.awssdk.services.ses.model.CreateConfigurationSetRequest;
+import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetRequest;
 import software.amazon.awssdk.services.ses.model.InvalidConfigurationSetException;
+import software.amazon.awssdk.services.ses.model.InvalidCloudWatchDestinationException;
+import software.amazon.awssdk.services.ses.model.InvalidDeliveryOptionsException;
+import software.amazon.awssdk.services.ses.model.InvalidFirehoseDestinationException;
+import software.amazon.awssdk.services.ses.model.InvalidSnsDestinationException;
+import software.amazon.awssdk.services.ses.model.InvalidTrackingOptionsException;
 import software.amazon.awssdk.services.ses.model.LimitExceededException;
+import software.amazon.awssdk.services.ses.model.SesException;
+import software.amazon.awssdk.services.sesv2.model.AlreadyExistsException;
+import software.amazon.awssdk.services.sesv2.model.BadRequestException;
+import software.amazon.awssdk.services.sesv2.model.GetConfigurationSetRequest;
+import software.amazon.awssdk.services.sesv2.model.NotFoundException;
+import software.amazon.awssdk.services.sesv2.model.SesV2Exception;
+
+import java.util.List;
 
 import static software.amazon.ses.configurationset.ResourceModelExtensions.getPrimaryIdentifier;
 
-public class CreateHandler extends BaseHandler<CallbackContext> {
+/**
+ * Creates a configuration set, applies what the model sets on top of the SES defaults and
+ * waits until SES reports the new set.
+ *
+ * On {@link SesApi#V1} the option groups and the tags are one call each after the set is
+ * created. On {@link SesApi#V2} they go inline with CreateConfigurationSet, which leaves only
+ * the event destinations for after it.
+ */
+public class CreateHandler extends InstrumentedHandler {
 
     public static final int MAX_LENGTH_CONFIGURATION_SET_NAME = 64;
 
+    private final ThrottleBackoff backoff;
+    private final StabilizationPolicy stabilization;
+    private final DescribeCache cache;
+    private final InventoryIndex inventory;
+    private final MutationRunner runner;
+    private final SesInvoker.Mode mode;
+    private final SesApi api;
+
+    public CreateHandler() {
+        this(SesInvoker.Mode.ASYNC);
+    }
+
+    CreateHandler(final SesInvoker.Mode mode) {
+        this(mode, SesApi.configured());
+    }
+
+    CreateHandler(final SesInvoker.Mode mode, final SesApi api) {
+        this(new ThrottleBackoff(), new StabilizationPolicy(), DescribeCache.shared(), InventoryIndex.shared(),
+            MutationRunner.shared(), mode, api);
+    }
+
+    CreateHandler(
+        final ThrottleBackoff backoff,
+        final StabilizationPolicy stabilization,
+        final DescribeCache cache,
+        final InventoryIndex inventory,
+        final MutationRunner runner,
+        final SesInvoker.Mode mode,
+        final SesApi api) {
+        this.backoff = backoff;
+        this.stabilization = stabilization;
+        this.cache = cache;
+        this.inventory = inventory;
+        this.runner = runner;
+        this.mode = mode;
+        this.api = api;
+    }
+
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
         final AmazonWebServicesClientProxy proxy,
         final ResourceHandlerRequest<ResourceModel> request,
-        final CallbackContext callbackContext,
-        final Logger logger) {
-        final SesClient client = ClientBuilder.getClient();
+        final CallbackContext context,
+        final Logger logger,
+        final HandlerMetrics metrics) {
         final ResourceModel model = request.getDesiredResourceState();
 
         // resource can auto-generate a name if not supplied by caller
@@ -44,25 +106,139 @@ public class CreateHandler extends BaseHandler<CallbackContext> {
                 )
             );
         }
+        NameValidator.schema().validate(model.getName());
+
+        final PrimaryIdentifier identifier = getPrimaryIdentifier(model);
+
+        if (!context.isMutationComplete()) {
+            try {
+                CallGate.enter("CreateConfigurationSet", proxy);
+                if (api == SesApi.V2) {
+                    final software.amazon.awssdk.services.sesv2.model.CreateConfigurationSetRequest
+                        createConfigurationSetRequest = ConfigurationSetV2.createRequest(model);
+                    metrics.time("CreateConfigurationSet", () ->
+                        proxy.injectCredentialsAndInvokeV2(createConfigurationSetRequest,
+                            ClientBuilder.getV2Client(request.getRegion())::createConfigurationSet));
+                } else {
+                    final CreateConfigurationSetRequest createConfigurationSetRequest =
+                        CreateConfigurationSetRequest.builder()
+                            .configurationSet(ConfigurationSet.builder()
+                                .name(model.getName())
+                                .build())
+                            .build();
+                    metrics.time("CreateConfigurationSet", () ->
+                        proxy.injectCredentialsAndInvokeV2(createConfigurationSetRequest,
+                            ClientBuilder.getClient(request.getRegion())::createConfigurationSet));
+                }
+                logger.log(ResourceModel.TYPE_NAME + " [" + identifier + "] created successfully");
+            } catch (ConfigurationSetAlreadyExistsException | AlreadyExistsException e) {
+                throw new CfnAlreadyExistsException(ResourceModel.TYPE_NAME, identifier.toString());
+            } catch (InvalidConfigurationSetException | BadRequestException e) {
+                throw new CfnInvalidRequestException(identifier.toString(), e);
+            } catch (LimitExceededException | software.amazon.awssdk.services.sesv2.model.LimitExceededException e) {
+                return backoff.retry(model, context,
+                    () -> new CfnServiceLimitExceededException(ResourceModel.TYPE_NAME, e.toString()));
+            } catch (SesException | SesV2Exception e) {
+                if (!ThrottleBackoff.isThrottle(e)) {
+                    throw e;
+                }
+                return backoff.retry(model, context,
+                    () -> new CfnThrottlingException("CreateConfigurationSet", e));
+            }
+
+            context.setMutationComplete(true);
+            ThrottleBackoff.reset(context);
+            stabilization.start(context);
+        }
+
+        // what CreateConfigurationSet did not apply runs concurrently; mutations an earlier invocation applied are skipped
+        final SesInvoker invoker = new SesInvoker(mode, api, proxy, request.getRegion());
+        final List<Mutation> options = MutationPlanner.planCreate(model, invoker);
+        if (api == SesApi.V1) {
+            options.addAll(MutationPlanner.planTags(ConfigurationSetTags.arn(request, model.getName()),
+                null, model.getTags(), invoker));
+        }
+        if (!options.isEmpty()) {
+            try {
+                runner.run(options, context, metrics);
+            } catch (ConfigurationSetDoesNotExistException | NotFoundException e) {
+                // the new set is not visible to the options APIs yet
+                if (stabilization.isTimedOut(context)) {
+                    throw new CfnNotStabilizedException(ResourceModel.TYPE_NAME, identifier.toString(), e);
+                }
+                return ProgressEvent.defaultInProgressHandler(context, stabilization.nextDelaySeconds(context), model);
+            } catch (InvalidDeliveryOptionsException | InvalidTrackingOptionsException
+                | InvalidCloudWatchDestinationException | InvalidFirehoseDestinationException
+                | InvalidSnsDestinationException | BadRequestException e) {
+                throw new CfnInvalidRequestException(e.getMessage(), e);
+            } catch (LimitExceededException | software.amazon.awssdk.services.sesv2.model.LimitExceededException e) {
+                return backoff.retry(model, context,
+                    () -> new CfnServiceLimitExceededException(ResourceModel.TYPE_NAME, e.toString()));
+            } catch (SesException | SesV2Exception e) {
+                if (!ThrottleBackoff.isThrottle(e)) {
+                    throw e;
+                }
+                return backoff.retry(model, context,
+                    () -> new CfnThrottlingException("PutConfigurationSetOptions", e));
+            }
+            ThrottleBackoff.reset(context);
+        }
 
-        final CreateConfigurationSetRequest createConfigurationSetRequest =
-                CreateConfigurationSetRequest.builder()
-                    .configurationSet(ConfigurationSet.builder()
-                        .name(model.getName())
-                        .build())
-                    .build();
+        final ProgressEvent<ResourceModel, CallbackContext> event = stabilize(proxy, request.getRegion(), model,
+            identifier, context, DescribeCache.key(request, model.getName()), logger, metrics);
+        if (event.isSuccess()) {
+            // List sees the new set without waiting for the inventory to expire
+            inventory.add(InventoryIndex.key(request), model.getName());
+        }
+        return event;
+    }
+
+    /**
+     * Reports SUCCESS only once DescribeConfigurationSet, or GetConfigurationSet on
+     * {@link SesApi#V2}, can see the new set, so the contract Read and dependent resources do
+     * not race SES eventual consistency.
+     */
+    private ProgressEvent<ResourceModel, CallbackContext> stabilize(
+        final AmazonWebServicesClientProxy proxy,
+        final String region,
+        final ResourceModel model,
+        final PrimaryIdentifier identifier,
+        final CallbackContext context,
+        final String cacheKey,
+        final Logger logger,
+        final HandlerMetrics metrics) {
+        final String operation = api == SesApi.V2 ? "GetConfigurationSet" : "DescribeConfigurationSet";
         try {
-            proxy.injectCredentialsAndInvokeV2(createConfigurationSetRequest, client::createConfigurationSet);
-            logger.log(String.format("%s [%s] created successfully",
-                ResourceModel.TYPE_NAME, getPrimaryIdentifier(model).toString()));
-        } catch (ConfigurationSetAlreadyExistsException e) {
-            throw new CfnAlreadyExistsException(ResourceModel.TYPE_NAME, getPrimaryIdentifier(model).toString());
-        } catch (InvalidConfigurationSetException e) {
-            throw new CfnInvalidRequestException(createConfigurationSetRequest.toString(), e);
-        } catch (LimitExceededException e) {
-            throw new CfnServiceLimitExceededException(ResourceModel.TYPE_NAME, e.toString());
+            CallGate.enter(operation, proxy);
+            if (api == SesApi.V2) {
+                final GetConfigurationSetRequest getConfigurationSetRequest = ConfigurationSetV2.getRequest(model.getName());
+                metrics.time(operation, () -> proxy.injectCredentialsAndInvokeV2(getConfigurationSetRequest,
+                    ClientBuilder.getV2Client(region)::getConfigurationSet));
+            } else {
+                final DescribeConfigurationSetRequest describeConfigurationSetRequest =
+                    ConfigurationSetAttributes.existenceRequest(model.getName());
+                metrics.time(operation, () -> proxy.injectCredentialsAndInvokeV2(describeConfigurationSetRequest,
+                    ClientBuilder.getClient(region)::describeConfigurationSet));
+            }
+        } catch (ConfigurationSetDoesNotExistException | NotFoundException e) {
+            if (stabilization.isTimedOut(context)) {
+                throw new CfnNotStabilizedException(ResourceModel.TYPE_NAME, identifier.toString(), e);
+            }
+            return ProgressEvent.defaultInProgressHandler(context, stabilization.nextDelaySeconds(context), model);
+        } catch (SesException | SesV2Exception e) {
+            if (!ThrottleBackoff.isThrottle(e)) {
+                throw e;
+            }
+            return backoff.retry(model, context,
+                () -> new CfnThrottlingException(operation, e));
         }
 
+        logger.log(ResourceModel.TYPE_NAME + " [" + identifier + "] stabilized");
+        metrics.record("TimeToStable", stabilization.elapsedMillis(context), HandlerMetrics.Unit.MILLISECONDS);
+        metrics.record("StabilizationPolls", context.getStabilizationAttempts() + 1, HandlerMetrics.Unit.COUNT);
+        // a Read for a recreated name must not see the previous set's attributes
+        cache.invalidate(cacheKey);
+
         return ProgressEvent.defaultSuccessHandler(model);
     }
 }
@@ -1,38 +1,238 @@
 package software.amazon.ses.configurationset;
 
 import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnNotStabilizedException;
+import software.amazon.cloudformation.exceptions.CfnServiceLimitExceededException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
-import software.amazon.awssdk.services.ses.SesClient;
 import software.amazon.awssdk.services.ses.model.ConfigurationSetDoesNotExistException;
 import software.amazon.awssdk.services.ses.model.DeleteConfigurationSetRequest;
+import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetRequest;
+import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetResponse;
+import software.amazon.awssdk.services.ses.model.LimitExceededException;
+import software.amazon.awssdk.services.ses.model.SesException;
+import software.amazon.awssdk.services.sesv2.model.GetConfigurationSetEventDestinationsRequest;
+import software.amazon.awssdk.services.sesv2.model.GetConfigurationSetEventDestinationsResponse;
+import software.amazon.awssdk.services.sesv2.model.GetConfigurationSetRequest;
+import software.amazon.awssdk.services.sesv2.model.NotFoundException;
+import software.amazon.awssdk.services.sesv2.model.SesV2Exception;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import static software.amazon.ses.configurationset.ResourceModelExtensions.getPrimaryIdentifier;
 
-public class DeleteHandler extends BaseHandler<CallbackContext> {
+/**
+ * Deletes a configuration set together with everything attached to it.
+ *
+ * Event destinations are removed first, concurrently but bounded by
+ * {@link #MAX_CONCURRENT_DESTINATION_DELETES}; then the set itself is deleted and the handler
+ * polls until SES reports it gone. Every step is checkpointed in the {@link CallbackContext},
+ * so a throttled or re-invoked delete resumes where it stopped.
+ *
+ * On {@link SesApi#V2} the same steps use GetConfigurationSetEventDestinations,
+ * DeleteConfigurationSet and GetConfigurationSet, so both APIs take the same calls.
+ */
+public class DeleteHandler extends InstrumentedHandler {
+
+    // SES throttles control-plane calls per account, so a large set is drained a few at a time
+    static final int MAX_CONCURRENT_DESTINATION_DELETES = 4;
+
+    private final DescribeCache cache;
+    private final InventoryIndex inventory;
+    private final ThrottleBackoff backoff;
+    private final StabilizationPolicy stabilization;
+    private final MutationRunner runner;
+    private final SesInvoker.Mode mode;
+    private final SesApi api;
+
+    public DeleteHandler() {
+        this(DescribeCache.shared());
+    }
+
+    DeleteHandler(final DescribeCache cache) {
+        this(cache, SesApi.configured());
+    }
+
+    DeleteHandler(final DescribeCache cache, final SesApi api) {
+        this(cache, InventoryIndex.shared(), new ThrottleBackoff(), new StabilizationPolicy(),
+            new MutationRunner(MAX_CONCURRENT_DESTINATION_DELETES), SesInvoker.Mode.ASYNC, api);
+    }
+
+    DeleteHandler(
+        final DescribeCache cache,
+        final InventoryIndex inventory,
+        final ThrottleBackoff backoff,
+        final StabilizationPolicy stabilization,
+        final MutationRunner runner,
+        final SesInvoker.Mode mode,
+        final SesApi api) {
+        this.cache = cache;
+        this.inventory = inventory;
+        this.backoff = backoff;
+        this.stabilization = stabilization;
+        this.runner = runner;
+        this.mode = mode;
+        this.api = api;
+    }
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
         final AmazonWebServicesClientProxy proxy,
         final ResourceHandlerRequest<ResourceModel> request,
-        final CallbackContext callbackContext,
-        final Logger logger) {
-        final SesClient client = ClientBuilder.getClient();
+        final CallbackContext context,
+        final Logger logger,
+        final HandlerMetrics metrics) {
         final ResourceModel model = request.getDesiredResourceState();
+        NameValidator.schema().validate(model.getName());
+        final PrimaryIdentifier identifier = getPrimaryIdentifier(model);
+        cache.invalidate(DescribeCache.key(request, model.getName()));
 
         try {
-            final DeleteConfigurationSetRequest deleteConfigurationSetRequest = DeleteConfigurationSetRequest.builder()
-                .configurationSetName(model.getName())
-                .build();
-            proxy.injectCredentialsAndInvokeV2(deleteConfigurationSetRequest, client::deleteConfigurationSet);
-            logger.log(String.format("%s [%s] deleted successfully",
-                ResourceModel.TYPE_NAME, getPrimaryIdentifier(model).toString()));
-        } catch (final ConfigurationSetDoesNotExistException e) {
+            if (!context.isDependentsRemoved()) {
+                // doubles as the existence check: a missing set fails here with NotFound
+                final List<Mutation> destinations = MutationPlanner.planEventDestinationDeletes(model.getName(),
+                    eventDestinationNames(proxy, request.getRegion(), model.getName(), metrics),
+                    new SesInvoker(mode, api, proxy, request.getRegion()));
+                runner.run(destinations, context, metrics);
+
+                context.setDependentsRemoved(true);
+                context.getCompletedMutations().clear();
+                ThrottleBackoff.reset(context);
+            }
+
+            if (!context.isMutationComplete()) {
+                try {
+                    CallGate.enter("DeleteConfigurationSet", proxy);
+                    if (api == SesApi.V2) {
+                        final software.amazon.awssdk.services.sesv2.model.DeleteConfigurationSetRequest
+                            deleteConfigurationSetRequest = ConfigurationSetV2.deleteRequest(model.getName());
+                        metrics.time("DeleteConfigurationSet", () -> proxy.injectCredentialsAndInvokeV2(
+                            deleteConfigurationSetRequest,
+                            ClientBuilder.getV2Client(request.getRegion())::deleteConfigurationSet));
+                    } else {
+                        final DeleteConfigurationSetRequest deleteConfigurationSetRequest =
+                            DeleteConfigurationSetRequest.builder()
+                                .configurationSetName(model.getName())
+                                .build();
+                        metrics.time("DeleteConfigurationSet", () -> proxy.injectCredentialsAndInvokeV2(
+                            deleteConfigurationSetRequest,
+                            ClientBuilder.getClient(request.getRegion())::deleteConfigurationSet));
+                    }
+                    logger.log(ResourceModel.TYPE_NAME + " [" + identifier + "] deleted successfully");
+                } catch (ConfigurationSetDoesNotExistException | NotFoundException e) {
+                    // existence was confirmed above, so an earlier attempt already got through
+                    logger.log(ResourceModel.TYPE_NAME + " [" + identifier + "] already deleted");
+                }
+
+                context.setMutationComplete(true);
+                ThrottleBackoff.reset(context);
+                stabilization.start(context);
+            }
+        } catch (ConfigurationSetDoesNotExistException | NotFoundException e) {
             throw new CfnNotFoundException(ResourceModel.TYPE_NAME, model.getName());
+        } catch (LimitExceededException | software.amazon.awssdk.services.sesv2.model.LimitExceededException e) {
+            return backoff.retry(model, context,
+                () -> new CfnServiceLimitExceededException(ResourceModel.TYPE_NAME, e.toString()));
+        } catch (SesException | SesV2Exception e) {
+            if (!ThrottleBackoff.isThrottle(e)) {
+                throw e;
+            }
+            return backoff.retry(model, context,
+                () -> new CfnThrottlingException("DeleteConfigurationSet", e));
         }
 
-        return ProgressEvent.defaultSuccessHandler(null);
+        final ProgressEvent<ResourceModel, CallbackContext> event =
+            awaitDeletion(proxy, request.getRegion(), model, identifier, context, logger, metrics);
+        if (event.isSuccess()) {
+            // a Read that overlapped the delete may have cached the set again
+            cache.invalidate(DescribeCache.key(request, model.getName()));
+            inventory.remove(InventoryIndex.key(request), model.getName());
+        }
+        return event;
+    }
+
+    /**
+     * The names of the set's event destinations, from DescribeConfigurationSet or, on
+     * {@link SesApi#V2}, GetConfigurationSetEventDestinations.
+     */
+    private List<String> eventDestinationNames(
+        final AmazonWebServicesClientProxy proxy,
+        final String region,
+        final String name,
+        final HandlerMetrics metrics) {
+        final List<String> names = new ArrayList<>();
+        if (api == SesApi.V2) {
+            final GetConfigurationSetEventDestinationsRequest eventDestinationsRequest =
+                ConfigurationSetV2.eventDestinationsRequest(name);
+            CallGate.enter("GetConfigurationSetEventDestinations", proxy);
+            final GetConfigurationSetEventDestinationsResponse described = metrics.time(
+                "GetConfigurationSetEventDestinations", () -> proxy.injectCredentialsAndInvokeV2(eventDestinationsRequest,
+                    ClientBuilder.getV2Client(region)::getConfigurationSetEventDestinations));
+            for (final software.amazon.awssdk.services.sesv2.model.EventDestination destination
+                : described.eventDestinations()) {
+                names.add(destination.name());
+            }
+            return names;
+        }
+
+        final DescribeConfigurationSetRequest describeConfigurationSetRequest =
+            ConfigurationSetAttributes.eventDestinationsRequest(name);
+        CallGate.enter("DescribeConfigurationSet", proxy);
+        final DescribeConfigurationSetResponse described = metrics.time("DescribeConfigurationSet", () ->
+            proxy.injectCredentialsAndInvokeV2(describeConfigurationSetRequest,
+                ClientBuilder.getClient(region)::describeConfigurationSet));
+        for (final software.amazon.awssdk.services.ses.model.EventDestination destination : described.eventDestinations()) {
+            names.add(destination.name());
+        }
+        return names;
+    }
+
+    /**
+     * Reports SUCCESS only once DescribeConfigurationSet, or GetConfigurationSet on
+     * {@link SesApi#V2}, no longer finds the set, so a replacement with the same name does
+     * not collide with the one being deleted.
+     */
+    private ProgressEvent<ResourceModel, CallbackContext> awaitDeletion(
+        final AmazonWebServicesClientProxy proxy,
+        final String region,
+        final ResourceModel model,
+        final PrimaryIdentifier identifier,
+        final CallbackContext context,
+        final Logger logger,
+        final HandlerMetrics metrics) {
+        final String operation = api == SesApi.V2 ? "GetConfigurationSet" : "DescribeConfigurationSet";
+        try {
+            CallGate.enter(operation, proxy);
+            if (api == SesApi.V2) {
+                final GetConfigurationSetRequest getConfigurationSetRequest = ConfigurationSetV2.getRequest(model.getName());
+                metrics.time(operation, () -> proxy.injectCredentialsAndInvokeV2(getConfigurationSetRequest,
+                    ClientBuilder.getV2Client(region)::getConfigurationSet));
+            } else {
+                final DescribeConfigurationSetRequest describeConfigurationSetRequest =
+                    ConfigurationSetAttributes.existenceRequest(model.getName());
+                metrics.time(operation, () -> proxy.injectCredentialsAndInvokeV2(describeConfigurationSetRequest,
+                    ClientBuilder.getClient(region)::describeConfigurationSet));
+            }
+        } catch (ConfigurationSetDoesNotExistException | NotFoundException e) {
+            logger.log(ResourceModel.TYPE_NAME + " [" + identifier + "] stabilized");
+            metrics.record("TimeToStable", stabilization.elapsedMillis(context), HandlerMetrics.Unit.MILLISECONDS);
+            metrics.record("StabilizationPolls", context.getStabilizationAttempts() + 1, HandlerMetrics.Unit.COUNT);
+            return ProgressEvent.defaultSuccessHandler(null);
+        } catch (SesException | SesV2Exception e) {
+            if (!ThrottleBackoff.isThrottle(e)) {
+                throw e;
+            }
+            return backoff.retry(model, context,
+                () -> new CfnThrottlingException(operation, e));
+        }
+
+        if (stabilization.isTimedOut(context)) {
+            throw new CfnNotStabilizedException(ResourceModel.TYPE_NAME, identifier.toString());
+        }
+        return ProgressEvent.defaultInProgressHandler(context, stabilization.nextDelaySeconds(context), model);
     }
 }
@@ -0,0 +1,206 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetResponse;
+import software.amazon.awssdk.services.sesv2.model.GetConfigurationSetResponse;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of DescribeConfigurationSet results, together with the set's tags, or of
+ * their SESv2 counterparts, shared by all invocations in a warm container.
+ *
+ * Drift detection and stack updates read the same configuration set several times within
+ * seconds; entries live for {@link #TTL_MILLIS} and the least recently used entry is
+ * dropped once {@link #MAX_ENTRIES} is reached. Only Read populates it, with every modeled
+ * attribute; Create, Update and Delete invalidate, so the cache never serves a set this
+ * container has changed or deleted.
+ *
+ * Invalidating also bumps the key's generation. Read takes the generation before it
+ * describes and puts with it, so a describe that was in flight when the set changed cannot
+ * put its stale result back.
+ *
+ * Entries are keyed by account, region and name, not by the caller's role: a Read under one
+ * role may be served what a Read under another role of the same account fetched.
+ */
+class DescribeCache {
+
+    static final int MAX_ENTRIES = 256;
+    static final long TTL_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private static final DescribeCache SHARED = new DescribeCache(MAX_ENTRIES, TTL_MILLIS, System::currentTimeMillis);
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries;
+    // generation of each recently invalidated key; older ones are covered by evictedGeneration
+    private final Map<String, Long> generations;
+    private long lastGeneration;
+    private long evictedGeneration;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    DescribeCache(final int maxEntries, final long ttlMillis, final LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+                if (size() > DescribeCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.generations = new LinkedHashMap<String, Long>(16, 0.75f, false) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Long> eldest) {
+                if (size() > DescribeCache.this.maxEntries) {
+                    evictedGeneration = Math.max(evictedGeneration, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    static DescribeCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Configuration set names are only unique per account and region.
+     */
+    static String key(final ResourceHandlerRequest<ResourceModel> request, final String configurationSetName) {
+        return request.getAwsAccountId() + "/" + request.getRegion() + "/" + configurationSetName;
+    }
+
+    synchronized Described get(final String key) {
+        final Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (clock.getAsLong() >= entry.expiresAt) {
+            entries.remove(key);
+            evictions.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.described;
+    }
+
+    /**
+     * @return a value that changes whenever {@code key} is invalidated; it may also change,
+     *     harmlessly, when the key has not been
+     */
+    synchronized long generation(final String key) {
+        final Long generation = generations.get(key);
+        return generation == null ? evictedGeneration : generation;
+    }
+
+    synchronized void put(final String key, final Described described) {
+        put(key, described, generation(key));
+    }
+
+    /**
+     * Puts {@code described} unless {@code key} has been invalidated since {@code generation}
+     * was taken.
+     */
+    synchronized void put(final String key, final Described described, final long generation) {
+        if (described != null && generation(key) == generation) {
+            entries.put(key, new Entry(described, clock.getAsLong() + ttlMillis));
+        }
+    }
+
+    synchronized void invalidate(final String key) {
+        entries.remove(key);
+        generations.remove(key);
+        generations.put(key, ++lastGeneration);
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        generations.clear();
+        evictedGeneration = ++lastGeneration;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Everything Read fetches for one set: on {@link SesApi#V1} the describe response and the
+     * tags, on {@link SesApi#V2} the GetConfigurationSet response and the event destinations.
+     */
+    static final class Described {
+        private final DescribeConfigurationSetResponse response;
+        private final List<software.amazon.awssdk.services.sesv2.model.Tag> tags;
+        private final GetConfigurationSetResponse v2Response;
+        private final List<software.amazon.awssdk.services.sesv2.model.EventDestination> v2EventDestinations;
+
+        Described(
+            final DescribeConfigurationSetResponse response,
+            final List<software.amazon.awssdk.services.sesv2.model.Tag> tags) {
+            this.response = response;
+            this.tags = tags;
+            this.v2Response = null;
+            this.v2EventDestinations = null;
+        }
+
+        Described(
+            final GetConfigurationSetResponse response,
+            final List<software.amazon.awssdk.services.sesv2.model.EventDestination> eventDestinations) {
+            this.response = null;
+            this.tags = null;
+            this.v2Response = response;
+            this.v2EventDestinations = eventDestinations;
+        }
+
+        ResourceModel toResourceModel() {
+            if (v2Response != null) {
+                return ConfigurationSetV2.toResourceModel(v2Response, v2EventDestinations);
+            }
+            final ResourceModel model = ConfigurationSetAttributes.toResourceModel(response);
+            model.setTags(ConfigurationSetTags.fromSes(tags));
+            return model;
+        }
+    }
+
+    private static final class Entry {
+        private final Described described;
+        private final long expiresAt;
+
+        private Entry(final Described described, final long expiresAt) {
+            this.described = described;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package software.amazon.ses.configurationset;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import software.amazon.cloudformation.proxy.Logger;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes each invocation's metrics as one CloudWatch Embedded Metric Format line through the
+ * handler {@link Logger}, so CloudWatch extracts them from the provider log group without
+ * any extra API calls.
+ */
+class EmfMetricsSink implements MetricsSink {
+
+    static final String NAMESPACE = "ResourceProviders/SES/ConfigurationSet";
+    static final String HANDLER_DIMENSION = "Handler";
+
+    @Override
+    public void publish(final HandlerMetrics metrics, final Logger logger) {
+        logger.log(toEmf(metrics).toString());
+    }
+
+    static JSONObject toEmf(final HandlerMetrics metrics) {
+        final JSONArray definitions = new JSONArray();
+        final JSONObject root = new JSONObject();
+        root.put(HANDLER_DIMENSION, metrics.getHandler());
+
+        for (final Map.Entry<String, HandlerMetrics.Unit> metric : metrics.getUnits().entrySet()) {
+            definitions.put(new JSONObject()
+                .put("Name", metric.getKey())
+                .put("Unit", metric.getValue().getCloudWatchName()));
+            final List<Double> values = metrics.getValues(metric.getKey());
+            root.put(metric.getKey(), values.size() == 1 ? values.get(0) : new JSONArray(values));
+        }
+
+        root.put("_aws", new JSONObject()
+            .put("Timestamp", metrics.getTimestamp())
+            .put("CloudWatchMetrics", new JSONArray().put(new JSONObject()
+                .put("Namespace", NAMESPACE)
+                .put("Dimensions", new JSONArray().put(new JSONArray().put(HANDLER_DIMENSION)))
+                .put("Metrics", definitions))));
+        return root;
+    }
+}
@@ -0,0 +1,236 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.awssdk.services.ses.model.CloudWatchDimensionConfiguration;
+import software.amazon.awssdk.services.ses.model.DimensionValueSource;
+import software.amazon.awssdk.services.ses.model.EventType;
+import software.amazon.awssdk.services.ses.model.SNSDestination;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Converts event destinations between the model and the SES API.
+ *
+ * The schema spells event types and dimension value sources as the SDK constant names
+ * ({@code RENDERING_FAILURE}, {@code MESSAGE_TAG}), the SES API as camel case values
+ * ({@code renderingFailure}, {@code messageTag}). Event types are sorted on the way to SES,
+ * in the order of the SDK's constants, which both APIs share, so two destinations that list
+ * the same types in a different order convert to equal requests and compare as unchanged.
+ *
+ * SESv2 spells both like the schema, so they pass through as strings, and names the
+ * destination outside its definition.
+ */
+final class EventDestinations {
+
+    private EventDestinations() {
+    }
+
+    /**
+     * @return the destinations keyed by name, in model order; empty for {@code null}
+     */
+    static Map<String, EventDestination> byName(final List<EventDestination> destinations) {
+        if (destinations == null) {
+            return Collections.emptyMap();
+        }
+        final Map<String, EventDestination> byName = new LinkedHashMap<>();
+        for (final EventDestination destination : destinations) {
+            byName.put(destination.getName(), destination);
+        }
+        return byName;
+    }
+
+    /**
+     * Whether SES would hold the same destination for both, reading an omitted
+     * {@code Enabled} as {@code false} like SES does.
+     */
+    static boolean sameConfiguration(final EventDestination left, final EventDestination right) {
+        return toSes(left).equals(toSes(right));
+    }
+
+    static software.amazon.awssdk.services.ses.model.EventDestination toSes(final EventDestination destination) {
+        final List<EventType> eventTypes = new ArrayList<>();
+        if (destination.getMatchingEventTypes() != null) {
+            for (final String eventType : destination.getMatchingEventTypes()) {
+                eventTypes.add(EventType.valueOf(eventType.toUpperCase(Locale.ROOT)));
+            }
+        }
+        Collections.sort(eventTypes);
+
+        final software.amazon.awssdk.services.ses.model.EventDestination.Builder builder =
+            software.amazon.awssdk.services.ses.model.EventDestination.builder()
+                .name(destination.getName())
+                .enabled(Boolean.TRUE.equals(destination.getEnabled()))
+                .matchingEventTypes(eventTypes);
+
+        final CloudWatchDestination cloudWatch = destination.getCloudWatchDestination();
+        if (cloudWatch != null) {
+            final List<CloudWatchDimensionConfiguration> dimensions = new ArrayList<>();
+            if (cloudWatch.getDimensionConfigurations() != null) {
+                for (final DimensionConfiguration dimension : cloudWatch.getDimensionConfigurations()) {
+                    dimensions.add(CloudWatchDimensionConfiguration.builder()
+                        .dimensionName(dimension.getDimensionName())
+                        .dimensionValueSource(DimensionValueSource.valueOf(
+                            dimension.getDimensionValueSource().toUpperCase(Locale.ROOT)))
+                        .defaultDimensionValue(dimension.getDefaultDimensionValue())
+                        .build());
+                }
+            }
+            builder.cloudWatchDestination(software.amazon.awssdk.services.ses.model.CloudWatchDestination.builder()
+                .dimensionConfigurations(dimensions)
+                .build());
+        }
+
+        final KinesisFirehoseDestination firehose = destination.getKinesisFirehoseDestination();
+        if (firehose != null) {
+            builder.kinesisFirehoseDestination(software.amazon.awssdk.services.ses.model.KinesisFirehoseDestination.builder()
+                .iamRoleARN(firehose.getIAMRoleARN())
+                .deliveryStreamARN(firehose.getDeliveryStreamARN())
+                .build());
+        }
+
+        final SnsDestination sns = destination.getSnsDestination();
+        if (sns != null) {
+            builder.snsDestination(SNSDestination.builder()
+                .topicARN(sns.getTopicARN())
+                .build());
+        }
+        return builder.build();
+    }
+
+    static software.amazon.awssdk.services.sesv2.model.EventDestinationDefinition toSesV2(
+        final EventDestination destination) {
+        final List<software.amazon.awssdk.services.sesv2.model.EventType> eventTypes = new ArrayList<>();
+        if (destination.getMatchingEventTypes() != null) {
+            for (final String eventType : destination.getMatchingEventTypes()) {
+                eventTypes.add(software.amazon.awssdk.services.sesv2.model.EventType.fromValue(
+                    eventType.toUpperCase(Locale.ROOT)));
+            }
+        }
+        Collections.sort(eventTypes);
+
+        final software.amazon.awssdk.services.sesv2.model.EventDestinationDefinition.Builder builder =
+            software.amazon.awssdk.services.sesv2.model.EventDestinationDefinition.builder()
+                .enabled(Boolean.TRUE.equals(destination.getEnabled()))
+                .matchingEventTypes(eventTypes);
+
+        final CloudWatchDestination cloudWatch = destination.getCloudWatchDestination();
+        if (cloudWatch != null) {
+            final List<software.amazon.awssdk.services.sesv2.model.CloudWatchDimensionConfiguration> dimensions =
+                new ArrayList<>();
+            if (cloudWatch.getDimensionConfigurations() != null) {
+                for (final DimensionConfiguration dimension : cloudWatch.getDimensionConfigurations()) {
+                    dimensions.add(software.amazon.awssdk.services.sesv2.model.CloudWatchDimensionConfiguration.builder()
+                        .dimensionName(dimension.getDimensionName())
+                        .dimensionValueSource(dimension.getDimensionValueSource())
+                        .defaultDimensionValue(dimension.getDefaultDimensionValue())
+                        .build());
+                }
+            }
+            builder.cloudWatchDestination(software.amazon.awssdk.services.sesv2.model.CloudWatchDestination.builder()
+                .dimensionConfigurations(dimensions)
+                .build());
+        }
+
+        final KinesisFirehoseDestination firehose = destination.getKinesisFirehoseDestination();
+        if (firehose != null) {
+            builder.kinesisFirehoseDestination(software.amazon.awssdk.services.sesv2.model.KinesisFirehoseDestination.builder()
+                .iamRoleArn(firehose.getIAMRoleARN())
+                .deliveryStreamArn(firehose.getDeliveryStreamARN())
+                .build());
+        }
+
+        final SnsDestination sns = destination.getSnsDestination();
+        if (sns != null) {
+            builder.snsDestination(software.amazon.awssdk.services.sesv2.model.SnsDestination.builder()
+                .topicArn(sns.getTopicARN())
+                .build());
+        }
+        return builder.build();
+    }
+
+    static EventDestination fromSes(final software.amazon.awssdk.services.ses.model.EventDestination destination) {
+        final List<String> eventTypes = new ArrayList<>(destination.matchingEventTypes().size());
+        for (final EventType eventType : destination.matchingEventTypes()) {
+            eventTypes.add(eventType == EventType.UNKNOWN_TO_SDK_VERSION ? null : eventType.name());
+        }
+        if (eventTypes.contains(null)) {
+            // a type newer than this SDK; keep what SES returned rather than drop it
+            eventTypes.clear();
+            eventTypes.addAll(destination.matchingEventTypesAsStrings());
+        }
+
+        final EventDestination model = EventDestination.builder()
+            .name(destination.name())
+            .enabled(destination.enabled())
+            .matchingEventTypes(eventTypes)
+            .build();
+
+        if (destination.cloudWatchDestination() != null) {
+            final List<DimensionConfiguration> dimensions = new ArrayList<>();
+            for (final CloudWatchDimensionConfiguration dimension
+                : destination.cloudWatchDestination().dimensionConfigurations()) {
+                dimensions.add(DimensionConfiguration.builder()
+                    .dimensionName(dimension.dimensionName())
+                    .dimensionValueSource(dimension.dimensionValueSource() == DimensionValueSource.UNKNOWN_TO_SDK_VERSION
+                        ? dimension.dimensionValueSourceAsString()
+                        : dimension.dimensionValueSource().name())
+                    .defaultDimensionValue(dimension.defaultDimensionValue())
+                    .build());
+            }
+            model.setCloudWatchDestination(CloudWatchDestination.builder()
+                .dimensionConfigurations(dimensions)
+                .build());
+        }
+        if (destination.kinesisFirehoseDestination() != null) {
+            model.setKinesisFirehoseDestination(KinesisFirehoseDestination.builder()
+                .iAMRoleARN(destination.kinesisFirehoseDestination().iamRoleARN())
+                .deliveryStreamARN(destination.kinesisFirehoseDestination().deliveryStreamARN())
+                .build());
+        }
+        if (destination.snsDestination() != null) {
+            model.setSnsDestination(SnsDestination.builder()
+                .topicARN(destination.snsDestination().topicARN())
+                .build());
+        }
+        return model;
+    }
+
+    static EventDestination fromSesV2(final software.amazon.awssdk.services.sesv2.model.EventDestination destination) {
+        final EventDestination model = EventDestination.builder()
+            .name(destination.name())
+            .enabled(destination.enabled())
+            .matchingEventTypes(new ArrayList<>(destination.matchingEventTypesAsStrings()))
+            .build();
+
+        if (destination.cloudWatchDestination() != null) {
+            final List<DimensionConfiguration> dimensions = new ArrayList<>();
+            for (final software.amazon.awssdk.services.sesv2.model.CloudWatchDimensionConfiguration dimension
+                : destination.cloudWatchDestination().dimensionConfigurations()) {
+                dimensions.add(DimensionConfiguration.builder()
+                    .dimensionName(dimension.dimensionName())
+                    .dimensionValueSource(dimension.dimensionValueSourceAsString())
+                    .defaultDimensionValue(dimension.defaultDimensionValue())
+                    .build());
+            }
+            model.setCloudWatchDestination(CloudWatchDestination.builder()
+                .dimensionConfigurations(dimensions)
+                .build());
+        }
+        if (destination.kinesisFirehoseDestination() != null) {
+            model.setKinesisFirehoseDestination(KinesisFirehoseDestination.builder()
+                .iAMRoleARN(destination.kinesisFirehoseDestination().iamRoleArn())
+                .deliveryStreamARN(destination.kinesisFirehoseDestination().deliveryStreamArn())
+                .build());
+        }
+        if (destination.snsDestination() != null) {
+            model.setSnsDestination(SnsDestination.builder()
+                .topicARN(destination.snsDestination().topicArn())
+                .build());
+        }
+        return model;
+    }
+}
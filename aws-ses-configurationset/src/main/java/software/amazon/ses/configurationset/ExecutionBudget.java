@@ -0,0 +1,54 @@
+package software.amazon.ses.configurationset;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides before each SES call whether the invocation has time left for it.
+ *
+ * The call is expected to take the {@link #PERCENTILE} latency recently observed for its
+ * operation, or {@link #DEFAULT_ESTIMATE_MILLIS} until {@link #MIN_SAMPLES} calls have been
+ * seen. If that, plus {@link #RESERVE_MILLIS} to return the result, does not fit in the
+ * remaining time, {@link BudgetExhaustedException} stops the handler before the call, with
+ * its progress so far in the {@link CallbackContext}, and {@link InstrumentedHandler} turns
+ * it into a callback that starts with a fresh time budget.
+ */
+class ExecutionBudget {
+
+    static final double PERCENTILE = 0.99;
+    static final int MIN_SAMPLES = 5;
+    static final long DEFAULT_ESTIMATE_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    static final long RESERVE_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    private static final ExecutionBudget SHARED = new ExecutionBudget(LatencyTracker.shared());
+
+    private final LatencyTracker latencies;
+
+    ExecutionBudget(final LatencyTracker latencies) {
+        this.latencies = latencies;
+    }
+
+    static ExecutionBudget shared() {
+        return SHARED;
+    }
+
+    long estimateMillis(final String operation) {
+        if (latencies.count(operation) < MIN_SAMPLES) {
+            return DEFAULT_ESTIMATE_MILLIS;
+        }
+        return latencies.percentile(operation, PERCENTILE);
+    }
+
+    /**
+     * Returns if a call to {@code operation} fits in the remaining time.
+     *
+     * @throws BudgetExhaustedException when the handler should checkpoint instead
+     */
+    void check(final String operation, final LongSupplier remainingMillis) {
+        final long estimate = estimateMillis(operation);
+        final long remaining = remainingMillis.getAsLong();
+        if (remaining - RESERVE_MILLIS < estimate) {
+            throw new BudgetExhaustedException(operation, remaining, estimate);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.cloudformation.proxy.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Metrics collected during a single handler invocation and published to the configured
+ * {@link MetricsSink} when it is closed.
+ *
+ * Handlers time every SES call through {@link #time(String, Supplier)}; the
+ * {@link MetricsInterceptor} on the SDK clients adds retry counts and payload sizes for the
+ * invocation running on the calling thread. A metric may hold several values, e.g. one
+ * latency per call of the same operation, which CloudWatch aggregates as a distribution.
+ */
+final class HandlerMetrics implements AutoCloseable {
+
+    static final String HANDLER_LATENCY = "HandlerLatency";
+
+    enum Unit {
+        MILLISECONDS("Milliseconds"),
+        BYTES("Bytes"),
+        COUNT("Count");
+
+        private final String cloudWatchName;
+
+        Unit(final String cloudWatchName) {
+            this.cloudWatchName = cloudWatchName;
+        }
+
+        String getCloudWatchName() {
+            return cloudWatchName;
+        }
+    }
+
+    private static final ThreadLocal<HandlerMetrics> CURRENT = new ThreadLocal<>();
+
+    private static volatile MetricsSink sink = new EmfMetricsSink();
+
+    private final String handler;
+    private final Logger logger;
+    private final long timestamp;
+    private final long startNanos;
+    private final Map<String, Metric> metrics = new LinkedHashMap<>();
+
+    private HandlerMetrics(final String handler, final Logger logger) {
+        this.handler = handler;
+        this.logger = logger;
+        this.timestamp = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+    }
+
+    static HandlerMetrics start(final String handler, final Logger logger) {
+        final HandlerMetrics metrics = new HandlerMetrics(handler, logger);
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    /**
+     * The invocation running on this thread, or {@code null} outside a handler.
+     */
+    static HandlerMetrics current() {
+        return CURRENT.get();
+    }
+
+    static void setSink(final MetricsSink metricsSink) {
+        sink = metricsSink;
+    }
+
+    static MetricsSink getSink() {
+        return sink;
+    }
+
+    String getHandler() {
+        return handler;
+    }
+
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Makes these the current metrics while {@code call} runs, so SDK calls made on a worker
+     * thread are attributed to the invocation that started them.
+     */
+    <T> T attach(final Supplier<T> call) {
+        final HandlerMetrics previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Runs an SES call, recording its latency as {@code <operation>.Latency} and, when it
+     * was throttled, a {@code <operation>.Throttles} count.
+     */
+    <T> T time(final String operation, final Supplier<T> call) {
+        final long start = System.nanoTime();
+        try {
+            return call.get();
+        } catch (final RuntimeException e) {
+            countThrottle(operation, e);
+            throw e;
+        } finally {
+            record(operation + ".Latency", millisSince(start), Unit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Like {@link #time(String, Supplier)} for an async SES call, recorded when the returned
+     * future completes.
+     */
+    <T> CompletableFuture<T> timeAsync(final String operation, final Supplier<CompletableFuture<T>> call) {
+        final long start = System.nanoTime();
+        final CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (final RuntimeException e) {
+            countThrottle(operation, e);
+            record(operation + ".Latency", millisSince(start), Unit.MILLISECONDS);
+            throw e;
+        }
+        return future.whenComplete((result, error) -> {
+            if (error != null) {
+                countThrottle(operation, error instanceof CompletionException ? error.getCause() : error);
+            }
+            record(operation + ".Latency", millisSince(start), Unit.MILLISECONDS);
+        });
+    }
+
+    synchronized void record(final String name, final double value, final Unit unit) {
+        metrics.computeIfAbsent(name, n -> new Metric(unit)).values.add(value);
+    }
+
+    synchronized void increment(final String name) {
+        final List<Double> values = metrics.computeIfAbsent(name, n -> new Metric(Unit.COUNT)).values;
+        if (values.isEmpty()) {
+            values.add(1.0);
+        } else {
+            values.set(0, values.get(0) + 1.0);
+        }
+    }
+
+    synchronized List<Double> getValues(final String name) {
+        final Metric metric = metrics.get(name);
+        return metric == null ? Collections.emptyList() : new ArrayList<>(metric.values);
+    }
+
+    synchronized Map<String, Unit> getUnits() {
+        final Map<String, Unit> units = new LinkedHashMap<>();
+        metrics.forEach((name, metric) -> units.put(name, metric.unit));
+        return units;
+    }
+
+    /**
+     * Records the handler's wall time and publishes everything collected.
+     */
+    @Override
+    public void close() {
+        record(HANDLER_LATENCY, millisSince(startNanos), Unit.MILLISECONDS);
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        sink.publish(this, logger);
+    }
+
+    private void countThrottle(final String operation, final Throwable error) {
+        if (error instanceof Exception && ThrottleBackoff.isThrottle((Exception) error)) {
+            increment(operation + ".Throttles");
+        }
+    }
+
+    private static double millisSince(final long startNanos) {
+        return (System.nanoTime() - startNanos) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static final class Metric {
+        private final Unit unit;
+        private final List<Double> values = new ArrayList<>(1);
+
+        private Metric(final Unit unit) {
+            this.unit = unit;
+        }
+    }
+}
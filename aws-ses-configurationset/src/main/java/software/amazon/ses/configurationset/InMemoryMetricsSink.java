@@ -0,0 +1,38 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.cloudformation.proxy.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps published invocation metrics in memory, for tests and benchmarks that want to
+ * inspect or aggregate them instead of logging.
+ */
+class InMemoryMetricsSink implements MetricsSink {
+
+    private final ConcurrentLinkedQueue<HandlerMetrics> published = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void publish(final HandlerMetrics metrics, final Logger logger) {
+        published.add(metrics);
+    }
+
+    List<HandlerMetrics> getPublished() {
+        return new ArrayList<>(published);
+    }
+
+    /**
+     * Every value recorded for {@code name} across all published invocations.
+     */
+    List<Double> getValues(final String name) {
+        final List<Double> values = new ArrayList<>();
+        published.forEach(metrics -> values.addAll(metrics.getValues(name)));
+        return values;
+    }
+
+    void clear() {
+        published.clear();
+    }
+}
@@ -0,0 +1,100 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.cloudformation.exceptions.CfnServiceInternalErrorException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+/**
+ * Base for all handlers: wraps every invocation in a {@link HandlerMetrics} that records its
+ * wall time and is published when the invocation returns or throws.
+ *
+ * A {@link RateLimitedException} from any SES call becomes a callback after the token is
+ * due, carrying the same {@link CallbackContext} the handler has been checkpointing into.
+ * Handlers that must answer synchronously, see {@link #isResumable()}, fail with a
+ * retryable throttling error instead.
+ *
+ * The same applies when the {@link ExecutionBudget} stops a call the invocation has no time
+ * left for; the callback then starts with a fresh budget.
+ *
+ * A call rejected by an open {@link CircuitBreaker}, however the SDK wrapped it, fails the
+ * invocation with a retryable service error without waiting for SDK retries.
+ */
+abstract class InstrumentedHandler extends BaseHandler<CallbackContext> {
+
+    static final int BUDGET_CALLBACK_DELAY_SECONDS = 1;
+
+    static {
+        // the wrapper creates the handlers during the Lambda init phase
+        ContainerInitializer.initializeInLambda();
+    }
+
+    @Override
+    public final ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+        final AmazonWebServicesClientProxy proxy,
+        final ResourceHandlerRequest<ResourceModel> request,
+        final CallbackContext callbackContext,
+        final Logger logger) {
+        final CallbackContext context = callbackContext == null ? new CallbackContext() : callbackContext;
+        final String rateLimitsError = RateLimiter.shared().takeConfigurationError();
+        if (rateLimitsError != null) {
+            logger.log(rateLimitsError);
+        }
+        try (HandlerMetrics metrics = HandlerMetrics.start(getClass().getSimpleName(), logger)) {
+            try {
+                return handleRequest(proxy, request, context, logger, metrics);
+            } catch (final RateLimitedException e) {
+                metrics.increment(e.getOperation() + ".RateLimited");
+                if (!isResumable()) {
+                    throw new CfnThrottlingException(e.getOperation(), e);
+                }
+                logger.log(e.getMessage() + "; resuming in " + e.getDelaySeconds() + "s");
+                return ProgressEvent.defaultInProgressHandler(context, e.getDelaySeconds(),
+                    request.getDesiredResourceState());
+            } catch (final BudgetExhaustedException e) {
+                metrics.increment(e.getOperation() + ".BudgetExhausted");
+                if (!isResumable()) {
+                    throw new CfnThrottlingException(e.getOperation(), e);
+                }
+                logger.log(e.getMessage() + "; resuming in a new invocation");
+                return ProgressEvent.defaultInProgressHandler(context, BUDGET_CALLBACK_DELAY_SECONDS,
+                    request.getDesiredResourceState());
+            } catch (final RuntimeException e) {
+                final CircuitOpenException open = findCircuitOpen(e);
+                if (open == null) {
+                    throw e;
+                }
+                logger.log(open.getMessage());
+                throw new CfnServiceInternalErrorException("SES in " + open.getRegion(), open);
+            }
+        }
+    }
+
+    /**
+     * Whether the handler may return IN_PROGRESS; Read and List may not.
+     */
+    protected boolean isResumable() {
+        return true;
+    }
+
+    private static CircuitOpenException findCircuitOpen(final Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CircuitOpenException) {
+                return (CircuitOpenException) cause;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param callbackContext the context of the previous invocation, or a new one on the first
+     */
+    protected abstract ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+        AmazonWebServicesClientProxy proxy,
+        ResourceHandlerRequest<ResourceModel> request,
+        CallbackContext callbackContext,
+        Logger logger,
+        HandlerMetrics metrics);
+}
@@ -0,0 +1,381 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * The configuration set names of each account and region, shared by all invocations in a
+ * warm container so List pages out of memory instead of re-listing SES every time.
+ *
+ * A listing is taken one SES page at a time and may span invocations: a List that runs out
+ * of time keeps the pages it has, and the next one resumes from the SES token where it
+ * stopped. Only a complete listing becomes the snapshot, which is served for
+ * {@link #TTL_MILLIS}. Create and Delete add and remove their set in place, so this
+ * container's own changes show up at once; changes made elsewhere wait for the TTL.
+ *
+ * Like {@link DescribeCache}, the index is keyed by account and region, not by the caller's
+ * role, so a List may page out of a listing taken with another role's credentials.
+ *
+ * When {@value #PATH_VARIABLE} names a file, e.g. {@code /tmp/ses-inventory.bin}, snapshots
+ * are also written there and read back when the class loads. Lambda keeps {@code /tmp} when
+ * it restarts the runtime after a timeout or crash, which the heap does not survive. Names
+ * are stored sorted and front coded: each one as the length of the prefix it shares with
+ * the one before, then the rest.
+ */
+class InventoryIndex {
+
+    static final long TTL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    // a listing left unfinished for longer starts over rather than trust an old SES token
+    static final long MAX_LISTING_AGE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    static final String PATH_VARIABLE = "SES_INVENTORY_PATH";
+
+    private static final int MAGIC = 0x53455349;
+    private static final byte VERSION = 1;
+
+    private static final InventoryIndex SHARED = load(TTL_MILLIS, System::currentTimeMillis,
+        System.getenv(PATH_VARIABLE) == null ? null : Paths.get(System.getenv(PATH_VARIABLE)));
+
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Path path;
+    private final Map<String, Inventory> inventories = new HashMap<>();
+    // held while writing the file; taken before the index's monitor, never while holding it
+    private final Object fileLock = new Object();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    InventoryIndex(final long ttlMillis, final LongSupplier clock, final Path path) {
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.path = path;
+    }
+
+    static InventoryIndex shared() {
+        return SHARED;
+    }
+
+    /**
+     * Configuration sets are listed per account and region.
+     */
+    static String key(final ResourceHandlerRequest<ResourceModel> request) {
+        return request.getAwsAccountId() + "/" + request.getRegion();
+    }
+
+    /**
+     * An index whose snapshots start from the file at {@code path}, if it holds any.
+     */
+    static InventoryIndex load(final long ttlMillis, final LongSupplier clock, final Path path) {
+        final InventoryIndex index = new InventoryIndex(ttlMillis, clock, path);
+        if (path != null) {
+            try (InputStream input = Files.newInputStream(path)) {
+                index.read(input);
+            } catch (final NoSuchFileException e) {
+                // nothing persisted yet
+            } catch (final IOException | RuntimeException e) {
+                // unreadable or from another version; the first List takes a new listing
+                index.clear();
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return the snapshot for {@code key} if it is within its TTL, otherwise {@code null}
+     */
+    synchronized Snapshot get(final String key) {
+        final Inventory inventory = inventories.get(key);
+        if (inventory == null || inventory.snapshot == null || isStale(inventory.snapshot)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return inventory.snapshot;
+    }
+
+    /**
+     * @return the SES token of the next page of the listing in progress for {@code key}, or
+     *     {@code null} to start a new listing
+     */
+    synchronized String listingToken(final String key) {
+        final Inventory inventory = inventories.get(key);
+        return inventory == null || !hasListing(inventory) ? null : inventory.listingToken;
+    }
+
+    /**
+     * Adds one page of a listing: the page SES returned for {@code token}. A page that does
+     * not continue the listing in progress, or a first page while the snapshot is fresh, was
+     * already added by a concurrent List and is ignored.
+     *
+     * @return the new snapshot when this page completed the listing, otherwise {@code null}
+     */
+    Snapshot addPage(
+        final String key,
+        final String token,
+        final List<String> names,
+        final String nextToken) {
+        final Snapshot snapshot;
+        synchronized (this) {
+            final Inventory inventory = inventories.computeIfAbsent(key, k -> new Inventory());
+            if (token == null) {
+                if (hasListing(inventory) || inventory.snapshot != null && !isStale(inventory.snapshot)) {
+                    return null;
+                }
+                inventory.listing = new TreeSet<>();
+                inventory.listingStartedAt = clock.getAsLong();
+            } else if (!hasListing(inventory) || !token.equals(inventory.listingToken)) {
+                return null;
+            }
+
+            inventory.listing.addAll(names);
+            inventory.listingToken = nextToken;
+            if (nextToken != null) {
+                return null;
+            }
+            inventory.snapshot = new Snapshot(inventory.listing.toArray(new String[0]), clock.getAsLong());
+            inventory.listing = null;
+            snapshot = inventory.snapshot;
+        }
+        persist();
+        return snapshot;
+    }
+
+    /**
+     * Records a set this container created, in the snapshot and in a listing in progress.
+     */
+    void add(final String key, final String name) {
+        synchronized (this) {
+            final Inventory inventory = inventories.get(key);
+            if (inventory == null) {
+                return;
+            }
+            if (inventory.listing != null) {
+                inventory.listing.add(name);
+            }
+            if (inventory.snapshot == null || Arrays.binarySearch(inventory.snapshot.names, name) >= 0) {
+                return;
+            }
+            final TreeSet<String> names = new TreeSet<>(Arrays.asList(inventory.snapshot.names));
+            names.add(name);
+            inventory.snapshot = new Snapshot(names.toArray(new String[0]), inventory.snapshot.refreshedAt);
+        }
+        persist();
+    }
+
+    /**
+     * Records a set this container deleted, in the snapshot and in a listing in progress.
+     */
+    void remove(final String key, final String name) {
+        synchronized (this) {
+            final Inventory inventory = inventories.get(key);
+            if (inventory == null) {
+                return;
+            }
+            if (inventory.listing != null) {
+                inventory.listing.remove(name);
+            }
+            if (inventory.snapshot == null || Arrays.binarySearch(inventory.snapshot.names, name) < 0) {
+                return;
+            }
+            final TreeSet<String> names = new TreeSet<>(Arrays.asList(inventory.snapshot.names));
+            names.remove(name);
+            inventory.snapshot = new Snapshot(names.toArray(new String[0]), inventory.snapshot.refreshedAt);
+        }
+        persist();
+    }
+
+    synchronized void clear() {
+        inventories.clear();
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    private boolean isStale(final Snapshot snapshot) {
+        return clock.getAsLong() - snapshot.refreshedAt >= ttlMillis;
+    }
+
+    private boolean hasListing(final Inventory inventory) {
+        return inventory.listing != null && clock.getAsLong() - inventory.listingStartedAt < MAX_LISTING_AGE_MILLIS;
+    }
+
+    /**
+     * Replaces the file with the current snapshots; best effort, since the next listing
+     * rebuilds anything lost. Called without holding the index's monitor: the snapshots are
+     * copied under it and written outside it, one writer at a time, so Lists are not held
+     * up by the file system. Each writer copies after the one before it has finished, so
+     * the file never goes back to an older state.
+     */
+    private void persist() {
+        if (path == null) {
+            return;
+        }
+        synchronized (fileLock) {
+            final Map<String, Snapshot> snapshots = snapshots();
+            final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            try {
+                try (OutputStream output = Files.newOutputStream(temporary)) {
+                    write(snapshots, output);
+                }
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final IOException e) {
+                // the in-memory snapshot is still served
+            }
+        }
+    }
+
+    void write(final OutputStream output) throws IOException {
+        write(snapshots(), output);
+    }
+
+    /**
+     * @return the complete snapshots by key; they are immutable, so the copy can be used
+     *     without the monitor
+     */
+    private synchronized Map<String, Snapshot> snapshots() {
+        final Map<String, Snapshot> snapshots = new LinkedHashMap<>();
+        for (final Map.Entry<String, Inventory> inventory : inventories.entrySet()) {
+            if (inventory.getValue().snapshot != null) {
+                snapshots.put(inventory.getKey(), inventory.getValue().snapshot);
+            }
+        }
+        return snapshots;
+    }
+
+    private static void write(final Map<String, Snapshot> snapshots, final OutputStream output) throws IOException {
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(snapshots.size());
+        for (final Map.Entry<String, Snapshot> entry : snapshots.entrySet()) {
+            final Snapshot snapshot = entry.getValue();
+            data.writeUTF(entry.getKey());
+            data.writeLong(snapshot.refreshedAt);
+            data.writeInt(snapshot.names.length);
+            String previous = "";
+            for (final String name : snapshot.names) {
+                final int shared = sharedPrefix(previous, name);
+                data.writeShort(shared);
+                data.writeUTF(name.substring(shared));
+                previous = name;
+            }
+        }
+        data.flush();
+    }
+
+    synchronized void read(final InputStream input) throws IOException {
+        final DataInputStream data = new DataInputStream(new BufferedInputStream(input));
+        if (data.readInt() != MAGIC || data.readByte() != VERSION) {
+            throw new IOException("Not an inventory snapshot of version " + VERSION);
+        }
+        final int inventoryCount = data.readInt();
+        for (int i = 0; i < inventoryCount; i++) {
+            final String key = data.readUTF();
+            final long refreshedAt = data.readLong();
+            final String[] names = new String[data.readInt()];
+            String previous = "";
+            for (int n = 0; n < names.length; n++) {
+                final int shared = data.readUnsignedShort();
+                names[n] = previous.substring(0, shared) + data.readUTF();
+                previous = names[n];
+            }
+            inventories.computeIfAbsent(key, k -> new Inventory()).snapshot = new Snapshot(names, refreshedAt);
+        }
+    }
+
+    private static int sharedPrefix(final String previous, final String name) {
+        final int max = Math.min(previous.length(), name.length());
+        int shared = 0;
+        while (shared < max && previous.charAt(shared) == name.charAt(shared)) {
+            shared++;
+        }
+        return shared;
+    }
+
+    /**
+     * A complete listing: the names in sorted order, never modified once built.
+     */
+    static final class Snapshot {
+        private final String[] names;
+        private final long refreshedAt;
+
+        Snapshot(final String[] names, final long refreshedAt) {
+            this.names = names;
+            this.refreshedAt = refreshedAt;
+        }
+
+        /**
+         * Up to {@code pageSize} names following {@code after}, or from the first name when it
+         * is {@code null}. Paging by name keeps a page boundary stable while sets are added
+         * and removed between pages.
+         */
+        Page page(final String after, final int pageSize) {
+            int from = 0;
+            if (after != null) {
+                final int found = Arrays.binarySearch(names, after);
+                from = found >= 0 ? found + 1 : -found - 1;
+            }
+            final int to = Math.min(names.length, from + Math.max(pageSize, 0));
+            final List<String> page = Collections.unmodifiableList(Arrays.asList(names).subList(from, to));
+            return new Page(page, to > from && to < names.length ? names[to - 1] : null);
+        }
+
+        int size() {
+            return names.length;
+        }
+    }
+
+    static final class Page {
+        private final List<String> names;
+        private final String nextToken;
+
+        private Page(final List<String> names, final String nextToken) {
+            this.names = names;
+            this.nextToken = nextToken;
+        }
+
+        List<String> getNames() {
+            return names;
+        }
+
+        String getNextToken() {
+            return nextToken;
+        }
+    }
+
+    private static final class Inventory {
+        private Snapshot snapshot;
+        private TreeSet<String> listing;
+        private String listingToken;
+        private long listingStartedAt;
+    }
+}
@@ -0,0 +1,84 @@
+package software.amazon.ses.configurationset;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Latest SES call latencies per operation, kept by every client in the container through
+ * the {@link MetricsInterceptor} and read by the {@link ExecutionBudget} to estimate how long
+ * the next call may take.
+ *
+ * Each operation keeps its last {@link #SAMPLES} latencies, so estimates follow the service
+ * as it speeds up or slows down.
+ */
+class LatencyTracker {
+
+    static final int SAMPLES = 128;
+
+    private static final LatencyTracker SHARED = new LatencyTracker(SAMPLES);
+
+    private final int samples;
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    LatencyTracker(final int samples) {
+        this.samples = samples;
+    }
+
+    static LatencyTracker shared() {
+        return SHARED;
+    }
+
+    void record(final String operation, final long millis) {
+        windows.computeIfAbsent(operation, o -> new Window(samples)).add(millis);
+    }
+
+    int count(final String operation) {
+        final Window window = windows.get(operation);
+        return window == null ? 0 : window.size();
+    }
+
+    /**
+     * The latency at {@code percentile}, between 0 and 1, of the recorded samples, or
+     * {@code -1} when there are none.
+     */
+    long percentile(final String operation, final double percentile) {
+        final Window window = windows.get(operation);
+        return window == null ? -1L : window.percentile(percentile);
+    }
+
+    void clear() {
+        windows.clear();
+    }
+
+    private static final class Window {
+
+        private final long[] latencies;
+        private int next;
+        private int size;
+
+        private Window(final int capacity) {
+            this.latencies = new long[capacity];
+        }
+
+        private synchronized void add(final long millis) {
+            latencies[next] = millis;
+            next = (next + 1) % latencies.length;
+            size = Math.min(size + 1, latencies.length);
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+
+        private synchronized long percentile(final double percentile) {
+            if (size == 0) {
+                return -1L;
+            }
+            final long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            final int rank = (int) Math.ceil(percentile * size);
+            return sorted[Math.min(size, Math.max(1, rank)) - 1];
+        }
+    }
+}
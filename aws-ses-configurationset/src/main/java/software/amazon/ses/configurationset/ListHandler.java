@@ -5,51 +5,183 @@ import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
-import software.amazon.awssdk.services.ses.SesClient;
+import software.amazon.awssdk.services.ses.model.ConfigurationSet;
 import software.amazon.awssdk.services.ses.model.ListConfigurationSetsRequest;
 import software.amazon.awssdk.services.ses.model.ListConfigurationSetsResponse;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
-public class ListHandler extends BaseHandler<CallbackContext> {
+public class ListHandler extends InstrumentedHandler {
 
-    private AmazonWebServicesClientProxy proxy;
-    private SesClient client;
+    public static final int DEFAULT_PAGE_SIZE = 50;
 
+    // SES returns at most this many sets per ListConfigurationSets call
+    static final int LISTING_PAGE_SIZE = 1000;
+
+    private static final SingleFlight<ListedPage> LIST_CALLS = new SingleFlight<>();
+
+    private final int pageSize;
+    private final SingleFlight<ListedPage> listCalls;
+    private final InventoryIndex inventory;
+    private final SesApi api;
+
+    public ListHandler() {
+        this(DEFAULT_PAGE_SIZE);
+    }
+
+    ListHandler(final int pageSize) {
+        this(pageSize, LIST_CALLS, InventoryIndex.shared());
+    }
+
+    ListHandler(
+        final int pageSize,
+        final SingleFlight<ListedPage> listCalls,
+        final InventoryIndex inventory) {
+        this(pageSize, listCalls, inventory, SesApi.configured());
+    }
+
+    ListHandler(
+        final int pageSize,
+        final SingleFlight<ListedPage> listCalls,
+        final InventoryIndex inventory,
+        final SesApi api) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.pageSize = pageSize;
+        this.listCalls = listCalls;
+        this.inventory = inventory;
+        this.api = api;
+    }
+
+    /**
+     * Returns a single page of configuration sets per invocation, out of the container's
+     * {@link InventoryIndex}. The token passed back to CloudFormation is the last name of
+     * the page. SES is only listed when the snapshot is missing or stale, and then in full,
+     * which may take several calls; a listing cut short by the execution budget is resumed
+     * by the next invocation.
+     */
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
         final AmazonWebServicesClientProxy proxy,
         final ResourceHandlerRequest<ResourceModel> request,
         final CallbackContext callbackContext,
-        final Logger logger) {
-        this.proxy = proxy;
-        this.client = ClientBuilder.getClient();
+        final Logger logger,
+        final HandlerMetrics metrics) {
+        final String key = InventoryIndex.key(request);
 
-        final List<ResourceModel> models = listConfigurationSets();
+        InventoryIndex.Snapshot snapshot = inventory.get(key);
+        if (snapshot != null) {
+            metrics.increment("Inventory.Hits");
+        } else {
+            metrics.increment("Inventory.Misses");
+            try {
+                snapshot = refresh(proxy, request.getRegion(), key, metrics);
+            } catch (final BudgetExhaustedException e) {
+                if (request.getNextToken() == null) {
+                    throw e;
+                }
+                // an empty page that repeats the token makes CloudFormation ask again with a fresh budget
+                metrics.increment("ListConfigurationSets.BudgetExhausted");
+                return ProgressEvent.<ResourceModel, CallbackContext>builder()
+                    .resourceModels(Collections.emptyList())
+                    .nextToken(request.getNextToken())
+                    .status(OperationStatus.SUCCESS)
+                    .build();
+            }
+        }
 
+        final InventoryIndex.Page page = snapshot.page(request.getNextToken(), pageSize);
         return ProgressEvent.<ResourceModel, CallbackContext>builder()
-            .resourceModels(models)
+            .resourceModels(toResourceModels(page.getNames()))
+            .nextToken(page.getNextToken())
             .status(OperationStatus.SUCCESS)
             .build();
     }
 
-    private List<ResourceModel> listConfigurationSets() {
-        final ListConfigurationSetsRequest request = ListConfigurationSetsRequest.builder()
-            .maxItems(50)
+    /**
+     * Lists SES page by page, continuing the listing in progress, until it completes.
+     */
+    private InventoryIndex.Snapshot refresh(
+        final AmazonWebServicesClientProxy proxy,
+        final String region,
+        final String key,
+        final HandlerMetrics metrics) {
+        InventoryIndex.Snapshot snapshot = null;
+        while (snapshot == null) {
+            final String token = inventory.listingToken(key);
+
+            // concurrent invocations continuing the same listing share one call
+            final ListedPage listed = listCalls.execute("ListConfigurationSets/" + key + "/" + token, () -> {
+                CallGate.enter("ListConfigurationSets", proxy);
+                return metrics.time("ListConfigurationSets", () -> list(proxy, region, token));
+            });
+            snapshot = inventory.addPage(key, token, listed.names, listed.nextToken);
+            if (snapshot == null && inventory.listingToken(key) == null) {
+                // a concurrent List completed the listing; serve its snapshot rather than start over
+                snapshot = inventory.get(key);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * One ListConfigurationSets page, from the v1 or, on {@link SesApi#V2}, the SESv2 API;
+     * both page with an opaque token.
+     */
+    private ListedPage list(final AmazonWebServicesClientProxy proxy, final String region, final String token) {
+        if (api == SesApi.V2) {
+            final software.amazon.awssdk.services.sesv2.model.ListConfigurationSetsRequest listConfigurationSetsRequest =
+                software.amazon.awssdk.services.sesv2.model.ListConfigurationSetsRequest.builder()
+                    .pageSize(LISTING_PAGE_SIZE)
+                    .nextToken(token)
+                    .build();
+            final software.amazon.awssdk.services.sesv2.model.ListConfigurationSetsResponse response =
+                proxy.injectCredentialsAndInvokeV2(listConfigurationSetsRequest,
+                    ClientBuilder.getV2Client(region)::listConfigurationSets);
+            return new ListedPage(response.configurationSets(), response.nextToken());
+        }
+
+        final ListConfigurationSetsRequest listConfigurationSetsRequest = ListConfigurationSetsRequest.builder()
+            .maxItems(LISTING_PAGE_SIZE)
+            .nextToken(token)
             .build();
+        final ListConfigurationSetsResponse response = proxy.injectCredentialsAndInvokeV2(listConfigurationSetsRequest,
+            ClientBuilder.getClient(region)::listConfigurationSets);
+        return new ListedPage(names(response), response.nextToken());
+    }
 
-        ListConfigurationSetsResponse response =
-            this.proxy.injectCredentialsAndInvokeV2(request, this.client::listConfigurationSets);
+    @Override
+    protected boolean isResumable() {
+        return false;
+    }
+
+    static List<String> names(final ListConfigurationSetsResponse response) {
+        return response.configurationSets().stream()
+            .map(ConfigurationSet::name)
+            .collect(Collectors.toList());
+    }
+
+    static List<ResourceModel> toResourceModels(final List<String> names) {
+        return names.stream()
+            .map(name -> ResourceModel.builder()
+                .name(name)
+                .build())
+            .collect(Collectors.toList());
+    }
 
-        List<ResourceModel> models = new ArrayList<>();
-        response.configurationSets().forEach(c ->{
-            ResourceModel model = ResourceModel.builder()
-                .name(c.name())
-                .build();
-            models.add(model);
-        });
+    /**
+     * The names on one SES page and the token of the next, whichever API listed them.
+     */
+    static final class ListedPage {
+        private final List<String> names;
+        private final String nextToken;
 
-        return models;
+        ListedPage(final List<String> names, final String nextToken) {
+            this.names = names;
+            this.nextToken = nextToken;
+        }
     }
 }
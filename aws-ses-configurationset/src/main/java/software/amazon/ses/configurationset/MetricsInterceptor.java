@@ -0,0 +1,82 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds what only the SDK can see to the {@link HandlerMetrics} of the invocation on the
+ * calling thread: SDK-internal retries and request/response payload sizes per operation.
+ * The wall time of every call that reaches SES, SDK retries included, also goes to the
+ * shared {@link LatencyTracker}.
+ *
+ * The metrics are captured when the call starts, which is always on the calling thread, so
+ * async calls whose later stages run on the HTTP client's threads are attributed as well.
+ */
+class MetricsInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<HandlerMetrics> METRICS = new ExecutionAttribute<>("ConfigurationSetMetrics");
+    private static final ExecutionAttribute<Integer> ATTEMPTS = new ExecutionAttribute<>("ConfigurationSetMetricsAttempts");
+    private static final ExecutionAttribute<Long> STARTED_AT = new ExecutionAttribute<>("ConfigurationSetMetricsStartedAt");
+
+    @Override
+    public void beforeExecution(final Context.BeforeExecution context, final ExecutionAttributes attributes) {
+        attributes.putAttribute(STARTED_AT, System.nanoTime());
+        final HandlerMetrics metrics = HandlerMetrics.current();
+        if (metrics != null) {
+            attributes.putAttribute(METRICS, metrics);
+        }
+    }
+
+    @Override
+    public void afterExecution(final Context.AfterExecution context, final ExecutionAttributes attributes) {
+        recordLatency(attributes);
+    }
+
+    @Override
+    public void onExecutionFailure(final Context.FailedExecution context, final ExecutionAttributes attributes) {
+        // calls rejected before transmission say nothing about how long SES takes
+        if (attributes.getAttribute(ATTEMPTS) != null) {
+            recordLatency(attributes);
+        }
+    }
+
+    @Override
+    public void beforeTransmission(final Context.BeforeTransmission context, final ExecutionAttributes attributes) {
+        final Integer attempts = attributes.getAttribute(ATTEMPTS);
+        attributes.putAttribute(ATTEMPTS, attempts == null ? 1 : attempts + 1);
+        final HandlerMetrics metrics = attributes.getAttribute(METRICS);
+        if (metrics == null) {
+            return;
+        }
+        final String operation = attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        if (attempts != null) {
+            metrics.increment(operation + ".Retries");
+        }
+        context.httpRequest().firstMatchingHeader("Content-Length").ifPresent(length ->
+            metrics.record(operation + ".RequestBytes", Long.parseLong(length), HandlerMetrics.Unit.BYTES));
+    }
+
+    @Override
+    public void afterTransmission(final Context.AfterTransmission context, final ExecutionAttributes attributes) {
+        final HandlerMetrics metrics = attributes.getAttribute(METRICS);
+        if (metrics == null) {
+            return;
+        }
+        final String operation = attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        context.httpResponse().firstMatchingHeader("Content-Length").ifPresent(length ->
+            metrics.record(operation + ".ResponseBytes", Long.parseLong(length), HandlerMetrics.Unit.BYTES));
+    }
+
+    private static void recordLatency(final ExecutionAttributes attributes) {
+        final Long startedAt = attributes.getAttribute(STARTED_AT);
+        if (startedAt != null) {
+            LatencyTracker.shared().record(attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        }
+    }
+}
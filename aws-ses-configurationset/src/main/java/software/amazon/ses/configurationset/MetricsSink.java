@@ -0,0 +1,11 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.cloudformation.proxy.Logger;
+
+/**
+ * Destination for the metrics of a finished handler invocation.
+ */
+interface MetricsSink {
+
+    void publish(HandlerMetrics metrics, Logger logger);
+}
@@ -0,0 +1,45 @@
+package software.amazon.ses.configurationset;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * A single asynchronous SES call planned by {@link MutationPlanner}.
+ *
+ * The id is derived from the diff and is stable across re-invocations of the same request,
+ * so mutations that already succeeded are recorded in {@link CallbackContext} and skipped
+ * when the handler is called back.
+ */
+final class Mutation {
+
+    private final String id;
+    private final String operation;
+    private final Supplier<CompletableFuture<?>> call;
+
+    Mutation(final String operation, final Supplier<CompletableFuture<?>> call) {
+        this(operation, operation, call);
+    }
+
+    Mutation(final String id, final String operation, final Supplier<CompletableFuture<?>> call) {
+        this.id = id;
+        this.operation = operation;
+        this.call = call;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    String getOperation() {
+        return operation;
+    }
+
+    CompletableFuture<?> apply() {
+        return call.get();
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
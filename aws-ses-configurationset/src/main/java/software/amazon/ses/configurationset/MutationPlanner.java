@@ -0,0 +1,451 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.awssdk.services.ses.SesAsyncClient;
+import software.amazon.awssdk.services.ses.SesClient;
+import software.amazon.awssdk.services.ses.model.CreateConfigurationSetEventDestinationRequest;
+import software.amazon.awssdk.services.ses.model.CreateConfigurationSetTrackingOptionsRequest;
+import software.amazon.awssdk.services.ses.model.DeleteConfigurationSetEventDestinationRequest;
+import software.amazon.awssdk.services.ses.model.DeleteConfigurationSetTrackingOptionsRequest;
+import software.amazon.awssdk.services.ses.model.EventDestinationAlreadyExistsException;
+import software.amazon.awssdk.services.ses.model.EventDestinationDoesNotExistException;
+import software.amazon.awssdk.services.ses.model.PutConfigurationSetDeliveryOptionsRequest;
+import software.amazon.awssdk.services.ses.model.UpdateConfigurationSetEventDestinationRequest;
+import software.amazon.awssdk.services.ses.model.UpdateConfigurationSetReputationMetricsEnabledRequest;
+import software.amazon.awssdk.services.ses.model.UpdateConfigurationSetSendingEnabledRequest;
+import software.amazon.awssdk.services.ses.model.UpdateConfigurationSetTrackingOptionsRequest;
+import software.amazon.awssdk.services.sesv2.SesV2AsyncClient;
+import software.amazon.awssdk.services.sesv2.SesV2Client;
+import software.amazon.awssdk.services.sesv2.model.AlreadyExistsException;
+import software.amazon.awssdk.services.sesv2.model.NotFoundException;
+import software.amazon.awssdk.services.sesv2.model.PutConfigurationSetReputationOptionsRequest;
+import software.amazon.awssdk.services.sesv2.model.PutConfigurationSetSendingOptionsRequest;
+import software.amazon.awssdk.services.sesv2.model.PutConfigurationSetTrackingOptionsRequest;
+import software.amazon.awssdk.services.sesv2.model.TagResourceRequest;
+import software.amazon.awssdk.services.sesv2.model.UntagResourceRequest;
+import software.amazon.cloudformation.exceptions.CfnNotUpdatableException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static software.amazon.ses.configurationset.ResourceModelExtensions.getPrimaryIdentifier;
+
+/**
+ * Computes the smallest set of SES calls that turns one resource state into another. Each
+ * option group maps to its own SES call, so unchanged groups cost nothing and changed groups
+ * are independent of each other and can be applied concurrently.
+ *
+ * An omitted option group means the SES default, which is also what a newly created
+ * configuration set starts with; create therefore plans against a model with only a name.
+ * Calls go through a {@link SesInvoker}, so whether they overlap is up to the handler.
+ *
+ * Event destinations are diffed by name, one call per added, changed or removed destination.
+ * Adding one that already exists or removing one that is already gone counts as done, so a
+ * resumed invocation does not fail on its own earlier progress.
+ *
+ * The calls are those of the invoker's {@link SesApi}. On {@link SesApi#V2} one
+ * PutConfigurationSetTrackingOptions adds, changes or removes the redirect domain, and
+ * create plans only the event destinations, since CreateConfigurationSet has already applied
+ * the option groups. A v2 destination removal also counts as done when SES reports the whole
+ * set missing; a sibling call surfaces that.
+ */
+final class MutationPlanner {
+
+    static final boolean DEFAULT_REPUTATION_METRICS_ENABLED = false;
+    static final boolean DEFAULT_SENDING_ENABLED = true;
+    static final String DEFAULT_TLS_POLICY = "OPTIONAL";
+
+    private MutationPlanner() {
+    }
+
+    static List<Mutation> planCreate(
+        final ResourceModel desired,
+        final SesInvoker invoker) {
+        final ResourceModel created = ResourceModel.builder().name(desired.getName()).build();
+        if (invoker.getApi() == SesApi.V2) {
+            return diffEventDestinations(created, desired, invoker);
+        }
+        return diff(created, desired, invoker);
+    }
+
+    /**
+     * @throws CfnNotUpdatableException if a createOnly property differs; CloudFormation
+     *     replaces the resource for those and never routes them through update
+     */
+    static List<Mutation> planUpdate(
+        final ResourceModel previous,
+        final ResourceModel desired,
+        final SesInvoker invoker) {
+        if (previous == null) {
+            // unlike planCreate on V2, nothing was applied inline, so every set option is diffed
+            return diff(ResourceModel.builder().name(desired.getName()).build(), desired, invoker);
+        }
+        if (!Objects.equals(previous.getName(), desired.getName())) {
+            throw new CfnNotUpdatableException(ResourceModel.TYPE_NAME, getPrimaryIdentifier(previous).toString());
+        }
+        return diff(previous, desired, invoker);
+    }
+
+    /**
+     * At most one TagResource, for every added or changed tag, and one UntagResource, for
+     * every removed key; the two touch different keys and can run concurrently. Tags are
+     * addressed by the set's {@code arn}, see {@link ConfigurationSetTags#arn}.
+     */
+    static List<Mutation> planTags(
+        final String arn,
+        final List<Tag> previous,
+        final List<Tag> desired,
+        final SesInvoker invoker) {
+        final Map<String, String> previousTags = ConfigurationSetTags.byKey(previous);
+        final Map<String, String> tags = ConfigurationSetTags.byKey(desired);
+        final List<Mutation> mutations = new ArrayList<>(2);
+
+        final Map<String, String> tagged = new LinkedHashMap<>();
+        for (final Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!tag.getValue().equals(previousTags.get(tag.getKey()))) {
+                tagged.put(tag.getKey(), tag.getValue());
+            }
+        }
+        if (!tagged.isEmpty()) {
+            final TagResourceRequest request = TagResourceRequest.builder()
+                .resourceArn(arn)
+                .tags(ConfigurationSetTags.toSes(tagged))
+                .build();
+            mutations.add(new Mutation("TagResource", () -> invoker.invokeV2(request, SesV2Client::tagResource)));
+        }
+
+        final List<String> untagged = new ArrayList<>();
+        for (final String key : previousTags.keySet()) {
+            if (!tags.containsKey(key)) {
+                untagged.add(key);
+            }
+        }
+        if (!untagged.isEmpty()) {
+            final UntagResourceRequest request = UntagResourceRequest.builder()
+                .resourceArn(arn)
+                .tagKeys(untagged)
+                .build();
+            mutations.add(new Mutation("UntagResource", () -> invoker.invokeV2(request, SesV2Client::untagResource)));
+        }
+        return mutations;
+    }
+
+    /**
+     * One call per destination, as a delete of the whole set needs.
+     */
+    static List<Mutation> planEventDestinationDeletes(
+        final String name,
+        final List<String> destinationNames,
+        final SesInvoker invoker) {
+        final List<Mutation> mutations = new ArrayList<>(destinationNames.size());
+        for (final String destinationName : destinationNames) {
+            mutations.add(deleteEventDestination(name, destinationName, invoker));
+        }
+        return mutations;
+    }
+
+    private static List<Mutation> diff(
+        final ResourceModel previous,
+        final ResourceModel desired,
+        final SesInvoker invoker) {
+        final List<Mutation> mutations = invoker.getApi() == SesApi.V2
+            ? diffOptionsV2(previous, desired, invoker)
+            : diffOptions(previous, desired, invoker);
+        mutations.addAll(diffEventDestinations(previous, desired, invoker));
+        return mutations;
+    }
+
+    private static List<Mutation> diffOptions(
+        final ResourceModel previous,
+        final ResourceModel desired,
+        final SesInvoker invoker) {
+        final String name = desired.getName();
+        final List<Mutation> mutations = new ArrayList<>(4);
+
+        final boolean reputationMetricsEnabled = reputationMetricsEnabled(desired);
+        if (reputationMetricsEnabled(previous) != reputationMetricsEnabled) {
+            final UpdateConfigurationSetReputationMetricsEnabledRequest request =
+                UpdateConfigurationSetReputationMetricsEnabledRequest.builder()
+                    .configurationSetName(name)
+                    .enabled(reputationMetricsEnabled)
+                    .build();
+            mutations.add(new Mutation("UpdateConfigurationSetReputationMetricsEnabled", () -> invoker.invoke(request,
+                SesClient::updateConfigurationSetReputationMetricsEnabled,
+                SesAsyncClient::updateConfigurationSetReputationMetricsEnabled)));
+        }
+
+        final boolean sendingEnabled = sendingEnabled(desired);
+        if (sendingEnabled(previous) != sendingEnabled) {
+            final UpdateConfigurationSetSendingEnabledRequest request = UpdateConfigurationSetSendingEnabledRequest.builder()
+                .configurationSetName(name)
+                .enabled(sendingEnabled)
+                .build();
+            mutations.add(new Mutation("UpdateConfigurationSetSendingEnabled", () -> invoker.invoke(request,
+                SesClient::updateConfigurationSetSendingEnabled,
+                SesAsyncClient::updateConfigurationSetSendingEnabled)));
+        }
+
+        final String tlsPolicy = tlsPolicy(desired);
+        if (!tlsPolicy(previous).equals(tlsPolicy)) {
+            final PutConfigurationSetDeliveryOptionsRequest request = PutConfigurationSetDeliveryOptionsRequest.builder()
+                .configurationSetName(name)
+                .deliveryOptions(software.amazon.awssdk.services.ses.model.DeliveryOptions.builder()
+                    // the schema uses the constant names, the SES API capitalized values
+                    .tlsPolicy(software.amazon.awssdk.services.ses.model.TlsPolicy.valueOf(tlsPolicy))
+                    .build())
+                .build();
+            mutations.add(new Mutation("PutConfigurationSetDeliveryOptions", () -> invoker.invoke(request,
+                SesClient::putConfigurationSetDeliveryOptions,
+                SesAsyncClient::putConfigurationSetDeliveryOptions)));
+        }
+
+        final String previousRedirectDomain = customRedirectDomain(previous);
+        final String redirectDomain = customRedirectDomain(desired);
+        if (previousRedirectDomain == null && redirectDomain != null) {
+            final CreateConfigurationSetTrackingOptionsRequest request =
+                CreateConfigurationSetTrackingOptionsRequest.builder()
+                    .configurationSetName(name)
+                    .trackingOptions(trackingOptions(redirectDomain))
+                    .build();
+            mutations.add(new Mutation("CreateConfigurationSetTrackingOptions", () -> invoker.invoke(request,
+                SesClient::createConfigurationSetTrackingOptions,
+                SesAsyncClient::createConfigurationSetTrackingOptions)));
+        } else if (previousRedirectDomain != null && redirectDomain == null) {
+            final DeleteConfigurationSetTrackingOptionsRequest request =
+                DeleteConfigurationSetTrackingOptionsRequest.builder()
+                    .configurationSetName(name)
+                    .build();
+            mutations.add(new Mutation("DeleteConfigurationSetTrackingOptions", () -> invoker.invoke(request,
+                SesClient::deleteConfigurationSetTrackingOptions,
+                SesAsyncClient::deleteConfigurationSetTrackingOptions)));
+        } else if (!Objects.equals(previousRedirectDomain, redirectDomain)) {
+            final UpdateConfigurationSetTrackingOptionsRequest request =
+                UpdateConfigurationSetTrackingOptionsRequest.builder()
+                    .configurationSetName(name)
+                    .trackingOptions(trackingOptions(redirectDomain))
+                    .build();
+            mutations.add(new Mutation("UpdateConfigurationSetTrackingOptions", () -> invoker.invoke(request,
+                SesClient::updateConfigurationSetTrackingOptions,
+                SesAsyncClient::updateConfigurationSetTrackingOptions)));
+        }
+        return mutations;
+    }
+
+    private static List<Mutation> diffOptionsV2(
+        final ResourceModel previous,
+        final ResourceModel desired,
+        final SesInvoker invoker) {
+        final String name = desired.getName();
+        final List<Mutation> mutations = new ArrayList<>(4);
+
+        final boolean reputationMetricsEnabled = reputationMetricsEnabled(desired);
+        if (reputationMetricsEnabled(previous) != reputationMetricsEnabled) {
+            final PutConfigurationSetReputationOptionsRequest request = PutConfigurationSetReputationOptionsRequest.builder()
+                .configurationSetName(name)
+                .reputationMetricsEnabled(reputationMetricsEnabled)
+                .build();
+            mutations.add(new Mutation("PutConfigurationSetReputationOptions", () -> invoker.invokeV2(request,
+                SesV2Client::putConfigurationSetReputationOptions,
+                SesV2AsyncClient::putConfigurationSetReputationOptions)));
+        }
+
+        final boolean sendingEnabled = sendingEnabled(desired);
+        if (sendingEnabled(previous) != sendingEnabled) {
+            final PutConfigurationSetSendingOptionsRequest request = PutConfigurationSetSendingOptionsRequest.builder()
+                .configurationSetName(name)
+                .sendingEnabled(sendingEnabled)
+                .build();
+            mutations.add(new Mutation("PutConfigurationSetSendingOptions", () -> invoker.invokeV2(request,
+                SesV2Client::putConfigurationSetSendingOptions,
+                SesV2AsyncClient::putConfigurationSetSendingOptions)));
+        }
+
+        final String tlsPolicy = tlsPolicy(desired);
+        if (!tlsPolicy(previous).equals(tlsPolicy)) {
+            final software.amazon.awssdk.services.sesv2.model.PutConfigurationSetDeliveryOptionsRequest request =
+                software.amazon.awssdk.services.sesv2.model.PutConfigurationSetDeliveryOptionsRequest.builder()
+                    .configurationSetName(name)
+                    .tlsPolicy(tlsPolicy)
+                    .build();
+            mutations.add(new Mutation("PutConfigurationSetDeliveryOptions", () -> invoker.invokeV2(request,
+                SesV2Client::putConfigurationSetDeliveryOptions,
+                SesV2AsyncClient::putConfigurationSetDeliveryOptions)));
+        }
+
+        final String redirectDomain = customRedirectDomain(desired);
+        if (!Objects.equals(customRedirectDomain(previous), redirectDomain)) {
+            // without a domain the call removes the custom one
+            final PutConfigurationSetTrackingOptionsRequest request = PutConfigurationSetTrackingOptionsRequest.builder()
+                .configurationSetName(name)
+                .customRedirectDomain(redirectDomain)
+                .build();
+            mutations.add(new Mutation("PutConfigurationSetTrackingOptions", () -> invoker.invokeV2(request,
+                SesV2Client::putConfigurationSetTrackingOptions,
+                SesV2AsyncClient::putConfigurationSetTrackingOptions)));
+        }
+        return mutations;
+    }
+
+    private static List<Mutation> diffEventDestinations(
+        final ResourceModel previous,
+        final ResourceModel desired,
+        final SesInvoker invoker) {
+        final String name = desired.getName();
+        final List<Mutation> mutations = new ArrayList<>();
+
+        final Map<String, EventDestination> previousDestinations = EventDestinations.byName(previous.getEventDestinations());
+        final Map<String, EventDestination> destinations = EventDestinations.byName(desired.getEventDestinations());
+        for (final EventDestination destination : destinations.values()) {
+            final EventDestination previousDestination = previousDestinations.get(destination.getName());
+            if (previousDestination == null) {
+                mutations.add(createEventDestination(name, destination, invoker));
+            } else if (!EventDestinations.sameConfiguration(previousDestination, destination)) {
+                mutations.add(updateEventDestination(name, destination, invoker));
+            }
+        }
+        for (final String destinationName : previousDestinations.keySet()) {
+            if (!destinations.containsKey(destinationName)) {
+                mutations.add(deleteEventDestination(name, destinationName, invoker));
+            }
+        }
+
+        return mutations;
+    }
+
+    private static Mutation createEventDestination(
+        final String name,
+        final EventDestination destination,
+        final SesInvoker invoker) {
+        if (invoker.getApi() == SesApi.V2) {
+            final software.amazon.awssdk.services.sesv2.model.CreateConfigurationSetEventDestinationRequest request =
+                software.amazon.awssdk.services.sesv2.model.CreateConfigurationSetEventDestinationRequest.builder()
+                    .configurationSetName(name)
+                    .eventDestinationName(destination.getName())
+                    .eventDestination(EventDestinations.toSesV2(destination))
+                    .build();
+            return new Mutation("CreateConfigurationSetEventDestination/" + destination.getName(),
+                "CreateConfigurationSetEventDestination",
+                () -> ignoring(AlreadyExistsException.class, invoker.invokeV2(request,
+                    SesV2Client::createConfigurationSetEventDestination,
+                    SesV2AsyncClient::createConfigurationSetEventDestination)));
+        }
+        final CreateConfigurationSetEventDestinationRequest request =
+            CreateConfigurationSetEventDestinationRequest.builder()
+                .configurationSetName(name)
+                .eventDestination(EventDestinations.toSes(destination))
+                .build();
+        return new Mutation("CreateConfigurationSetEventDestination/" + destination.getName(),
+            "CreateConfigurationSetEventDestination",
+            () -> ignoring(EventDestinationAlreadyExistsException.class, invoker.invoke(request,
+                SesClient::createConfigurationSetEventDestination,
+                SesAsyncClient::createConfigurationSetEventDestination)));
+    }
+
+    private static Mutation updateEventDestination(
+        final String name,
+        final EventDestination destination,
+        final SesInvoker invoker) {
+        if (invoker.getApi() == SesApi.V2) {
+            final software.amazon.awssdk.services.sesv2.model.UpdateConfigurationSetEventDestinationRequest request =
+                software.amazon.awssdk.services.sesv2.model.UpdateConfigurationSetEventDestinationRequest.builder()
+                    .configurationSetName(name)
+                    .eventDestinationName(destination.getName())
+                    .eventDestination(EventDestinations.toSesV2(destination))
+                    .build();
+            return new Mutation("UpdateConfigurationSetEventDestination/" + destination.getName(),
+                "UpdateConfigurationSetEventDestination",
+                () -> invoker.invokeV2(request,
+                    SesV2Client::updateConfigurationSetEventDestination,
+                    SesV2AsyncClient::updateConfigurationSetEventDestination));
+        }
+        final UpdateConfigurationSetEventDestinationRequest request =
+            UpdateConfigurationSetEventDestinationRequest.builder()
+                .configurationSetName(name)
+                .eventDestination(EventDestinations.toSes(destination))
+                .build();
+        return new Mutation("UpdateConfigurationSetEventDestination/" + destination.getName(),
+            "UpdateConfigurationSetEventDestination",
+            () -> invoker.invoke(request,
+                SesClient::updateConfigurationSetEventDestination,
+                SesAsyncClient::updateConfigurationSetEventDestination));
+    }
+
+    private static Mutation deleteEventDestination(
+        final String name,
+        final String destinationName,
+        final SesInvoker invoker) {
+        if (invoker.getApi() == SesApi.V2) {
+            final software.amazon.awssdk.services.sesv2.model.DeleteConfigurationSetEventDestinationRequest request =
+                software.amazon.awssdk.services.sesv2.model.DeleteConfigurationSetEventDestinationRequest.builder()
+                    .configurationSetName(name)
+                    .eventDestinationName(destinationName)
+                    .build();
+            return new Mutation("DeleteConfigurationSetEventDestination/" + destinationName,
+                "DeleteConfigurationSetEventDestination",
+                () -> ignoring(NotFoundException.class, invoker.invokeV2(request,
+                    SesV2Client::deleteConfigurationSetEventDestination,
+                    SesV2AsyncClient::deleteConfigurationSetEventDestination)));
+        }
+        final DeleteConfigurationSetEventDestinationRequest request =
+            DeleteConfigurationSetEventDestinationRequest.builder()
+                .configurationSetName(name)
+                .eventDestinationName(destinationName)
+                .build();
+        return new Mutation("DeleteConfigurationSetEventDestination/" + destinationName,
+            "DeleteConfigurationSetEventDestination",
+            () -> ignoring(EventDestinationDoesNotExistException.class, invoker.invoke(request,
+                SesClient::deleteConfigurationSetEventDestination,
+                SesAsyncClient::deleteConfigurationSetEventDestination)));
+    }
+
+    /**
+     * Completes normally, with {@code null}, where {@code future} fails with {@code ignored}.
+     */
+    private static <T> CompletableFuture<T> ignoring(
+        final Class<? extends Throwable> ignored,
+        final CompletableFuture<T> future) {
+        return future.exceptionally(error -> {
+            final Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (ignored.isInstance(cause)) {
+                return null;
+            }
+            throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+        });
+    }
+
+    private static boolean reputationMetricsEnabled(final ResourceModel model) {
+        final ReputationOptions options = model.getReputationOptions();
+        return options == null || options.getReputationMetricsEnabled() == null
+            ? DEFAULT_REPUTATION_METRICS_ENABLED
+            : options.getReputationMetricsEnabled();
+    }
+
+    private static boolean sendingEnabled(final ResourceModel model) {
+        final SendingOptions options = model.getSendingOptions();
+        return options == null || options.getSendingEnabled() == null
+            ? DEFAULT_SENDING_ENABLED
+            : options.getSendingEnabled();
+    }
+
+    private static String tlsPolicy(final ResourceModel model) {
+        final DeliveryOptions options = model.getDeliveryOptions();
+        return options == null || options.getTlsPolicy() == null
+            ? DEFAULT_TLS_POLICY
+            : options.getTlsPolicy();
+    }
+
+    private static String customRedirectDomain(final ResourceModel model) {
+        final TrackingOptions options = model.getTrackingOptions();
+        return options == null ? null : options.getCustomRedirectDomain();
+    }
+
+    private static software.amazon.awssdk.services.ses.model.TrackingOptions trackingOptions(final String redirectDomain) {
+        return software.amazon.awssdk.services.ses.model.TrackingOptions.builder()
+            .customRedirectDomain(redirectDomain)
+            .build();
+    }
+}
@@ -0,0 +1,87 @@
+package software.amazon.ses.configurationset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Applies independent {@link Mutation}s concurrently; with an async {@link SesInvoker} the
+ * calls overlap, with a sync one they run back to back on the calling thread.
+ *
+ * At most {@code maxInFlight} calls are outstanding at once; once any call fails no further
+ * ones are started. Every mutation that succeeds is recorded in the {@link CallbackContext}
+ * even if a sibling fails, so a throttled or otherwise retried invocation resumes with only
+ * the remainder.
+ */
+class MutationRunner {
+
+    static final int MAX_IN_FLIGHT = 8;
+
+    private static final MutationRunner SHARED = new MutationRunner(MAX_IN_FLIGHT);
+
+    private final int maxInFlight;
+
+    MutationRunner(final int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    static MutationRunner shared() {
+        return SHARED;
+    }
+
+    /**
+     * Runs every mutation not yet completed according to {@code context}, waits for all
+     * started calls and rethrows the first failure, unwrapped from the future.
+     */
+    void run(final List<Mutation> mutations, final CallbackContext context, final HandlerMetrics metrics) {
+        final Semaphore inFlight = new Semaphore(maxInFlight);
+        final Queue<String> completed = new ConcurrentLinkedQueue<>();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<CompletableFuture<?>> futures = new ArrayList<>(mutations.size());
+
+        for (final Mutation mutation : mutations) {
+            if (context.getCompletedMutations().contains(mutation.getId())) {
+                continue;
+            }
+            inFlight.acquireUninterruptibly();
+            if (failure.get() != null) {
+                inFlight.release();
+                break;
+            }
+            try {
+                futures.add(metrics.timeAsync(mutation.getOperation(), mutation::apply)
+                    .whenComplete((result, error) -> {
+                        if (error == null) {
+                            completed.add(mutation.getId());
+                        } else {
+                            failure.compareAndSet(null, error instanceof CompletionException ? error.getCause() : error);
+                        }
+                        inFlight.release();
+                    }));
+            } catch (final RuntimeException e) {
+                failure.compareAndSet(null, e);
+                inFlight.release();
+                break;
+            }
+        }
+
+        for (final CompletableFuture<?> future : futures) {
+            future.exceptionally(error -> null).join();
+        }
+
+        context.getCompletedMutations().addAll(completed);
+        final Throwable error = failure.get();
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        } else if (error instanceof Error) {
+            throw (Error) error;
+        } else if (error != null) {
+            throw new CompletionException(error);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package software.amazon.ses.configurationset;
+
+import org.json.JSONObject;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+
+import java.util.regex.Pattern;
+
+/**
+ * Checks a configuration set name against the {@code Name} constraints of the resource
+ * schema, so a name SES would refuse fails without a round trip.
+ *
+ * The schema's {@code minLength}, {@code maxLength} and {@code pattern} are read and the
+ * pattern compiled once, when the class is loaded; a check is then two length comparisons
+ * and one match, and only a failing name builds a message.
+ */
+final class NameValidator {
+
+    private static final NameValidator SCHEMA = fromSchema(new Configuration().resourceSchemaJSONObject());
+
+    private final int minLength;
+    private final int maxLength;
+    private final Pattern pattern;
+
+    NameValidator(final int minLength, final int maxLength, final Pattern pattern) {
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.pattern = pattern;
+    }
+
+    static NameValidator schema() {
+        return SCHEMA;
+    }
+
+    static NameValidator fromSchema(final JSONObject schema) {
+        final JSONObject name = schema.getJSONObject("properties").getJSONObject("Name");
+        return new NameValidator(
+            name.optInt("minLength", 0),
+            name.optInt("maxLength", Integer.MAX_VALUE),
+            name.has("pattern") ? Pattern.compile(name.getString("pattern")) : null);
+    }
+
+    /**
+     * @throws CfnInvalidRequestException naming the first constraint {@code name} breaks
+     */
+    void validate(final String name) {
+        if (name == null) {
+            throw new CfnInvalidRequestException("Name is required");
+        }
+        if (name.length() < minLength) {
+            throw new CfnInvalidRequestException(
+                "Name must be at least " + minLength + " characters, got " + name.length());
+        }
+        if (name.length() > maxLength) {
+            throw new CfnInvalidRequestException(
+                "Name must be at most " + maxLength + " characters, got " + name.length());
+        }
+        if (pattern != null && !pattern.matcher(name).matches()) {
+            throw new CfnInvalidRequestException(
+                "Name <" + name + "> must match " + pattern.pattern());
+        }
+    }
+}
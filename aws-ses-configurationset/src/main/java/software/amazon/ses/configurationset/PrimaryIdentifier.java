@@ -0,0 +1,62 @@
+package software.amazon.ses.configurationset;
+
+import org.json.JSONObject;
+
+/**
+ * Primary identifier of a configuration set, rendered the same way as the JSON identifier
+ * CloudFormation reports ({@code {"Name":["my-set"]}}).
+ *
+ * Rendering is deferred until the identifier is first turned into a string and then kept,
+ * so a handler can create it once and use it in several messages for the cost of one
+ * small string.
+ */
+public final class PrimaryIdentifier {
+
+    private final String name;
+    private String rendered;
+
+    PrimaryIdentifier(final String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        if (rendered == null) {
+            rendered = render(name);
+        }
+        return rendered;
+    }
+
+    private static String render(final String name) {
+        if (name == null) {
+            return "{\"Name\":[null]}";
+        }
+        if (needsEscaping(name)) {
+            return "{\"Name\":[" + JSONObject.quote(name) + "]}";
+        }
+        return new StringBuilder(name.length() + 14)
+            .append("{\"Name\":[\"")
+            .append(name)
+            .append("\"]}")
+            .toString();
+    }
+
+    /**
+     * Conservative check for characters {@link JSONObject#quote(String)} may escape; names
+     * matching the schema pattern never need it.
+     */
+    private static boolean needsEscaping(final String name) {
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            if (c == '"' || c == '\\' || c == '/' || c < ' '
+                || (c >= '\u0080' && c < '\u00a0') || (c >= '\u2000' && c < '\u2100')) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
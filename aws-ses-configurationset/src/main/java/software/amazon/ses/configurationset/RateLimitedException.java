@@ -0,0 +1,33 @@
+package software.amazon.ses.configurationset;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raised by {@link RateLimiter} when the next token for an operation is too far off to
+ * wait for within the invocation; {@link InstrumentedHandler} turns it into a callback.
+ */
+final class RateLimitedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String operation;
+    private final long waitMillis;
+
+    RateLimitedException(final String operation, final long waitMillis) {
+        super(operation + " rate limited for " + waitMillis + " ms");
+        this.operation = operation;
+        this.waitMillis = waitMillis;
+    }
+
+    String getOperation() {
+        return operation;
+    }
+
+    long getWaitMillis() {
+        return waitMillis;
+    }
+
+    int getDelaySeconds() {
+        return (int) Math.max(1L, (waitMillis + TimeUnit.SECONDS.toMillis(1) - 1) / TimeUnit.SECONDS.toMillis(1));
+    }
+}
@@ -0,0 +1,258 @@
+package software.amazon.ses.configurationset;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side token buckets, one per SES operation, shared by every invocation in a warm
+ * container so handlers stay under the SES control-plane quota instead of reacting to
+ * throttling errors.
+ *
+ * A caller that finds its bucket empty sleeps for the next token when that is short and
+ * leaves enough of the invocation's remaining time; otherwise {@link RateLimitedException}
+ * tells the handler to yield and be called back once the token is due.
+ *
+ * Operations that change a set default to {@link #DEFAULT_LIMIT}. Reads, i.e. Describe,
+ * Get and List operations, default to {@link #DEFAULT_READ_LIMIT}: SES allows them at a
+ * higher rate, and a Read or List that is throttled is retried by CloudFormation anyway.
+ * Limits can be overridden with the {@value #LIMITS_VARIABLE} environment variable, e.g.
+ * {@code ListConfigurationSets=2:4,*=1:10,read=5:20}, where each entry is
+ * {@code operation=permitsPerSecond:burst}, {@code *} replaces the default and
+ * {@code read} the default for reads.
+ */
+class RateLimiter {
+
+    static final String LIMITS_VARIABLE = "SES_RATE_LIMITS";
+
+    // SES documents one call per second for its configuration set APIs
+    static final Limit DEFAULT_LIMIT = new Limit(1.0, 10);
+
+    // only calls that change a set are limited unless configured
+    static final Limit DEFAULT_READ_LIMIT = Limit.UNLIMITED;
+
+    static final long MAX_LOCAL_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    // left for the call itself and the rest of the invocation after a local wait
+    static final long MIN_REMAINING_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private static final String DEFAULT_KEY = "*";
+    private static final String READ_DEFAULT_KEY = "read";
+
+    private static final RateLimiter SHARED = fromEnvironment(System.getenv(LIMITS_VARIABLE));
+
+    private final LongSupplier nanoClock;
+    private final Sleeper sleeper;
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private volatile Limit defaultLimit;
+    private volatile Limit readLimit;
+    private volatile Map<String, Limit> limits;
+
+    // why the configured limits were ignored, until an invocation has logged it
+    private final AtomicReference<String> configurationError = new AtomicReference<>();
+
+    RateLimiter(final Limit defaultLimit, final Limit readLimit, final Map<String, Limit> limits) {
+        this(defaultLimit, readLimit, limits, System::nanoTime, TimeUnit.MILLISECONDS::sleep);
+    }
+
+    RateLimiter(
+        final Limit defaultLimit,
+        final Limit readLimit,
+        final Map<String, Limit> limits,
+        final LongSupplier nanoClock,
+        final Sleeper sleeper) {
+        this.defaultLimit = defaultLimit;
+        this.readLimit = readLimit;
+        this.limits = Collections.unmodifiableMap(new HashMap<>(limits));
+        this.nanoClock = nanoClock;
+        this.sleeper = sleeper;
+    }
+
+    static RateLimiter shared() {
+        return SHARED;
+    }
+
+    static RateLimiter fromSpec(final String spec) {
+        final RateLimiter limiter = new RateLimiter(DEFAULT_LIMIT, DEFAULT_READ_LIMIT, Collections.emptyMap());
+        limiter.configure(spec);
+        return limiter;
+    }
+
+    /**
+     * Like {@link #fromSpec(String)}, but falls back to the default limits when {@code spec}
+     * is malformed, so a typo in {@value #LIMITS_VARIABLE} does not fail every handler of the
+     * container; the first invocation logs it, see {@link #takeConfigurationError()}.
+     */
+    static RateLimiter fromEnvironment(final String spec) {
+        try {
+            return fromSpec(spec);
+        } catch (final IllegalArgumentException e) {
+            final RateLimiter limiter = fromSpec(null);
+            limiter.configurationError.set(LIMITS_VARIABLE + " ignored, using the default limits: " + e.getMessage());
+            return limiter;
+        }
+    }
+
+    static Map<String, Limit> parse(final String spec) {
+        final Map<String, Limit> limits = new HashMap<>();
+        if (spec == null) {
+            return limits;
+        }
+        for (final String entry : spec.split(",")) {
+            if (entry.trim().isEmpty()) {
+                continue;
+            }
+            final String[] operationAndLimit = entry.split("=");
+            final String[] rateAndBurst = operationAndLimit.length == 2 ? operationAndLimit[1].split(":") : new String[0];
+            if (rateAndBurst.length != 2) {
+                throw new IllegalArgumentException(LIMITS_VARIABLE + " entry <" + entry + "> is not operation=rate:burst");
+            }
+            try {
+                limits.put(operationAndLimit[0].trim(),
+                    new Limit(Double.parseDouble(rateAndBurst[0].trim()), Integer.parseInt(rateAndBurst[1].trim())));
+            } catch (final NumberFormatException e) {
+                throw new IllegalArgumentException(LIMITS_VARIABLE + " entry <" + entry + "> is not operation=rate:burst", e);
+            }
+        }
+        return limits;
+    }
+
+    /**
+     * Replaces every limit with those in {@code spec}, in {@value #LIMITS_VARIABLE} syntax,
+     * and the built-in defaults, and refills all buckets.
+     */
+    void configure(final String spec) {
+        final Map<String, Limit> limits = parse(spec);
+        final Limit defaultLimit = limits.getOrDefault(DEFAULT_KEY, DEFAULT_LIMIT);
+        final Limit readLimit = limits.getOrDefault(READ_DEFAULT_KEY, DEFAULT_READ_LIMIT);
+        limits.remove(DEFAULT_KEY);
+        limits.remove(READ_DEFAULT_KEY);
+        configure(defaultLimit, readLimit, limits);
+    }
+
+    /**
+     * Replaces every limit and refills all buckets.
+     */
+    void configure(final Limit defaultLimit, final Limit readLimit, final Map<String, Limit> limits) {
+        this.defaultLimit = defaultLimit;
+        this.readLimit = readLimit;
+        this.limits = Collections.unmodifiableMap(new HashMap<>(limits));
+        buckets.clear();
+    }
+
+    /**
+     * Refills all buckets, keeping the configured limits.
+     */
+    void reset() {
+        buckets.clear();
+    }
+
+    /**
+     * @return why the configured limits were ignored, once; otherwise {@code null}
+     */
+    String takeConfigurationError() {
+        return configurationError.getAndSet(null);
+    }
+
+    Limit getLimit(final String operation) {
+        return limits.getOrDefault(operation, isRead(operation) ? readLimit : defaultLimit);
+    }
+
+    // e.g. DescribeConfigurationSet, GetConfigurationSetEventDestinations, ListTagsForResource
+    static boolean isRead(final String operation) {
+        return operation.startsWith("Describe") || operation.startsWith("Get") || operation.startsWith("List");
+    }
+
+    /**
+     * Takes a token for {@code operation}, sleeping for it if it is due soon enough.
+     *
+     * @param remainingMillis time left in the invocation; only consulted when the bucket is empty
+     * @throws RateLimitedException when the caller should yield instead of waiting
+     */
+    void acquire(final String operation, final LongSupplier remainingMillis) {
+        final Bucket bucket = buckets.computeIfAbsent(operation, o -> new Bucket(getLimit(o), nanoClock.getAsLong()));
+        while (true) {
+            final long waitNanos = bucket.tryAcquire(nanoClock.getAsLong());
+            if (waitNanos == 0L) {
+                return;
+            }
+            final long waitMillis = TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1;
+            if (waitMillis > MAX_LOCAL_WAIT_MILLIS
+                || remainingMillis.getAsLong() - waitMillis < MIN_REMAINING_MILLIS) {
+                throw new RateLimitedException(operation, waitMillis);
+            }
+            try {
+                sleeper.sleep(waitMillis);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RateLimitedException(operation, waitMillis);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    static final class Limit {
+
+        static final Limit UNLIMITED = new Limit(Double.POSITIVE_INFINITY, Integer.MAX_VALUE);
+
+        private final double permitsPerSecond;
+        private final int burst;
+
+        Limit(final double permitsPerSecond, final int burst) {
+            if (!(permitsPerSecond > 0) || burst < 1) {
+                throw new IllegalArgumentException("Rate and burst must be positive: " + permitsPerSecond + ":" + burst);
+            }
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+        }
+
+        double getPermitsPerSecond() {
+            return permitsPerSecond;
+        }
+
+        int getBurst() {
+            return burst;
+        }
+    }
+
+    private static final class Bucket {
+
+        private final double capacity;
+        private final double nanosPerPermit;
+        private double tokens;
+        private long refilledAt;
+
+        private Bucket(final Limit limit, final long now) {
+            this.capacity = limit.getBurst();
+            this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / limit.getPermitsPerSecond();
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        /**
+         * Takes a token and returns 0, or returns the nanos until one is available.
+         */
+        private synchronized long tryAcquire(final long now) {
+            if (nanosPerPermit == 0.0) {
+                return 0L;
+            }
+            tokens = Math.min(capacity, tokens + (now - refilledAt) / nanosPerPermit);
+            refilledAt = now;
+            if (tokens >= 1.0) {
+                tokens -= 1.0;
+                return 0L;
+            }
+            return Math.max(1L, (long) Math.ceil((1.0 - tokens) * nanosPerPermit));
+        }
+    }
+}
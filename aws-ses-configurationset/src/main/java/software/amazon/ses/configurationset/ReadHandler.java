@@ -10,22 +10,62 @@ import software.amazon.awssdk.services.ses.SesClient;
 import software.amazon.awssdk.services.ses.model.ConfigurationSetDoesNotExistException;
 import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetRequest;
 import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetResponse;
+import software.amazon.awssdk.services.sesv2.SesV2AsyncClient;
+import software.amazon.awssdk.services.sesv2.SesV2Client;
+import software.amazon.awssdk.services.sesv2.model.GetConfigurationSetEventDestinationsRequest;
+import software.amazon.awssdk.services.sesv2.model.GetConfigurationSetEventDestinationsResponse;
+import software.amazon.awssdk.services.sesv2.model.GetConfigurationSetRequest;
+import software.amazon.awssdk.services.sesv2.model.GetConfigurationSetResponse;
+import software.amazon.awssdk.services.sesv2.model.ListTagsForResourceRequest;
+import software.amazon.awssdk.services.sesv2.model.ListTagsForResourceResponse;
+import software.amazon.awssdk.services.sesv2.model.NotFoundException;
 
-public class ReadHandler extends BaseHandler<CallbackContext> {
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
-    private AmazonWebServicesClientProxy proxy;
-    private SesClient client;
+/**
+ * Reads every modeled property of a configuration set in two calls.
+ *
+ * On {@link SesApi#V1} DescribeConfigurationSet returns the option groups and the event
+ * destinations, and ListTagsForResource, sent alongside it, the tags. On {@link SesApi#V2}
+ * GetConfigurationSet returns the option groups and the tags, and
+ * GetConfigurationSetEventDestinations, sent alongside it, the event destinations.
+ */
+public class ReadHandler extends InstrumentedHandler {
+
+    private static final SingleFlight<DescribeCache.Described> DESCRIBE_CALLS = new SingleFlight<>();
+
+    private final DescribeCache cache;
+    private final SingleFlight<DescribeCache.Described> describeCalls;
+    private final SesApi api;
+
+    public ReadHandler() {
+        this(DescribeCache.shared(), DESCRIBE_CALLS);
+    }
+
+    ReadHandler(final DescribeCache cache, final SingleFlight<DescribeCache.Described> describeCalls) {
+        this(cache, describeCalls, SesApi.configured());
+    }
+
+    ReadHandler(final DescribeCache cache, final SingleFlight<DescribeCache.Described> describeCalls, final SesApi api) {
+        this.cache = cache;
+        this.describeCalls = describeCalls;
+        this.api = api;
+    }
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
         final AmazonWebServicesClientProxy proxy,
         final ResourceHandlerRequest<ResourceModel> request,
         final CallbackContext callbackContext,
-        final Logger logger) {
-        this.proxy = proxy;
-        this.client = ClientBuilder.getClient();
+        final Logger logger,
+        final HandlerMetrics metrics) {
+        final String configurationSetName = request.getDesiredResourceState().getName();
+        NameValidator.schema().validate(configurationSetName);
 
-        final ResourceModel model = describeConfigurationSet(request.getDesiredResourceState().getName());
+        final ResourceModel model = describeConfigurationSet(proxy, configurationSetName,
+            ConfigurationSetTags.arn(request, configurationSetName), request.getRegion(),
+            DescribeCache.key(request, configurationSetName), metrics);
 
         return ProgressEvent.<ResourceModel, CallbackContext>builder()
             .resourceModel(model)
@@ -33,21 +73,92 @@ public class ReadHandler extends BaseHandler<CallbackContext> {
             .build();
     }
 
-    private ResourceModel describeConfigurationSet(final String configurationSetName) {
-        final DescribeConfigurationSetRequest request = DescribeConfigurationSetRequest
-            .builder()
-            .configurationSetName(configurationSetName)
-            .build();
+    @Override
+    protected boolean isResumable() {
+        return false;
+    }
 
-        final DescribeConfigurationSetResponse response;
-        try {
-            response = this.proxy.injectCredentialsAndInvokeV2(request, this.client::describeConfigurationSet);
-        } catch (final ConfigurationSetDoesNotExistException e) {
-            throw new CfnNotFoundException(ResourceModel.TYPE_NAME, configurationSetName);
+    private ResourceModel describeConfigurationSet(
+        final AmazonWebServicesClientProxy proxy,
+        final String configurationSetName,
+        final String arn,
+        final String region,
+        final String cacheKey,
+        final HandlerMetrics metrics) {
+        DescribeCache.Described described = cache.get(cacheKey);
+        if (described != null) {
+            metrics.increment("DescribeCache.Hits");
+        } else {
+            metrics.increment("DescribeCache.Misses");
+            final long generation = cache.generation(cacheKey);
+            try {
+                described = describeCalls.execute("DescribeConfigurationSet/" + cacheKey, () -> api == SesApi.V2
+                    ? getConfigurationSet(proxy, configurationSetName, region, metrics)
+                    : describe(proxy, configurationSetName, arn, region, metrics));
+            } catch (final ConfigurationSetDoesNotExistException | NotFoundException e) {
+                cache.invalidate(cacheKey);
+                throw new CfnNotFoundException(ResourceModel.TYPE_NAME, configurationSetName);
+            }
+            cache.put(cacheKey, described, generation);
         }
 
-        return ResourceModel.builder()
-            .name(response.configurationSet().name())
-            .build();
+        return described.toResourceModel();
+    }
+
+    /**
+     * Sends ListTagsForResource, which always goes through SESv2, before the describe and
+     * waits for it after, so Read costs one round trip on this API too.
+     */
+    private static DescribeCache.Described describe(
+        final AmazonWebServicesClientProxy proxy,
+        final String configurationSetName,
+        final String arn,
+        final String region,
+        final HandlerMetrics metrics) {
+        final DescribeConfigurationSetRequest request = ConfigurationSetAttributes.describeRequest(configurationSetName);
+        final ListTagsForResourceRequest tagsRequest = ConfigurationSetTags.listRequest(arn);
+        final SesClient client = ClientBuilder.getClient(region);
+        final SesInvoker invoker = new SesInvoker(SesInvoker.Mode.ASYNC, SesApi.V1, proxy, region);
+
+        // every tag of the set in one call
+        final CompletableFuture<ListTagsForResourceResponse> tags = metrics.timeAsync("ListTagsForResource", () ->
+            invoker.invokeV2(tagsRequest, SesV2Client::listTagsForResource, SesV2AsyncClient::listTagsForResource));
+        CallGate.enter("DescribeConfigurationSet", proxy);
+        final DescribeConfigurationSetResponse response = metrics.time("DescribeConfigurationSet", () ->
+            proxy.injectCredentialsAndInvokeV2(request, client::describeConfigurationSet));
+        return new DescribeCache.Described(response, join(tags).tags());
+    }
+
+    /**
+     * Sends both SESv2 calls before waiting for either, so Read costs one round trip.
+     */
+    private static DescribeCache.Described getConfigurationSet(
+        final AmazonWebServicesClientProxy proxy,
+        final String configurationSetName,
+        final String region,
+        final HandlerMetrics metrics) {
+        final GetConfigurationSetRequest request = ConfigurationSetV2.getRequest(configurationSetName);
+        final GetConfigurationSetEventDestinationsRequest destinationsRequest =
+            ConfigurationSetV2.eventDestinationsRequest(configurationSetName);
+        final SesInvoker invoker = new SesInvoker(SesInvoker.Mode.ASYNC, SesApi.V2, proxy, region);
+
+        final CompletableFuture<GetConfigurationSetResponse> response = metrics.timeAsync("GetConfigurationSet", () ->
+            invoker.invokeV2(request, SesV2Client::getConfigurationSet, SesV2AsyncClient::getConfigurationSet));
+        final CompletableFuture<GetConfigurationSetEventDestinationsResponse> destinations =
+            metrics.timeAsync("GetConfigurationSetEventDestinations", () -> invoker.invokeV2(destinationsRequest,
+                SesV2Client::getConfigurationSetEventDestinations,
+                SesV2AsyncClient::getConfigurationSetEventDestinations));
+        return new DescribeCache.Described(join(response), join(destinations).eventDestinations());
+    }
+
+    private static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
     }
 }
@@ -1,12 +1,8 @@
 package software.amazon.ses.configurationset;
 
-import org.json.JSONObject;
-
 public class ResourceModelExtensions {
 
-    public static JSONObject getPrimaryIdentifier(final ResourceModel model) {
-        final JSONObject identifier = new JSONObject();
-        identifier.append("Name", model.getName());
-        return identifier;
+    public static PrimaryIdentifier getPrimaryIdentifier(final ResourceModel model) {
+        return new PrimaryIdentifier(model.getName());
     }
 }
@@ -0,0 +1,36 @@
+package software.amazon.ses.configurationset;
+
+import java.util.Locale;
+
+/**
+ * The SES API the handlers manage configuration sets through, chosen per deployment with the
+ * {@value #VARIABLE} environment variable: {@link #V1} unless it is set to {@code V2}.
+ *
+ * {@link #V1} is the 2010-12-01 Query API with the SESv2 tagging calls. {@link #V2} is the
+ * SESv2 REST API throughout: CreateConfigurationSet takes every option group and the tags
+ * inline, and GetConfigurationSet returns them, tags included, in one response. Event
+ * destinations are separate calls in both.
+ */
+enum SesApi {
+    V1,
+    V2;
+
+    static final String VARIABLE = "SES_API";
+
+    private static final SesApi CONFIGURED = parse(System.getenv(VARIABLE));
+
+    static SesApi configured() {
+        return CONFIGURED;
+    }
+
+    static SesApi parse(final String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return V1;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException(VARIABLE + " <" + value + "> is not V1 or V2", e);
+        }
+    }
+}
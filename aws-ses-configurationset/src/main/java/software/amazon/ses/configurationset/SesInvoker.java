@@ -0,0 +1,125 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.AwsResponse;
+import software.amazon.awssdk.services.ses.SesAsyncClient;
+import software.amazon.awssdk.services.ses.SesClient;
+import software.amazon.awssdk.services.sesv2.SesV2AsyncClient;
+import software.amazon.awssdk.services.sesv2.SesV2Client;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Issues SES calls for one invocation through either the sync or the async client, so a
+ * handler can choose per deployment how its independent calls are executed.
+ *
+ * In {@link Mode#ASYNC} every call returns as soon as it is sent and independent calls
+ * overlap on the shared Netty client. In {@link Mode#SYNC} the call completes on the calling
+ * thread before the future is returned, so a batch of calls costs the sum of their latencies
+ * but needs no event loop.
+ *
+ * SESv2 calls follow the mode the same way. The tagging calls, which a handler makes at most
+ * two of, always go through the sync client.
+ *
+ * The invoker also carries the {@link SesApi} of the invocation, so {@link MutationPlanner}
+ * plans the calls of that API.
+ *
+ * Every call first passes the {@link CallGate} for its operation.
+ */
+final class SesInvoker {
+
+    enum Mode {
+        SYNC,
+        ASYNC
+    }
+
+    private final Mode mode;
+    private final SesApi api;
+    private final AmazonWebServicesClientProxy proxy;
+    private final String region;
+
+    SesInvoker(final Mode mode, final AmazonWebServicesClientProxy proxy, final String region) {
+        this(mode, SesApi.V1, proxy, region);
+    }
+
+    SesInvoker(final Mode mode, final SesApi api, final AmazonWebServicesClientProxy proxy, final String region) {
+        this.mode = mode;
+        this.api = api;
+        this.proxy = proxy;
+        this.region = region;
+    }
+
+    Mode getMode() {
+        return mode;
+    }
+
+    SesApi getApi() {
+        return api;
+    }
+
+    /**
+     * Sends {@code request} with the client matching the mode; both method references name
+     * the same SES operation, e.g. {@code SesClient::deleteConfigurationSet} and
+     * {@code SesAsyncClient::deleteConfigurationSet}.
+     */
+    <RequestT extends AwsRequest, ResponseT extends AwsResponse> CompletableFuture<ResponseT> invoke(
+        final RequestT request,
+        final BiFunction<SesClient, RequestT, ResponseT> syncCall,
+        final BiFunction<SesAsyncClient, RequestT, CompletableFuture<ResponseT>> asyncCall) {
+        CallGate.enter(operationName(request), proxy);
+        if (mode == Mode.ASYNC) {
+            final SesAsyncClient client = ClientBuilder.getAsyncClient(region);
+            return proxy.injectCredentialsAndInvokeV2Async(request, r -> asyncCall.apply(client, r));
+        }
+
+        final SesClient client = ClientBuilder.getClient(region);
+        final CompletableFuture<ResponseT> response = new CompletableFuture<>();
+        try {
+            response.complete(proxy.injectCredentialsAndInvokeV2(request, r -> syncCall.apply(client, r)));
+        } catch (final RuntimeException e) {
+            response.completeExceptionally(e);
+        }
+        return response;
+    }
+
+    /**
+     * Sends a SESv2 {@code request} with the client matching the mode, like
+     * {@link #invoke(AwsRequest, BiFunction, BiFunction)}.
+     */
+    <RequestT extends AwsRequest, ResponseT extends AwsResponse> CompletableFuture<ResponseT> invokeV2(
+        final RequestT request,
+        final BiFunction<SesV2Client, RequestT, ResponseT> syncCall,
+        final BiFunction<SesV2AsyncClient, RequestT, CompletableFuture<ResponseT>> asyncCall) {
+        if (mode == Mode.ASYNC) {
+            CallGate.enter(operationName(request), proxy);
+            final SesV2AsyncClient client = ClientBuilder.getV2AsyncClient(region);
+            return proxy.injectCredentialsAndInvokeV2Async(request, r -> asyncCall.apply(client, r));
+        }
+        return invokeV2(request, syncCall);
+    }
+
+    /**
+     * Sends a SESv2 {@code request} with the sync client, in either mode.
+     */
+    <RequestT extends AwsRequest, ResponseT extends AwsResponse> CompletableFuture<ResponseT> invokeV2(
+        final RequestT request,
+        final BiFunction<SesV2Client, RequestT, ResponseT> call) {
+        CallGate.enter(operationName(request), proxy);
+        final CompletableFuture<ResponseT> response = new CompletableFuture<>();
+        try {
+            response.complete(proxy.injectCredentialsAndInvokeV2(request,
+                r -> call.apply(ClientBuilder.getV2Client(region), r)));
+        } catch (final RuntimeException e) {
+            response.completeExceptionally(e);
+        }
+        return response;
+    }
+
+    // e.g. PutConfigurationSetDeliveryOptionsRequest -> PutConfigurationSetDeliveryOptions
+    static String operationName(final AwsRequest request) {
+        final String type = request.getClass().getSimpleName();
+        return type.endsWith("Request") ? type.substring(0, type.length() - "Request".length()) : type;
+    }
+}
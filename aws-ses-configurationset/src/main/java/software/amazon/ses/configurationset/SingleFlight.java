@@ -0,0 +1,69 @@
+package software.amazon.ses.configurationset;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical SES calls that are in flight at the same time in this JVM.
+ *
+ * The first caller for a key performs the call; callers arriving while it is running wait
+ * for and share its result, or its exception. Nothing is remembered once the call
+ * completes, so this only removes duplicate concurrent traffic and never serves stale data.
+ * Keys must include everything that affects the response (operation, account, region and
+ * request parameters).
+ *
+ * Keys do not include the caller's credentials, which the handlers cannot see. Invocations
+ * for the same account that run under different roles share one call made with the leader's
+ * credentials, and every follower gets the leader's failure too: AccessDenied, throttling,
+ * or {@link BudgetExhaustedException} when the leader's invocation ran out of time.
+ */
+class SingleFlight<V> {
+
+    private final ConcurrentMap<String, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    V execute(final String key, final Supplier<V> call) {
+        final CompletableFuture<V> leader = new CompletableFuture<>();
+        final CompletableFuture<V> inFlight = calls.putIfAbsent(key, leader);
+        if (inFlight != null) {
+            coalesced.incrementAndGet();
+            return await(inFlight);
+        }
+
+        try {
+            final V value = call.get();
+            leader.complete(value);
+            return value;
+        } catch (final RuntimeException | Error e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, leader);
+        }
+    }
+
+    /**
+     * Number of calls that were served by another caller's in-flight call.
+     */
+    long getCoalescedCalls() {
+        return coalesced.get();
+    }
+
+    private static <V> V await(final CompletableFuture<V> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
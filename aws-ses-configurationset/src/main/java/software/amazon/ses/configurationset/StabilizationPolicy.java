@@ -0,0 +1,53 @@
+package software.amazon.ses.configurationset;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Poll schedule for waiting on SES eventual consistency.
+ *
+ * The first poll happens in the same invocation as the mutation, since the change is
+ * usually visible straight away; later polls back off (1s, 2s, 4s, ... capped) so slow
+ * propagation costs few re-invocations.
+ */
+class StabilizationPolicy {
+
+    static final int MAX_POLL_DELAY_SECONDS = 16;
+    static final long TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final LongSupplier clock;
+
+    StabilizationPolicy() {
+        this(System::currentTimeMillis);
+    }
+
+    StabilizationPolicy(final LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    long now() {
+        return clock.getAsLong();
+    }
+
+    void start(final CallbackContext callbackContext) {
+        callbackContext.setStabilizationStartedAt(now());
+        callbackContext.setStabilizationAttempts(0);
+    }
+
+    long elapsedMillis(final CallbackContext callbackContext) {
+        return now() - callbackContext.getStabilizationStartedAt();
+    }
+
+    boolean isTimedOut(final CallbackContext callbackContext) {
+        return elapsedMillis(callbackContext) >= TIMEOUT_MILLIS;
+    }
+
+    /**
+     * Records an unsuccessful poll and returns the delay before the next one.
+     */
+    int nextDelaySeconds(final CallbackContext callbackContext) {
+        final int attempt = callbackContext.getStabilizationAttempts();
+        callbackContext.setStabilizationAttempts(attempt + 1);
+        return Math.min(MAX_POLL_DELAY_SECONDS, 1 << Math.min(attempt, 30));
+    }
+}
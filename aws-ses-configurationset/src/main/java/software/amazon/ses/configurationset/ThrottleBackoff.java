@@ -0,0 +1,73 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.ses.model.LimitExceededException;
+import software.amazon.cloudformation.exceptions.BaseHandlerException;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Turns throttled SES calls into IN_PROGRESS events instead of sleeping inside the handler.
+ *
+ * CloudFormation re-invokes the handler after {@code callbackDelaySeconds}, chosen with
+ * exponential backoff and full jitter from the attempt count kept in the {@link CallbackContext}.
+ * Once the retry window has elapsed the supplied terminal exception is thrown instead.
+ */
+class ThrottleBackoff {
+
+    static final int BASE_DELAY_SECONDS = 2;
+    static final int MAX_DELAY_SECONDS = 60;
+    static final long RETRY_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final LongSupplier clock;
+    private final Supplier<Random> random;
+
+    ThrottleBackoff() {
+        this(System::currentTimeMillis, ThreadLocalRandom::current);
+    }
+
+    ThrottleBackoff(final LongSupplier clock, final Supplier<Random> random) {
+        this.clock = clock;
+        this.random = random;
+    }
+
+    static boolean isThrottle(final Exception e) {
+        return e instanceof LimitExceededException
+            || (e instanceof SdkServiceException && ((SdkServiceException) e).isThrottlingException());
+    }
+
+    /**
+     * Schedules another attempt, or throws {@code whenExhausted} once the retry window
+     * that started with the first throttled attempt has passed.
+     */
+    ProgressEvent<ResourceModel, CallbackContext> retry(
+        final ResourceModel model,
+        final CallbackContext callbackContext,
+        final Supplier<? extends BaseHandlerException> whenExhausted) {
+        final long now = clock.getAsLong();
+        if (callbackContext.getThrottleRetryDeadline() == null) {
+            callbackContext.setThrottleRetryDeadline(now + RETRY_WINDOW_MILLIS);
+        } else if (now >= callbackContext.getThrottleRetryDeadline()) {
+            throw whenExhausted.get();
+        }
+
+        final int attempt = callbackContext.getThrottledAttempts();
+        callbackContext.setThrottledAttempts(attempt + 1);
+        return ProgressEvent.defaultInProgressHandler(callbackContext, delaySeconds(attempt), model);
+    }
+
+    static void reset(final CallbackContext callbackContext) {
+        callbackContext.setThrottledAttempts(0);
+        callbackContext.setThrottleRetryDeadline(null);
+    }
+
+    int delaySeconds(final int attempt) {
+        final int ceiling = (int) Math.min(MAX_DELAY_SECONDS, (long) BASE_DELAY_SECONDS << Math.min(attempt, 30));
+        return 1 + random.get().nextInt(ceiling);
+    }
+}
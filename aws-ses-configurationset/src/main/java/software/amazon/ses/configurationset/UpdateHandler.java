@@ -1,23 +1,127 @@
 package software.amazon.ses.configurationset;
 
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnServiceLimitExceededException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
-import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
-import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.awssdk.services.ses.model.ConfigurationSetDoesNotExistException;
+import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetRequest;
+import software.amazon.awssdk.services.ses.model.InvalidCloudWatchDestinationException;
+import software.amazon.awssdk.services.ses.model.InvalidDeliveryOptionsException;
+import software.amazon.awssdk.services.ses.model.InvalidFirehoseDestinationException;
+import software.amazon.awssdk.services.ses.model.InvalidSnsDestinationException;
+import software.amazon.awssdk.services.ses.model.InvalidTrackingOptionsException;
+import software.amazon.awssdk.services.ses.model.LimitExceededException;
+import software.amazon.awssdk.services.ses.model.SesException;
+import software.amazon.awssdk.services.sesv2.model.BadRequestException;
+import software.amazon.awssdk.services.sesv2.model.GetConfigurationSetRequest;
+import software.amazon.awssdk.services.sesv2.model.NotFoundException;
+import software.amazon.awssdk.services.sesv2.model.SesV2Exception;
 
-public class UpdateHandler extends BaseHandler<CallbackContext> {
+import java.util.List;
 
+import static software.amazon.ses.configurationset.ResourceModelExtensions.getPrimaryIdentifier;
+
+public class UpdateHandler extends InstrumentedHandler {
+
+    private final ThrottleBackoff backoff;
+    private final MutationRunner runner;
+    private final DescribeCache cache;
+    private final SesInvoker.Mode mode;
+    private final SesApi api;
+
+    public UpdateHandler() {
+        this(SesInvoker.Mode.ASYNC);
+    }
+
+    UpdateHandler(final SesInvoker.Mode mode) {
+        this(mode, SesApi.configured());
+    }
+
+    UpdateHandler(final SesInvoker.Mode mode, final SesApi api) {
+        this(new ThrottleBackoff(), MutationRunner.shared(), DescribeCache.shared(), mode, api);
+    }
+
+    UpdateHandler(
+        final ThrottleBackoff backoff,
+        final MutationRunner runner,
+        final DescribeCache cache,
+        final SesInvoker.Mode mode,
+        final SesApi api) {
+        this.backoff = backoff;
+        this.runner = runner;
+        this.cache = cache;
+        this.mode = mode;
+        this.api = api;
+    }
+
+    /**
+     * Applies only the SES calls needed to move from the previous to the desired state,
+     * concurrently when running in {@link SesInvoker.Mode#ASYNC}. An update that changes
+     * nothing still confirms the set exists, as the handler contract requires; otherwise the
+     * mutations themselves surface a missing set. Either API takes one call per changed
+     * option group, destination and tag batch.
+     */
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
         final AmazonWebServicesClientProxy proxy,
         final ResourceHandlerRequest<ResourceModel> request,
-        final CallbackContext callbackContext,
-        final Logger logger) {
-        return ProgressEvent.<ResourceModel, CallbackContext>builder()
-            .errorCode(HandlerErrorCode.NotUpdatable)
-            .status(OperationStatus.FAILED)
-            .build();
+        final CallbackContext context,
+        final Logger logger,
+        final HandlerMetrics metrics) {
+        final ResourceModel model = request.getDesiredResourceState();
+        NameValidator.schema().validate(model.getName());
+        final PrimaryIdentifier identifier = getPrimaryIdentifier(model);
+        final String cacheKey = DescribeCache.key(request, model.getName());
+
+        final ResourceModel previous = request.getPreviousResourceState();
+        final SesInvoker invoker = new SesInvoker(mode, api, proxy, request.getRegion());
+        final List<Mutation> mutations = MutationPlanner.planUpdate(previous, model, invoker);
+        mutations.addAll(MutationPlanner.planTags(ConfigurationSetTags.arn(request, model.getName()),
+            previous == null ? null : previous.getTags(), model.getTags(), invoker));
+        try {
+            if (mutations.isEmpty() && api == SesApi.V2) {
+                final GetConfigurationSetRequest getConfigurationSetRequest = ConfigurationSetV2.getRequest(model.getName());
+                CallGate.enter("GetConfigurationSet", proxy);
+                metrics.time("GetConfigurationSet", () -> proxy.injectCredentialsAndInvokeV2(getConfigurationSetRequest,
+                    ClientBuilder.getV2Client(request.getRegion())::getConfigurationSet));
+            } else if (mutations.isEmpty()) {
+                final DescribeConfigurationSetRequest describeConfigurationSetRequest =
+                    ConfigurationSetAttributes.existenceRequest(model.getName());
+                CallGate.enter("DescribeConfigurationSet", proxy);
+                metrics.time("DescribeConfigurationSet", () -> proxy.injectCredentialsAndInvokeV2(
+                    describeConfigurationSetRequest, ClientBuilder.getClient(request.getRegion())::describeConfigurationSet));
+            } else {
+                try {
+                    runner.run(mutations, context, metrics);
+                } finally {
+                    // after the mutations, so a Read that overlapped them cannot leave the old state cached;
+                    // a failed update may have applied some of them
+                    cache.invalidate(cacheKey);
+                }
+                logger.log(ResourceModel.TYPE_NAME + " [" + identifier + "] updated successfully; Mutations=" + mutations);
+            }
+        } catch (final ConfigurationSetDoesNotExistException | NotFoundException e) {
+            throw new CfnNotFoundException(ResourceModel.TYPE_NAME, identifier.toString());
+        } catch (final InvalidDeliveryOptionsException | InvalidTrackingOptionsException
+            | InvalidCloudWatchDestinationException | InvalidFirehoseDestinationException
+            | InvalidSnsDestinationException | BadRequestException e) {
+            throw new CfnInvalidRequestException(e.getMessage(), e);
+        } catch (final LimitExceededException | software.amazon.awssdk.services.sesv2.model.LimitExceededException e) {
+            return backoff.retry(model, context,
+                () -> new CfnServiceLimitExceededException(ResourceModel.TYPE_NAME, e.toString()));
+        } catch (final SesException | SesV2Exception e) {
+            if (!ThrottleBackoff.isThrottle(e)) {
+                throw e;
+            }
+            return backoff.retry(model, context,
+                () -> new CfnThrottlingException("UpdateConfigurationSet", e));
+        }
+
+        return ProgressEvent.defaultSuccessHandler(model);
     }
 }
@@ -0,0 +1,118 @@
+package software.amazon.ses.configurationset;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.ses.model.ConfigurationSetDoesNotExistException;
+import software.amazon.awssdk.services.ses.model.SesException;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker("us-east-1", now::get);
+
+    private void fail(final int times) {
+        for (int i = 0; i < times; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure();
+        }
+    }
+
+    @Test
+    public void staysClosedBelowMinimumCalls() {
+        fail(CircuitBreaker.MINIMUM_CALLS - 1);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void staysClosedBelowFailureRate() {
+        for (int i = 0; i < CircuitBreaker.MINIMUM_CALLS; i++) {
+            breaker.onSuccess();
+        }
+        fail(CircuitBreaker.MINIMUM_CALLS - 1);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void opensOnSustainedFailures() {
+        fail(CircuitBreaker.MINIMUM_CALLS - 1);
+        assertThat(breaker.onFailure()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.millisUntilHalfOpen()).isEqualTo(CircuitBreaker.OPEN_MILLIS);
+    }
+
+    @Test
+    public void forgetsFailuresFromEarlierWindow() {
+        fail(CircuitBreaker.MINIMUM_CALLS - 1);
+        now.addAndGet(CircuitBreaker.WINDOW_MILLIS);
+        fail(1);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void halfOpenAdmitsSingleTrial_SuccessCloses() {
+        fail(CircuitBreaker.MINIMUM_CALLS);
+        now.addAndGet(CircuitBreaker.OPEN_MILLIS);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        assertThat(breaker.onSuccess()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void halfOpenTrialFailure_Reopens() {
+        fail(CircuitBreaker.MINIMUM_CALLS);
+        now.addAndGet(CircuitBreaker.OPEN_MILLIS);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        assertThat(breaker.onFailure()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    public void halfOpenTrialLost_AdmitsAnother() {
+        fail(CircuitBreaker.MINIMUM_CALLS);
+        now.addAndGet(CircuitBreaker.OPEN_MILLIS);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        now.addAndGet(CircuitBreaker.OPEN_MILLIS);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void reset_Closes() {
+        fail(CircuitBreaker.MINIMUM_CALLS);
+
+        breaker.reset();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.millisUntilHalfOpen()).isZero();
+    }
+
+    @Test
+    public void forRegion_SharedPerRegion() {
+        assertThat(CircuitBreaker.forRegion("us-east-1")).isSameAs(CircuitBreaker.forRegion("us-east-1"));
+        assertThat(CircuitBreaker.forRegion("us-west-2")).isNotSameAs(CircuitBreaker.forRegion("us-east-1"));
+    }
+
+    @Test
+    public void isFailure_OnlyServiceAndNetworkErrors() {
+        assertThat(CircuitBreakerInterceptor.isFailure(SdkClientException.create("connection refused"))).isTrue();
+        assertThat(CircuitBreakerInterceptor.isFailure(SesException.builder().statusCode(503).build())).isTrue();
+        assertThat(CircuitBreakerInterceptor.isFailure(
+            ConfigurationSetDoesNotExistException.builder().statusCode(400).build())).isFalse();
+        assertThat(CircuitBreakerInterceptor.isFailure(new IllegalStateException())).isFalse();
+    }
+}
@@ -0,0 +1,48 @@
+package software.amazon.ses.configurationset;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.ses.SesClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClientBuilderTest {
+
+    @AfterEach
+    public void tearDown() {
+        ClientBuilder.closeClients();
+    }
+
+    @Test
+    public void getClient_ReusesClientForRegion() {
+        final SesClient first = ClientBuilder.getClient("us-east-1");
+        final SesClient second = ClientBuilder.getClient("us-east-1");
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    public void getClient_SeparateClientPerRegion() {
+        final SesClient east = ClientBuilder.getClient("us-east-1");
+        final SesClient west = ClientBuilder.getClient("us-west-2");
+
+        assertThat(west).isNotSameAs(east);
+    }
+
+    @Test
+    public void getClient_NoRegion_SharesDefaultRegionClient() {
+        final SesClient first = ClientBuilder.getClient(null);
+
+        assertThat(ClientBuilder.getClient(null)).isSameAs(first);
+        assertThat(ClientBuilder.getClient("us-west-2")).isNotSameAs(first);
+    }
+
+    @Test
+    public void closeClients_BuildsFreshClient() {
+        final SesClient first = ClientBuilder.getClient("us-east-1");
+
+        ClientBuilder.closeClients();
+
+        assertThat(ClientBuilder.getClient("us-east-1")).isNotSameAs(first);
+    }
+}
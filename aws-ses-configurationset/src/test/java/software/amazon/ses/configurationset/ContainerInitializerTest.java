@@ -0,0 +1,38 @@
+package software.amazon.ses.configurationset;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ContainerInitializerTest {
+
+    private LocalSesServer localSes;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        localSes = LocalSesServer.start();
+        ClientBuilder.setEndpointOverride(localSes.getEndpoint());
+        CircuitBreaker.resetAll();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ClientBuilder.setEndpointOverride(null);
+        localSes.close();
+    }
+
+    @Test
+    public void initialize_PrimesSyncAndAsyncClientsOnce() {
+        // no other test initializes the container, so this call does the work
+        assertThat(ContainerInitializer.initialize("us-east-1")).isTrue();
+        assertThat(ContainerInitializer.isInitialized()).isTrue();
+        assertThat(localSes.getRequestCount("GetSendQuota")).isEqualTo(2);
+        // the SESv2 clients used for tags
+        assertThat(localSes.getRequestCount("GetAccount")).isEqualTo(2);
+
+        assertThat(ContainerInitializer.initialize("us-east-1")).isFalse();
+        assertThat(localSes.getRequestCount()).isEqualTo(4);
+    }
+}
@@ -4,20 +4,30 @@ import com.amazonaws.AmazonServiceException;
 import software.amazon.awssdk.services.ses.model.CreateConfigurationSetRequest;
 import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetRequest;
 import software.amazon.awssdk.services.ses.model.InvalidConfigurationSetException;
+import software.amazon.awssdk.services.ses.model.InvalidDeliveryOptionsException;
+import software.amazon.awssdk.services.ses.model.PutConfigurationSetDeliveryOptionsRequest;
+import software.amazon.awssdk.services.ses.model.UpdateConfigurationSetSendingEnabledRequest;
 import software.amazon.awssdk.services.ses.model.LimitExceededException;
+import software.amazon.awssdk.services.ses.model.SesException;
 import software.amazon.cloudformation.exceptions.CfnAlreadyExistsException;
 import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.exceptions.CfnNotStabilizedException;
 import software.amazon.cloudformation.exceptions.CfnServiceLimitExceededException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
 import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.services.ses.model.ConfigurationSet;
 import software.amazon.awssdk.services.ses.model.ConfigurationSetAlreadyExistsException;
@@ -25,13 +35,18 @@ import software.amazon.awssdk.services.ses.model.ConfigurationSetDoesNotExistExc
 import software.amazon.awssdk.services.ses.model.CreateConfigurationSetResponse;
 import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetResponse;
 
+import java.util.Collections;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 public class CreateHandlerTest {
@@ -42,6 +57,13 @@ public class CreateHandlerTest {
     @Mock
     private Logger logger;
 
+    @BeforeEach
+    public void setup() {
+        proxy = MockProxy.create();
+        DescribeCache.shared().clear();
+        RateLimiter.shared().reset();
+    }
+
     @Test
     public void handleRequest_SimpleSuccess() {
         final CreateHandler handler = new CreateHandler();
@@ -156,6 +178,73 @@ public class CreateHandlerTest {
         });
     }
 
+    @Test
+    public void handleRequest_InvalidName_FailsBeforeCalling() {
+        final CreateHandler handler = new CreateHandler();
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("test set")
+                .build();
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        final CfnInvalidRequestException e = assertThrows(CfnInvalidRequestException.class,
+            () -> handler.handleRequest(proxy, request, null, logger));
+        assertThat(e.getMessage()).contains("Name <test set> must match");
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(), any());
+    }
+
+    @Test
+    public void handleRequest_LimitExceeded_RetriesWithBackoff() {
+        final CreateHandler handler = new CreateHandler();
+
+        doThrow(LimitExceededException.class).when(proxy)
+                .injectCredentialsAndInvokeV2(any(CreateConfigurationSetRequest.class), any());
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("test-set")
+                .build();
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isBetween(1, ThrottleBackoff.MAX_DELAY_SECONDS);
+        assertThat(response.getCallbackContext().getThrottledAttempts()).isEqualTo(1);
+        assertThat(response.getCallbackContext().getThrottleRetryDeadline()).isNotNull();
+        assertThat(response.getResourceModel()).isEqualTo(model);
+    }
+
+    @Test
+    public void handleRequest_Throttled_RetriesWithBackoff() {
+        final CreateHandler handler = new CreateHandler();
+
+        doThrow(throttlingException()).when(proxy)
+                .injectCredentialsAndInvokeV2(any(CreateConfigurationSetRequest.class), any());
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("test-set")
+                .build();
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        final CallbackContext context = new CallbackContext();
+        context.setThrottledAttempts(3);
+        context.setThrottleRetryDeadline(System.currentTimeMillis() + 60_000L);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, context, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackContext().getThrottledAttempts()).isEqualTo(4);
+    }
+
     @Test
     public void handleRequest_FailWith_LimitExceededException() {
         final CreateHandler handler = new CreateHandler();
@@ -171,7 +260,54 @@ public class CreateHandlerTest {
                 .desiredResourceState(model)
                 .build();
 
+        final CallbackContext context = new CallbackContext();
+        context.setThrottledAttempts(5);
+        context.setThrottleRetryDeadline(System.currentTimeMillis() - 1L);
+
         assertThrows(CfnServiceLimitExceededException.class, () -> {
+            handler.handleRequest(proxy, request, context, logger);
+        });
+    }
+
+    @Test
+    public void handleRequest_FailWith_ThrottlingException() {
+        final CreateHandler handler = new CreateHandler();
+
+        doThrow(throttlingException()).when(proxy)
+                .injectCredentialsAndInvokeV2(any(CreateConfigurationSetRequest.class), any());
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("test-set")
+                .build();
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        final CallbackContext context = new CallbackContext();
+        context.setThrottleRetryDeadline(System.currentTimeMillis() - 1L);
+
+        assertThrows(CfnThrottlingException.class, () -> {
+            handler.handleRequest(proxy, request, context, logger);
+        });
+    }
+
+    @Test
+    public void handleRequest_FailWith_NonThrottlingServiceException() {
+        final CreateHandler handler = new CreateHandler();
+
+        doThrow(SesException.builder().statusCode(500).build()).when(proxy)
+                .injectCredentialsAndInvokeV2(any(CreateConfigurationSetRequest.class), any());
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("test-set")
+                .build();
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        assertThrows(SesException.class, () -> {
             handler.handleRequest(proxy, request, null, logger);
         });
     }
@@ -204,4 +340,296 @@ public class CreateHandlerTest {
         ResourceModel outModel = response.getResourceModel();
         assertThat(outModel.getName()).startsWith("myConfigurationSet");
     }
+
+    @Test
+    public void handleRequest_NotYetVisible_PollsForStabilization() {
+        final CreateHandler handler = new CreateHandler();
+
+        doReturn(CreateConfigurationSetResponse.builder().build()).when(proxy)
+                .injectCredentialsAndInvokeV2(any(CreateConfigurationSetRequest.class), any());
+        doThrow(ConfigurationSetDoesNotExistException.class).when(proxy)
+                .injectCredentialsAndInvokeV2(any(DescribeConfigurationSetRequest.class), any());
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("test-set")
+                .build();
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(1);
+        assertThat(response.getCallbackContext().isMutationComplete()).isTrue();
+        assertThat(response.getCallbackContext().getStabilizationAttempts()).isEqualTo(1);
+        assertThat(response.getResourceModel()).isEqualTo(model);
+    }
+
+    @Test
+    public void handleRequest_Stabilized_DoesNotCreateAgain() {
+        final CreateHandler handler = new CreateHandler();
+
+        doReturn(DescribeConfigurationSetResponse.builder().build()).when(proxy)
+                .injectCredentialsAndInvokeV2(any(DescribeConfigurationSetRequest.class), any());
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("test-set")
+                .build();
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        final CallbackContext context = new CallbackContext();
+        context.setMutationComplete(true);
+        context.setStabilizationStartedAt(System.currentTimeMillis());
+        context.setStabilizationAttempts(2);
+
+        // left over from a previous set with the same name
+        DescribeCache.shared().put(DescribeCache.key(request, "test-set"),
+            new DescribeCache.Described(DescribeConfigurationSetResponse.builder().build(), Collections.emptyList()));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, context, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel()).isEqualTo(model);
+        assertThat(DescribeCache.shared().size()).isEqualTo(0);
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(CreateConfigurationSetRequest.class), any());
+
+        // stabilization only needs to know the set exists
+        final ArgumentCaptor<DescribeConfigurationSetRequest> describe = ArgumentCaptor.forClass(DescribeConfigurationSetRequest.class);
+        verify(proxy).injectCredentialsAndInvokeV2(describe.capture(), any());
+        assertThat(describe.getValue().configurationSetAttributeNames()).isEmpty();
+    }
+
+    @Test
+    public void handleRequest_FailWith_NotStabilized() {
+        final CreateHandler handler = new CreateHandler();
+
+        doThrow(ConfigurationSetDoesNotExistException.class).when(proxy)
+                .injectCredentialsAndInvokeV2(any(DescribeConfigurationSetRequest.class), any());
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("test-set")
+                .build();
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        final CallbackContext context = new CallbackContext();
+        context.setMutationComplete(true);
+        context.setStabilizationStartedAt(System.currentTimeMillis() - StabilizationPolicy.TIMEOUT_MILLIS);
+
+        assertThrows(CfnNotStabilizedException.class, () -> {
+            handler.handleRequest(proxy, request, context, logger);
+        });
+    }
+
+    private static ResourceModel modelWithOptions() {
+        return ResourceModel.builder()
+            .name("test-set")
+            .reputationOptions(ReputationOptions.builder().reputationMetricsEnabled(true).build())
+            .sendingOptions(SendingOptions.builder().sendingEnabled(false).build())
+            .deliveryOptions(DeliveryOptions.builder().tlsPolicy("REQUIRE").build())
+            .trackingOptions(TrackingOptions.builder().customRedirectDomain("track.example.com").build())
+            .build();
+    }
+
+    private static CompletableFuture<?> failedFuture(final Throwable error) {
+        final CompletableFuture<?> future = new CompletableFuture<>();
+        future.completeExceptionally(error);
+        return future;
+    }
+
+    @Test
+    public void handleRequest_AppliesOptions() {
+        final CreateHandler handler = new CreateHandler();
+
+        doReturn(CompletableFuture.completedFuture(null)).when(proxy).injectCredentialsAndInvokeV2Async(any(), any());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(modelWithOptions())
+            .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        final ArgumentCaptor<AwsRequest> optionRequests = ArgumentCaptor.forClass(AwsRequest.class);
+        verify(proxy, times(4)).injectCredentialsAndInvokeV2Async(optionRequests.capture(), any());
+        assertThat(optionRequests.getAllValues())
+            .extracting(r -> r.getClass().getSimpleName())
+            .containsExactlyInAnyOrder(
+                "UpdateConfigurationSetReputationMetricsEnabledRequest",
+                "UpdateConfigurationSetSendingEnabledRequest",
+                "PutConfigurationSetDeliveryOptionsRequest",
+                "CreateConfigurationSetTrackingOptionsRequest");
+    }
+
+    @Test
+    public void handleRequest_SyncMode_AppliesOptionsThroughSyncClient() {
+        final CreateHandler handler = new CreateHandler(SesInvoker.Mode.SYNC);
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(modelWithOptions())
+            .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        // create, four options and the stabilization describe
+        verify(proxy, times(6)).injectCredentialsAndInvokeV2(any(), any());
+        verify(proxy, never()).injectCredentialsAndInvokeV2Async(any(), any());
+    }
+
+    @Test
+    public void handleRequest_DefaultOptions_NoOptionCalls() {
+        final CreateHandler handler = new CreateHandler();
+
+        final ResourceModel model = ResourceModel.builder()
+            .name("test-set")
+            .sendingOptions(SendingOptions.builder().sendingEnabled(true).build())
+            .deliveryOptions(DeliveryOptions.builder().tlsPolicy("OPTIONAL").build())
+            .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(model)
+            .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        verify(proxy, never()).injectCredentialsAndInvokeV2Async(any(), any());
+    }
+
+    @Test
+    public void handleRequest_OptionThrottled_ResumesWithRemainingOptions() {
+        final CreateHandler handler = new CreateHandler();
+
+        doReturn(CompletableFuture.completedFuture(null)).when(proxy)
+            .injectCredentialsAndInvokeV2Async(any(UpdateConfigurationSetSendingEnabledRequest.class), any());
+        doReturn(failedFuture(throttlingException())).when(proxy)
+            .injectCredentialsAndInvokeV2Async(any(PutConfigurationSetDeliveryOptionsRequest.class), any());
+
+        final ResourceModel model = ResourceModel.builder()
+            .name("test-set")
+            .sendingOptions(SendingOptions.builder().sendingEnabled(false).build())
+            .deliveryOptions(DeliveryOptions.builder().tlsPolicy("REQUIRE").build())
+            .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(model)
+            .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        final CallbackContext context = response.getCallbackContext();
+        assertThat(context.isMutationComplete()).isTrue();
+        assertThat(context.getThrottledAttempts()).isEqualTo(1);
+        assertThat(context.getCompletedMutations()).containsExactly("UpdateConfigurationSetSendingEnabled");
+
+        doReturn(CompletableFuture.completedFuture(null)).when(proxy)
+            .injectCredentialsAndInvokeV2Async(any(PutConfigurationSetDeliveryOptionsRequest.class), any());
+
+        final ProgressEvent<ResourceModel, CallbackContext> resumed = handler.handleRequest(proxy, request, context, logger);
+
+        assertThat(resumed.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(CreateConfigurationSetRequest.class), any());
+        verify(proxy, times(1))
+            .injectCredentialsAndInvokeV2Async(any(UpdateConfigurationSetSendingEnabledRequest.class), any());
+        verify(proxy, times(2))
+            .injectCredentialsAndInvokeV2Async(any(PutConfigurationSetDeliveryOptionsRequest.class), any());
+    }
+
+    @Test
+    public void handleRequest_OptionsNotYetVisible_PollsForStabilization() {
+        final CreateHandler handler = new CreateHandler();
+
+        doReturn(failedFuture(ConfigurationSetDoesNotExistException.builder().build())).when(proxy)
+            .injectCredentialsAndInvokeV2Async(any(), any());
+
+        final ResourceModel model = ResourceModel.builder()
+            .name("test-set")
+            .deliveryOptions(DeliveryOptions.builder().tlsPolicy("REQUIRE").build())
+            .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(model)
+            .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackContext().getStabilizationAttempts()).isEqualTo(1);
+        assertThat(response.getCallbackContext().getCompletedMutations()).isEmpty();
+    }
+
+    @Test
+    public void handleRequest_FailWith_InvalidOptions() {
+        final CreateHandler handler = new CreateHandler();
+
+        doReturn(failedFuture(InvalidDeliveryOptionsException.builder().message("Invalid TLS policy").build())).when(proxy)
+            .injectCredentialsAndInvokeV2Async(any(), any());
+
+        final ResourceModel model = ResourceModel.builder()
+            .name("test-set")
+            .deliveryOptions(DeliveryOptions.builder().tlsPolicy("REQUIRE").build())
+            .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(model)
+            .build();
+
+        final CfnInvalidRequestException e = assertThrows(CfnInvalidRequestException.class,
+            () -> handler.handleRequest(proxy, request, null, logger));
+        assertThat(e.getMessage()).contains("Invalid TLS policy");
+    }
+
+    @Test
+    public void handleRequest_RateLimited_YieldsBeforeCalling() {
+        final CreateHandler handler = new CreateHandler();
+        RateLimiter.shared().configure(RateLimiter.DEFAULT_LIMIT, RateLimiter.DEFAULT_READ_LIMIT,
+            Collections.singletonMap("CreateConfigurationSet", new RateLimiter.Limit(0.01, 1)));
+        try {
+            RateLimiter.shared().acquire("CreateConfigurationSet", () -> Long.MAX_VALUE);
+
+            final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().name("test-set").build())
+                .build();
+
+            final ProgressEvent<ResourceModel, CallbackContext> response =
+                handler.handleRequest(proxy, request, null, logger);
+
+            assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+            assertThat(response.getCallbackDelaySeconds()).isBetween(99, 101);
+            assertThat(response.getCallbackContext().isMutationComplete()).isFalse();
+            verify(proxy, never()).injectCredentialsAndInvokeV2(any(), any());
+        } finally {
+            RateLimiter.shared().configure(null);
+        }
+    }
+
+    @Test
+    public void handleRequest_OutOfTime_CheckpointsBeforeCalling() {
+        final CreateHandler handler = new CreateHandler();
+        final AmazonWebServicesClientProxy nearlyTimedOut = MockProxy.create(() -> ExecutionBudget.RESERVE_MILLIS);
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().name("test-set").build())
+            .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+            handler.handleRequest(nearlyTimedOut, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(InstrumentedHandler.BUDGET_CALLBACK_DELAY_SECONDS);
+        assertThat(response.getCallbackContext().isMutationComplete()).isFalse();
+        verify(nearlyTimedOut, never()).injectCredentialsAndInvokeV2(any(), any());
+    }
+
+    private static SesException throttlingException() {
+        return (SesException) SesException.builder()
+            .awsErrorDetails(AwsErrorDetails.builder().errorCode("Throttling").build())
+            .statusCode(400)
+            .build();
+    }
 }
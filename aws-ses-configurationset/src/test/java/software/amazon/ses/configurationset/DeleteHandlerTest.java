@@ -2,6 +2,7 @@ package software.amazon.ses.configurationset;
 
 import com.amazonaws.AmazonServiceException;
 import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnNotStabilizedException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
@@ -13,17 +14,33 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
 import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.services.ses.model.ConfigurationSet;
 import software.amazon.awssdk.services.ses.model.ConfigurationSetDoesNotExistException;
+import software.amazon.awssdk.services.ses.model.DeleteConfigurationSetEventDestinationRequest;
+import software.amazon.awssdk.services.ses.model.DeleteConfigurationSetRequest;
 import software.amazon.awssdk.services.ses.model.DeleteConfigurationSetResponse;
+import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetRequest;
 import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetResponse;
+import software.amazon.awssdk.services.ses.model.EventDestination;
+import software.amazon.awssdk.services.ses.model.EventDestinationDoesNotExistException;
+import software.amazon.awssdk.services.ses.model.SesException;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 public class DeleteHandlerTest {
@@ -36,18 +53,21 @@ public class DeleteHandlerTest {
 
     @BeforeEach
     public void setup() {
-        proxy = mock(AmazonWebServicesClientProxy.class);
+        proxy = MockProxy.create();
         logger = mock(Logger.class);
+        DescribeCache.shared().clear();
+        RateLimiter.shared().reset();
     }
 
     @Test
     public void handleRequest_SimpleSuccess() {
         final DeleteHandler handler = new DeleteHandler();
 
+        stubDescribeThenGone();
         doReturn(DeleteConfigurationSetResponse.builder().build())
             .when(proxy)
             .injectCredentialsAndInvokeV2(
-                ArgumentMatchers.any(),
+                ArgumentMatchers.any(DeleteConfigurationSetRequest.class),
                 ArgumentMatchers.any()
             );
 
@@ -143,4 +163,233 @@ public class DeleteHandlerTest {
             handler.handleRequest(proxy, request, null, logger);
         });
     }
+
+    @Test
+    public void handleRequest_InvalidatesCachedDescribe() {
+        final DescribeCache cache = new DescribeCache(DescribeCache.MAX_ENTRIES, DescribeCache.TTL_MILLIS, System::currentTimeMillis);
+        final DeleteHandler handler = new DeleteHandler(cache);
+
+        stubDescribeThenGone();
+        doReturn(DeleteConfigurationSetResponse.builder().build())
+            .when(proxy)
+            .injectCredentialsAndInvokeV2(
+                ArgumentMatchers.any(DeleteConfigurationSetRequest.class),
+                ArgumentMatchers.any()
+            );
+
+        final ResourceModel model = ResourceModel.builder()
+            .name("test-set")
+            .build();
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(model)
+            .build();
+
+        final String key = DescribeCache.key(request, "test-set");
+        cache.put(key, new DescribeCache.Described(DescribeConfigurationSetResponse.builder()
+            .configurationSet(ConfigurationSet.builder().name("test-set").build())
+            .build(), Collections.emptyList()));
+
+        handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    public void handleRequest_ReadDuringDelete_DoesNotStayCached() {
+        final DescribeCache cache = new DescribeCache(DescribeCache.MAX_ENTRIES, DescribeCache.TTL_MILLIS, System::currentTimeMillis);
+        final DeleteHandler handler = new DeleteHandler(cache);
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().name("test-set").build())
+            .build();
+        final String key = DescribeCache.key(request, "test-set");
+
+        stubDescribeThenGone();
+        // a Read overlapping the delete caches the set as still present
+        doAnswer(invocation -> {
+            cache.put(key, new DescribeCache.Described(DescribeConfigurationSetResponse.builder()
+                .configurationSet(ConfigurationSet.builder().name("test-set").build())
+                .build(), Collections.emptyList()));
+            return DeleteConfigurationSetResponse.builder().build();
+        })
+            .when(proxy)
+            .injectCredentialsAndInvokeV2(
+                ArgumentMatchers.any(DeleteConfigurationSetRequest.class),
+                ArgumentMatchers.any()
+            );
+
+        assertThat(handler.handleRequest(proxy, request, null, logger).getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    public void handleRequest_RemovesEventDestinationsFirst() {
+        final DeleteHandler handler = new DeleteHandler();
+
+        stubDescribeThenGone("firehose", "sns");
+        doReturn(CompletableFuture.completedFuture(null)).when(proxy)
+            .injectCredentialsAndInvokeV2Async(any(DeleteConfigurationSetEventDestinationRequest.class), any());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request(), null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        verify(proxy).injectCredentialsAndInvokeV2Async(
+            argThat((DeleteConfigurationSetEventDestinationRequest r) -> "firehose".equals(r.eventDestinationName())), any());
+        verify(proxy).injectCredentialsAndInvokeV2Async(
+            argThat((DeleteConfigurationSetEventDestinationRequest r) -> "sns".equals(r.eventDestinationName())), any());
+        verify(proxy).injectCredentialsAndInvokeV2(any(DeleteConfigurationSetRequest.class), any());
+    }
+
+    @Test
+    public void handleRequest_DestinationAlreadyRemoved() {
+        final DeleteHandler handler = new DeleteHandler();
+
+        stubDescribeThenGone("sns");
+        doReturn(failedFuture(EventDestinationDoesNotExistException.builder().build())).when(proxy)
+            .injectCredentialsAndInvokeV2Async(any(DeleteConfigurationSetEventDestinationRequest.class), any());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request(), null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        verify(proxy).injectCredentialsAndInvokeV2(any(DeleteConfigurationSetRequest.class), any());
+    }
+
+    @Test
+    public void handleRequest_DestinationThrottled_ResumesWithoutRepeatingProgress() {
+        final DeleteHandler handler = new DeleteHandler(DescribeCache.shared(), InventoryIndex.shared(),
+            new ThrottleBackoff(), new StabilizationPolicy(), new MutationRunner(1), SesInvoker.Mode.ASYNC,
+            SesApi.V1);
+
+        doReturn(describeResponse("firehose", "sns"))
+            .when(proxy).injectCredentialsAndInvokeV2(any(DescribeConfigurationSetRequest.class), any());
+        doReturn(CompletableFuture.completedFuture(null)).when(proxy).injectCredentialsAndInvokeV2Async(
+            argThat((DeleteConfigurationSetEventDestinationRequest r) -> "firehose".equals(r.eventDestinationName())), any());
+        doReturn(failedFuture(throttlingException())).when(proxy).injectCredentialsAndInvokeV2Async(
+            argThat((DeleteConfigurationSetEventDestinationRequest r) -> "sns".equals(r.eventDestinationName())), any());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request(), null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        final CallbackContext context = response.getCallbackContext();
+        assertThat(context.isDependentsRemoved()).isFalse();
+        assertThat(context.getThrottledAttempts()).isEqualTo(1);
+        assertThat(context.getCompletedMutations()).containsExactly("DeleteConfigurationSetEventDestination/firehose");
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(DeleteConfigurationSetRequest.class), any());
+
+        doReturn(CompletableFuture.completedFuture(null)).when(proxy).injectCredentialsAndInvokeV2Async(
+            argThat((DeleteConfigurationSetEventDestinationRequest r) -> "sns".equals(r.eventDestinationName())), any());
+        doReturn(describeResponse("firehose", "sns")).doThrow(ConfigurationSetDoesNotExistException.builder().build())
+            .when(proxy).injectCredentialsAndInvokeV2(any(DescribeConfigurationSetRequest.class), any());
+
+        final ProgressEvent<ResourceModel, CallbackContext> resumed = handler.handleRequest(proxy, request(), context, logger);
+
+        assertThat(resumed.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2Async(
+            argThat((DeleteConfigurationSetEventDestinationRequest r) -> "firehose".equals(r.eventDestinationName())), any());
+        verify(proxy).injectCredentialsAndInvokeV2(any(DeleteConfigurationSetRequest.class), any());
+    }
+
+    @Test
+    public void handleRequest_StillVisible_PollsAgain() {
+        final DeleteHandler handler = new DeleteHandler();
+
+        doReturn(describeResponse())
+            .when(proxy).injectCredentialsAndInvokeV2(any(DescribeConfigurationSetRequest.class), any());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request(), null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackContext().isMutationComplete()).isTrue();
+        assertThat(response.getCallbackContext().getStabilizationAttempts()).isEqualTo(1);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(1);
+
+        doThrow(ConfigurationSetDoesNotExistException.builder().build())
+            .when(proxy).injectCredentialsAndInvokeV2(any(DescribeConfigurationSetRequest.class), any());
+
+        final ProgressEvent<ResourceModel, CallbackContext> polled =
+            handler.handleRequest(proxy, request(), response.getCallbackContext(), logger);
+
+        assertThat(polled.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(DeleteConfigurationSetRequest.class), any());
+    }
+
+    @Test
+    public void handleRequest_StillVisibleAfterTimeout() {
+        final DeleteHandler handler = new DeleteHandler();
+
+        doReturn(describeResponse())
+            .when(proxy).injectCredentialsAndInvokeV2(any(DescribeConfigurationSetRequest.class), any());
+
+        final CallbackContext context = new CallbackContext();
+        context.setDependentsRemoved(true);
+        context.setMutationComplete(true);
+        context.setStabilizationStartedAt(System.currentTimeMillis() - StabilizationPolicy.TIMEOUT_MILLIS);
+
+        assertThrows(CfnNotStabilizedException.class, () -> handler.handleRequest(proxy, request(), context, logger));
+    }
+
+    @Test
+    public void handleRequest_DeleteRacedByEarlierAttempt() {
+        final DeleteHandler handler = new DeleteHandler();
+
+        stubDescribeThenGone();
+        doThrow(ConfigurationSetDoesNotExistException.builder().build())
+            .when(proxy).injectCredentialsAndInvokeV2(any(DeleteConfigurationSetRequest.class), any());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request(), null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+    }
+
+    @Test
+    public void handleRequest_DeleteThrottled() {
+        final DeleteHandler handler = new DeleteHandler();
+
+        doReturn(describeResponse())
+            .when(proxy).injectCredentialsAndInvokeV2(any(DescribeConfigurationSetRequest.class), any());
+        doThrow(throttlingException())
+            .when(proxy).injectCredentialsAndInvokeV2(any(DeleteConfigurationSetRequest.class), any());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request(), null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackContext().isDependentsRemoved()).isTrue();
+        assertThat(response.getCallbackContext().isMutationComplete()).isFalse();
+        assertThat(response.getCallbackContext().getThrottledAttempts()).isEqualTo(1);
+    }
+
+    private void stubDescribeThenGone(final String... destinations) {
+        doReturn(describeResponse(destinations)).doThrow(ConfigurationSetDoesNotExistException.builder().build())
+            .when(proxy).injectCredentialsAndInvokeV2(any(DescribeConfigurationSetRequest.class), any());
+    }
+
+    private static DescribeConfigurationSetResponse describeResponse(final String... destinations) {
+        final DescribeConfigurationSetResponse.Builder builder = DescribeConfigurationSetResponse.builder()
+            .configurationSet(ConfigurationSet.builder().name("test-set").build());
+        final EventDestination[] eventDestinations = new EventDestination[destinations.length];
+        for (int i = 0; i < destinations.length; i++) {
+            eventDestinations[i] = EventDestination.builder().name(destinations[i]).build();
+        }
+        return builder.eventDestinations(eventDestinations).build();
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request() {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().name("test-set").build())
+            .build();
+    }
+
+    private static CompletableFuture<?> failedFuture(final Throwable error) {
+        final CompletableFuture<?> future = new CompletableFuture<>();
+        future.completeExceptionally(error);
+        return future;
+    }
+
+    private static SesException throttlingException() {
+        return (SesException) SesException.builder()
+            .awsErrorDetails(AwsErrorDetails.builder().errorCode("Throttling").build())
+            .statusCode(400)
+            .build();
+    }
 }
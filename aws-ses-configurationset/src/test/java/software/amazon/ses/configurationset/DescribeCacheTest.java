@@ -0,0 +1,107 @@
+package software.amazon.ses.configurationset;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.ses.model.ConfigurationSet;
+import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetResponse;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DescribeCacheTest {
+
+    private static DescribeCache.Described response(final String name) {
+        return new DescribeCache.Described(DescribeConfigurationSetResponse.builder()
+            .configurationSet(ConfigurationSet.builder().name(name).build())
+            .build(), Collections.emptyList());
+    }
+
+    @Test
+    public void get_ExpiresAfterTtl() {
+        final long[] now = {0L};
+        final DescribeCache cache = new DescribeCache(10, 100L, () -> now[0]);
+
+        cache.put("a", response("a"));
+        now[0] = 99L;
+        assertThat(cache.get("a")).isNotNull();
+
+        now[0] = 100L;
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void put_EvictsLeastRecentlyUsed() {
+        final DescribeCache cache = new DescribeCache(2, 1_000L, () -> 0L);
+
+        cache.put("a", response("a"));
+        cache.put("b", response("b"));
+        cache.get("a");
+        cache.put("c", response("c"));
+
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isNotNull();
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void put_IgnoresNullResponse() {
+        final DescribeCache cache = new DescribeCache(2, 1_000L, () -> 0L);
+
+        cache.put("a", null);
+
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void invalidate_RemovesEntry() {
+        final DescribeCache cache = new DescribeCache(2, 1_000L, () -> 0L);
+
+        cache.put("a", response("a"));
+        cache.invalidate("a");
+
+        assertThat(cache.get("a")).isNull();
+    }
+
+    @Test
+    public void put_SkippedAfterInvalidateSinceGeneration() {
+        final DescribeCache cache = new DescribeCache(2, 1_000L, () -> 0L);
+
+        final long generation = cache.generation("a");
+        cache.invalidate("a");
+        cache.put("a", response("a"), generation);
+        assertThat(cache.get("a")).isNull();
+
+        cache.put("a", response("a"), cache.generation("a"));
+        assertThat(cache.get("a")).isNotNull();
+    }
+
+    @Test
+    public void put_SkippedAfterInvalidateOfEvictedGeneration() {
+        final DescribeCache cache = new DescribeCache(2, 1_000L, () -> 0L);
+
+        final long generation = cache.generation("a");
+        cache.invalidate("a");
+        // pushes the generation of "a" out of the bounded map
+        cache.invalidate("b");
+        cache.invalidate("c");
+        cache.put("a", response("a"), generation);
+
+        assertThat(cache.get("a")).isNull();
+    }
+
+    @Test
+    public void key_ScopedToAccountAndRegion() {
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .awsAccountId("123456789012")
+            .region("us-east-1")
+            .build();
+
+        assertThat(DescribeCache.key(request, "test-set")).isEqualTo("123456789012/us-east-1/test-set");
+    }
+}
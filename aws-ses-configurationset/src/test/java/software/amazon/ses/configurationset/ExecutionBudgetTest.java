@@ -0,0 +1,56 @@
+package software.amazon.ses.configurationset;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ExecutionBudgetTest {
+
+    private final LatencyTracker latencies = new LatencyTracker(LatencyTracker.SAMPLES);
+    private final ExecutionBudget budget = new ExecutionBudget(latencies);
+
+    @Test
+    public void estimate_DefaultUntilEnoughSamples() {
+        for (int i = 0; i < ExecutionBudget.MIN_SAMPLES - 1; i++) {
+            latencies.record("DescribeConfigurationSet", 10L);
+        }
+
+        assertThat(budget.estimateMillis("DescribeConfigurationSet")).isEqualTo(ExecutionBudget.DEFAULT_ESTIMATE_MILLIS);
+    }
+
+    @Test
+    public void estimate_HighPercentileOfObservedLatency() {
+        for (int i = 1; i <= 100; i++) {
+            latencies.record("DescribeConfigurationSet", i);
+        }
+
+        assertThat(budget.estimateMillis("DescribeConfigurationSet")).isEqualTo(99L);
+    }
+
+    @Test
+    public void check_ProceedsWhenCallFits() {
+        budget.check("CreateConfigurationSet",
+            () -> ExecutionBudget.DEFAULT_ESTIMATE_MILLIS + ExecutionBudget.RESERVE_MILLIS);
+    }
+
+    @Test
+    public void check_StopsWhenCallDoesNotFit() {
+        final BudgetExhaustedException e = assertThrows(BudgetExhaustedException.class,
+            () -> budget.check("CreateConfigurationSet",
+                () -> ExecutionBudget.DEFAULT_ESTIMATE_MILLIS + ExecutionBudget.RESERVE_MILLIS - 1));
+
+        assertThat(e.getOperation()).isEqualTo("CreateConfigurationSet");
+    }
+
+    @Test
+    public void check_FollowsObservedLatency() {
+        for (int i = 0; i < ExecutionBudget.MIN_SAMPLES; i++) {
+            latencies.record("DescribeConfigurationSet", 50L);
+        }
+
+        budget.check("DescribeConfigurationSet", () -> ExecutionBudget.RESERVE_MILLIS + 50L);
+        assertThrows(BudgetExhaustedException.class,
+            () -> budget.check("DescribeConfigurationSet", () -> ExecutionBudget.RESERVE_MILLIS + 49L));
+    }
+}
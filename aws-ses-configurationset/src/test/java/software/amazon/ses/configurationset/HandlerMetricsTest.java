@@ -0,0 +1,99 @@
+package software.amazon.ses.configurationset;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.ses.model.SesException;
+import software.amazon.cloudformation.proxy.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class HandlerMetricsTest {
+
+    private final List<String> logLines = new ArrayList<>();
+    private final Logger logger = logLines::add;
+
+    private MetricsSink previousSink;
+
+    @BeforeEach
+    public void setup() {
+        previousSink = HandlerMetrics.getSink();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        HandlerMetrics.setSink(previousSink);
+    }
+
+    @Test
+    public void close_PublishesAndClearsCurrent() {
+        final InMemoryMetricsSink sink = new InMemoryMetricsSink();
+        HandlerMetrics.setSink(sink);
+
+        try (HandlerMetrics metrics = HandlerMetrics.start("ReadHandler", logger)) {
+            assertThat(HandlerMetrics.current()).isSameAs(metrics);
+            assertThat(metrics.time("DescribeConfigurationSet", () -> "result")).isEqualTo("result");
+            metrics.time("DescribeConfigurationSet", () -> "result");
+        }
+
+        assertThat(HandlerMetrics.current()).isNull();
+        assertThat(sink.getPublished()).hasSize(1);
+        assertThat(sink.getPublished().get(0).getHandler()).isEqualTo("ReadHandler");
+        assertThat(sink.getValues("DescribeConfigurationSet.Latency")).hasSize(2);
+        assertThat(sink.getValues(HandlerMetrics.HANDLER_LATENCY)).hasSize(1);
+
+        sink.clear();
+        assertThat(sink.getPublished()).isEmpty();
+    }
+
+    @Test
+    public void time_CountsThrottles() {
+        final SesException throttle = (SesException) SesException.builder()
+            .awsErrorDetails(AwsErrorDetails.builder().errorCode("Throttling").build())
+            .build();
+        final SesException other = (SesException) SesException.builder()
+            .awsErrorDetails(AwsErrorDetails.builder().errorCode("InternalFailure").build())
+            .build();
+        HandlerMetrics.setSink(new InMemoryMetricsSink());
+
+        try (HandlerMetrics metrics = HandlerMetrics.start("CreateHandler", logger)) {
+            assertThrows(SesException.class, () -> metrics.time("CreateConfigurationSet", () -> { throw throttle; }));
+            assertThrows(SesException.class, () -> metrics.time("CreateConfigurationSet", () -> { throw throttle; }));
+            assertThrows(SesException.class, () -> metrics.time("CreateConfigurationSet", () -> { throw other; }));
+
+            assertThat(metrics.getValues("CreateConfigurationSet.Throttles")).containsExactly(2.0);
+            assertThat(metrics.getValues("CreateConfigurationSet.Latency")).hasSize(3);
+            assertThat(metrics.getValues("Unknown")).isEmpty();
+        }
+    }
+
+    @Test
+    public void emfSink_LogsEmbeddedMetricFormat() {
+        HandlerMetrics.setSink(new EmfMetricsSink());
+
+        try (HandlerMetrics metrics = HandlerMetrics.start("CreateHandler", logger)) {
+            metrics.record("CreateConfigurationSet.RequestBytes", 120, HandlerMetrics.Unit.BYTES);
+            metrics.record("DescribeConfigurationSet.Latency", 3, HandlerMetrics.Unit.MILLISECONDS);
+            metrics.record("DescribeConfigurationSet.Latency", 5, HandlerMetrics.Unit.MILLISECONDS);
+        }
+
+        assertThat(logLines).hasSize(1);
+        final JSONObject emf = new JSONObject(logLines.get(0));
+        assertThat(emf.getString("Handler")).isEqualTo("CreateHandler");
+        assertThat(emf.getDouble("CreateConfigurationSet.RequestBytes")).isEqualTo(120.0);
+        assertThat(emf.getJSONArray("DescribeConfigurationSet.Latency").length()).isEqualTo(2);
+        assertThat(emf.has(HandlerMetrics.HANDLER_LATENCY)).isTrue();
+
+        final JSONObject directive = emf.getJSONObject("_aws").getJSONArray("CloudWatchMetrics").getJSONObject(0);
+        assertThat(directive.getString("Namespace")).isEqualTo(EmfMetricsSink.NAMESPACE);
+        assertThat(directive.getJSONArray("Dimensions").getJSONArray(0).getString(0)).isEqualTo("Handler");
+        assertThat(directive.getJSONArray("Metrics").getJSONObject(0).getString("Unit")).isEqualTo("Bytes");
+        assertThat(directive.getJSONArray("Metrics").length()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,149 @@
+package software.amazon.ses.configurationset;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InventoryIndexTest {
+
+    private static List<String> names(final InventoryIndex.Snapshot snapshot) {
+        final List<String> names = new ArrayList<>();
+        String token = null;
+        do {
+            final InventoryIndex.Page page = snapshot.page(token, 2);
+            names.addAll(page.getNames());
+            token = page.getNextToken();
+        } while (token != null);
+        return names;
+    }
+
+    @Test
+    public void addPage_SnapshotOnlyOnceListingCompletes() {
+        final long[] now = {0L};
+        final InventoryIndex index = new InventoryIndex(100L, () -> now[0], null);
+
+        assertThat(index.listingToken("a")).isNull();
+        assertThat(index.addPage("a", null, Arrays.asList("set3", "set1"), "token2")).isNull();
+        assertThat(index.get("a")).isNull();
+        assertThat(index.listingToken("a")).isEqualTo("token2");
+
+        // the same first page from a concurrent List does not restart the listing
+        assertThat(index.addPage("a", null, Arrays.asList("set3", "set1"), "token2")).isNull();
+        final InventoryIndex.Snapshot snapshot = index.addPage("a", "token2", Arrays.asList("set2"), null);
+        assertThat(names(snapshot)).containsExactly("set1", "set2", "set3");
+        assertThat(index.addPage("a", "token2", Arrays.asList("set2"), null)).isNull();
+
+        now[0] = 99L;
+        assertThat(index.get("a")).isSameAs(snapshot);
+        now[0] = 100L;
+        assertThat(index.get("a")).isNull();
+        assertThat(index.getHits()).isEqualTo(1);
+        assertThat(index.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    public void listingToken_AbandonedListingStartsOver() {
+        final long[] now = {0L};
+        final InventoryIndex index = new InventoryIndex(100L, () -> now[0], null);
+        index.addPage("a", null, Arrays.asList("set1"), "token2");
+
+        now[0] = InventoryIndex.MAX_LISTING_AGE_MILLIS;
+
+        assertThat(index.listingToken("a")).isNull();
+        assertThat(index.addPage("a", "token2", Arrays.asList("set2"), null)).isNull();
+        assertThat(names(index.addPage("a", null, Arrays.asList("set3"), null))).containsExactly("set3");
+    }
+
+    @Test
+    public void addAndRemove_ApplyToSnapshotAndListingInProgress() {
+        final long[] now = {0L};
+        final InventoryIndex index = new InventoryIndex(100L, () -> now[0], null);
+        index.addPage("a", null, Arrays.asList("set1", "set2"), null);
+
+        index.add("a", "set0");
+        index.remove("a", "set2");
+        assertThat(names(index.get("a"))).containsExactly("set0", "set1");
+
+        now[0] = 100L;
+        index.addPage("a", null, Arrays.asList("set1"), "token2");
+        index.add("a", "set9");
+        index.remove("a", "set1");
+        assertThat(names(index.addPage("a", "token2", Collections.emptyList(), null))).containsExactly("set9");
+
+        index.add("b", "set1");
+        assertThat(index.get("b")).isNull();
+    }
+
+    @Test
+    public void page_ContinuesAfterRemovedToken() {
+        final InventoryIndex.Snapshot snapshot = new InventoryIndex.Snapshot(new String[] {"a", "c", "e"}, 0L);
+
+        assertThat(snapshot.page("b", 1).getNames()).containsExactly("c");
+        assertThat(snapshot.page("b", 1).getNextToken()).isEqualTo("c");
+        assertThat(snapshot.page("c", 5).getNames()).containsExactly("e");
+        assertThat(snapshot.page("c", 5).getNextToken()).isNull();
+        assertThat(snapshot.page("z", 5).getNames()).isEmpty();
+    }
+
+    @Test
+    public void page_EmptyPageHasNoToken() {
+        final InventoryIndex.Snapshot snapshot = new InventoryIndex.Snapshot(new String[] {"a", "c", "e"}, 0L);
+
+        assertThat(snapshot.page(null, 0).getNames()).isEmpty();
+        assertThat(snapshot.page(null, 0).getNextToken()).isNull();
+    }
+
+    @Test
+    public void load_ReadsSnapshotsPersistedOnCompletion(@TempDir final Path directory) throws IOException {
+        final Path path = directory.resolve("inventory.bin");
+        final InventoryIndex index = InventoryIndex.load(100L, () -> 0L, path);
+        index.addPage("123456789012/us-east-1", null,
+            Arrays.asList("marketing-eu", "marketing-us", "transactional", "marketing-eu-2"), null);
+        index.remove("123456789012/us-east-1", "transactional");
+
+        final InventoryIndex loaded = InventoryIndex.load(100L, () -> 50L, path);
+
+        assertThat(names(loaded.get("123456789012/us-east-1")))
+            .containsExactly("marketing-eu", "marketing-eu-2", "marketing-us");
+        // refreshed at 0, so the TTL still runs from the original listing
+        assertThat(InventoryIndex.load(100L, () -> 100L, path).get("123456789012/us-east-1")).isNull();
+    }
+
+    @Test
+    public void write_FrontCodesSortedNames() throws IOException {
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            names.add("configuration-set-" + i);
+        }
+        final InventoryIndex index = new InventoryIndex(100L, () -> 0L, null);
+        index.addPage("a", null, names, null);
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        index.write(output);
+
+        final int plain = String.join("", names).getBytes(StandardCharsets.UTF_8).length;
+        assertThat(output.size()).isLessThan(plain / 2);
+    }
+
+    @Test
+    public void load_IgnoresUnreadableFile(@TempDir final Path directory) throws IOException {
+        final Path path = directory.resolve("inventory.bin");
+        Files.write(path, "not an inventory".getBytes(StandardCharsets.UTF_8));
+
+        final InventoryIndex index = InventoryIndex.load(100L, () -> 0L, path);
+
+        assertThat(index.get("a")).isNull();
+        assertThat(InventoryIndex.load(100L, () -> 0L, directory.resolve("missing.bin")).get("a")).isNull();
+    }
+}
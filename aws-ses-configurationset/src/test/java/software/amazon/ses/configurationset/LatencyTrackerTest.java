@@ -0,0 +1,50 @@
+package software.amazon.ses.configurationset;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyTrackerTest {
+
+    @Test
+    public void percentile_NoSamples() {
+        final LatencyTracker latencies = new LatencyTracker(4);
+
+        assertThat(latencies.count("ListConfigurationSets")).isZero();
+        assertThat(latencies.percentile("ListConfigurationSets", 0.5)).isEqualTo(-1L);
+    }
+
+    @Test
+    public void percentile_NearestRank() {
+        final LatencyTracker latencies = new LatencyTracker(4);
+        latencies.record("ListConfigurationSets", 40L);
+        latencies.record("ListConfigurationSets", 10L);
+        latencies.record("ListConfigurationSets", 30L);
+        latencies.record("ListConfigurationSets", 20L);
+
+        assertThat(latencies.percentile("ListConfigurationSets", 0.0)).isEqualTo(10L);
+        assertThat(latencies.percentile("ListConfigurationSets", 0.5)).isEqualTo(20L);
+        assertThat(latencies.percentile("ListConfigurationSets", 0.99)).isEqualTo(40L);
+    }
+
+    @Test
+    public void record_KeepsLatestSamples() {
+        final LatencyTracker latencies = new LatencyTracker(2);
+        latencies.record("ListConfigurationSets", 1000L);
+        latencies.record("ListConfigurationSets", 10L);
+        latencies.record("ListConfigurationSets", 20L);
+
+        assertThat(latencies.count("ListConfigurationSets")).isEqualTo(2);
+        assertThat(latencies.percentile("ListConfigurationSets", 1.0)).isEqualTo(20L);
+    }
+
+    @Test
+    public void clear_ForgetsSamples() {
+        final LatencyTracker latencies = new LatencyTracker(2);
+        latencies.record("ListConfigurationSets", 10L);
+
+        latencies.clear();
+
+        assertThat(latencies.count("ListConfigurationSets")).isZero();
+    }
+}
@@ -1,5 +1,6 @@
 package software.amazon.ses.configurationset;
 
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
@@ -8,18 +9,27 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.awssdk.services.ses.model.ConfigurationSet;
+import software.amazon.awssdk.services.ses.model.ListConfigurationSetsRequest;
 import software.amazon.awssdk.services.ses.model.ListConfigurationSetsResponse;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static software.amazon.ses.configurationset.Matchers.assertThatModelsAreEqual;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,8 +43,15 @@ public class ListHandlerTest {
 
     @BeforeEach
     public void setup() {
-        proxy = mock(AmazonWebServicesClientProxy.class);
+        proxy = MockProxy.create();
         logger = mock(Logger.class);
+        InventoryIndex.shared().clear();
+        RateLimiter.shared().reset();
+    }
+
+    @Test
+    public void constructor_RejectsNonPositivePageSize() {
+        assertThrows(IllegalArgumentException.class, () -> new ListHandler(0));
     }
 
     @Test
@@ -70,8 +87,137 @@ public class ListHandlerTest {
         assertThat(response.getResourceModels().size()).isEqualTo(2);
         assertThatModelsAreEqual(response.getResourceModels().get(0), set1);
         assertThatModelsAreEqual(response.getResourceModels().get(1), set2);
+        assertThat(response.getNextToken()).isNull();
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
     }
 
+    @Test
+    public void handleRequest_Paginated() {
+        final ListHandler handler = new ListHandler(1);
+
+        final ConfigurationSet set1 = ConfigurationSet.builder().name("set1").build();
+        final ConfigurationSet set2 = ConfigurationSet.builder().name("set2").build();
+        doReturn(ListConfigurationSetsResponse.builder().configurationSets(set2).nextToken("token2").build())
+            .when(proxy)
+            .injectCredentialsAndInvokeV2(
+                ArgumentMatchers.argThat((ListConfigurationSetsRequest r) -> r.nextToken() == null),
+                ArgumentMatchers.any());
+        doReturn(ListConfigurationSetsResponse.builder().configurationSets(set1).build())
+            .when(proxy)
+            .injectCredentialsAndInvokeV2(
+                ArgumentMatchers.argThat((ListConfigurationSetsRequest r) -> "token2".equals(r.nextToken())),
+                ArgumentMatchers.any());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .build();
+        final ProgressEvent<ResourceModel, CallbackContext> first = handler.handleRequest(proxy, request, null, logger);
+
+        // the whole listing is taken at once, and paged out of the snapshot in name order
+        final ArgumentCaptor<ListConfigurationSetsRequest> captor = ArgumentCaptor.forClass(ListConfigurationSetsRequest.class);
+        verify(proxy, times(2)).injectCredentialsAndInvokeV2(captor.capture(), ArgumentMatchers.any());
+        assertThat(captor.getValue().maxItems()).isEqualTo(ListHandler.LISTING_PAGE_SIZE);
+
+        assertThat(first.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(first.getResourceModels().size()).isEqualTo(1);
+        assertThatModelsAreEqual(first.getResourceModels().get(0), set1);
+        assertThat(first.getNextToken()).isEqualTo("set1");
+
+        request.setNextToken(first.getNextToken());
+        final ProgressEvent<ResourceModel, CallbackContext> second = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(second.getResourceModels().size()).isEqualTo(1);
+        assertThatModelsAreEqual(second.getResourceModels().get(0), set2);
+        assertThat(second.getNextToken()).isNull();
+        verify(proxy, times(2)).injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void handleRequest_StaleSnapshot_ListsAgain() {
+        final AtomicLong now = new AtomicLong();
+        final InventoryIndex inventory = new InventoryIndex(InventoryIndex.TTL_MILLIS, now::get, null);
+        final ListHandler handler = new ListHandler(ListHandler.DEFAULT_PAGE_SIZE, new SingleFlight<>(), inventory);
+
+        doReturn(ListConfigurationSetsResponse.builder()
+            .configurationSets(ConfigurationSet.builder().name("set1").build())
+            .build())
+            .when(proxy)
+            .injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .awsAccountId("123456789012")
+            .region("us-east-1")
+            .build();
+
+        handler.handleRequest(proxy, request, null, logger);
+        now.addAndGet(InventoryIndex.TTL_MILLIS - 1);
+        handler.handleRequest(proxy, request, null, logger);
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        now.incrementAndGet();
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+        verify(proxy, times(2)).injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+        assertThat(response.getResourceModels()).extracting(ResourceModel::getName).containsExactly("set1");
+        assertThat(inventory.getHits()).isEqualTo(1);
+        assertThat(inventory.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    public void handleRequest_ConcurrentListCompletes_ServesItsSnapshot() {
+        final InventoryIndex inventory = new InventoryIndex(InventoryIndex.TTL_MILLIS, () -> 0L, null);
+        final ListHandler handler = new ListHandler(ListHandler.DEFAULT_PAGE_SIZE, new SingleFlight<>(), inventory);
+        final String key = "123456789012/us-east-1";
+
+        // another List takes and completes the whole listing while this one waits for its first page
+        doAnswer(invocation -> {
+            inventory.addPage(key, null, Arrays.asList("set1"), "token2");
+            inventory.addPage(key, "token2", Arrays.asList("set2"), null);
+            return ListConfigurationSetsResponse.builder()
+                .configurationSets(ConfigurationSet.builder().name("set1").build())
+                .nextToken("token2")
+                .build();
+        })
+            .when(proxy)
+            .injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .awsAccountId("123456789012")
+            .region("us-east-1")
+            .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getResourceModels()).extracting(ResourceModel::getName).containsExactly("set1", "set2");
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+        assertThat(inventory.listingToken(key)).isNull();
+    }
+
+    @Test
+    public void handleRequest_OutOfTime_ReturnsCheckpointPage() {
+        final ListHandler handler = new ListHandler(1);
+        final AmazonWebServicesClientProxy nearlyTimedOut = MockProxy.create(() -> ExecutionBudget.RESERVE_MILLIS);
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .nextToken("token1")
+            .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(nearlyTimedOut, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).isEmpty();
+        assertThat(response.getNextToken()).isEqualTo("token1");
+        verify(nearlyTimedOut, never()).injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void handleRequest_OutOfTimeOnFirstPage_FailsWithThrottling() {
+        final ListHandler handler = new ListHandler(1);
+        final AmazonWebServicesClientProxy nearlyTimedOut = MockProxy.create(() -> ExecutionBudget.RESERVE_MILLIS);
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .build();
+
+        assertThrows(CfnThrottlingException.class,
+            () -> handler.handleRequest(nearlyTimedOut, request, null, logger));
+        verify(nearlyTimedOut, never()).injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
 }
@@ -0,0 +1,959 @@
+package software.amazon.ses.configurationset;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * In-process stand-in for the SES Query API, for exercising the handlers end to end through
+ * the real SDK marshalling and HTTP stack without leaving the machine.
+ *
+ * Speaks enough of the 2010-12-01 protocol for Create, Describe, Delete and List
+ * ConfigurationSets, for the configuration set option calls and for adding, changing and
+ * removing event destinations, plus the SESv2 REST tagging calls. It also speaks the SESv2
+ * configuration set calls the handlers make on {@link SesApi#V2}; both APIs share one store,
+ * so a set created through one reads back the same through the other. Requests are counted
+ * under their operation name, whichever API they came through. Latency, a random throttling
+ * rate and one-off errors per action can be injected. Point the handlers at it with {@link ClientBuilder#setEndpointOverride(URI)}.
+ */
+class LocalSesServer implements AutoCloseable {
+
+    private static final String NAMESPACE = "http://ses.amazonaws.com/doc/2010-12-01/";
+
+    private static final String TAGS_PATH = "/v2/email/tags";
+    private static final String CONFIGURATION_SETS_PATH = "/v2/email/configuration-sets";
+    private static final String ACCOUNT_PATH = "/v2/email/account";
+    private static final String ARN_SET_PREFIX = ":configuration-set/";
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    static {
+        // without TCP_NODELAY small responses sit behind delayed ACKs for ~40ms each
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Function<Map<String, String>, Response>> actions = new HashMap<>();
+    // the SESv2 REST operations, some of which share a name with a Query API action
+    private final Map<String, Function<Map<String, String>, Response>> restActions = new HashMap<>();
+
+    // option values by configuration set name, keyed by request parameter name
+    private final NavigableMap<String, ConcurrentMap<String, String>> configurationSets = new ConcurrentSkipListMap<>();
+    // event destinations in their SESv2 JSON form, by configuration set name, then destination name
+    private final ConcurrentMap<String, NavigableMap<String, ObjectNode>> eventDestinations = new ConcurrentHashMap<>();
+    // tag values by configuration set name, then key
+    private final ConcurrentMap<String, NavigableMap<String, String>> tags = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+    // status code and error code of each injected error, by action
+    private final ConcurrentMap<String, Queue<Map.Entry<Integer, String>>> injectedErrors = new ConcurrentHashMap<>();
+
+    private volatile long latencyMillis;
+    private volatile double throttleRate;
+
+    private LocalSesServer(final HttpServer server) {
+        this.server = server;
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "local-ses");
+            thread.setDaemon(true);
+            return thread;
+        });
+        actions.put("CreateConfigurationSet", this::createConfigurationSet);
+        actions.put("DescribeConfigurationSet", this::describeConfigurationSet);
+        actions.put("DeleteConfigurationSet", this::deleteConfigurationSet);
+        actions.put("ListConfigurationSets", this::listConfigurationSets);
+        actions.put("UpdateConfigurationSetReputationMetricsEnabled",
+            p -> putOption(p, "UpdateConfigurationSetReputationMetricsEnabled", "ReputationMetricsEnabled", "Enabled"));
+        actions.put("UpdateConfigurationSetSendingEnabled",
+            p -> putOption(p, "UpdateConfigurationSetSendingEnabled", "SendingEnabled", "Enabled"));
+        actions.put("PutConfigurationSetDeliveryOptions",
+            p -> putOption(p, "PutConfigurationSetDeliveryOptions", "TlsPolicy", "DeliveryOptions.TlsPolicy"));
+        actions.put("CreateConfigurationSetTrackingOptions", this::createTrackingOptions);
+        actions.put("UpdateConfigurationSetTrackingOptions", this::updateTrackingOptions);
+        actions.put("DeleteConfigurationSetTrackingOptions", this::deleteTrackingOptions);
+        actions.put("CreateConfigurationSetEventDestination", this::createEventDestination);
+        actions.put("UpdateConfigurationSetEventDestination", this::updateEventDestination);
+        actions.put("DeleteConfigurationSetEventDestination", this::deleteEventDestination);
+        restActions.put("TagResource", this::tagResource);
+        restActions.put("UntagResource", this::untagResource);
+        restActions.put("ListTagsForResource", this::listTagsForResource);
+        restActions.put("CreateConfigurationSet", this::createConfigurationSetV2);
+        restActions.put("GetConfigurationSet", this::getConfigurationSet);
+        restActions.put("DeleteConfigurationSet", this::deleteConfigurationSetV2);
+        restActions.put("ListConfigurationSets", this::listConfigurationSetsV2);
+        restActions.put("PutConfigurationSetReputationOptions",
+            p -> putOptionV2(p, "ReputationMetricsEnabled", "ReputationMetricsEnabled"));
+        restActions.put("PutConfigurationSetSendingOptions", p -> putOptionV2(p, "SendingEnabled", "SendingEnabled"));
+        restActions.put("PutConfigurationSetDeliveryOptions", p -> putOptionV2(p, "TlsPolicy", "TlsPolicy"));
+        restActions.put("PutConfigurationSetTrackingOptions",
+            p -> putOptionV2(p, "CustomRedirectDomain", "CustomRedirectDomain"));
+        restActions.put("CreateConfigurationSetEventDestination", this::createEventDestinationV2);
+        restActions.put("GetConfigurationSetEventDestinations", this::getEventDestinations);
+        restActions.put("UpdateConfigurationSetEventDestination", this::updateEventDestinationV2);
+        restActions.put("DeleteConfigurationSetEventDestination", this::deleteEventDestinationV2);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    static LocalSesServer start() throws IOException {
+        final LocalSesServer localSes =
+            new LocalSesServer(HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0));
+        localSes.server.start();
+        return localSes;
+    }
+
+    URI getEndpoint() {
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    }
+
+    /**
+     * Delay added before answering every request.
+     */
+    LocalSesServer setLatencyMillis(final long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    /**
+     * Fraction of requests, between 0 and 1, answered with a Throttling error.
+     */
+    LocalSesServer setThrottleRate(final double throttleRate) {
+        this.throttleRate = throttleRate;
+        return this;
+    }
+
+    /**
+     * Answers the next request for {@code action} with the given SES error code, in the
+     * protocol of whichever API the request comes through.
+     */
+    LocalSesServer injectError(final String action, final int statusCode, final String errorCode) {
+        injectedErrors.computeIfAbsent(action, a -> new ConcurrentLinkedQueue<>())
+            .add(new AbstractMap.SimpleImmutableEntry<>(statusCode, errorCode));
+        return this;
+    }
+
+    LocalSesServer addConfigurationSet(final String name) {
+        configurationSets.put(name, new ConcurrentHashMap<>());
+        return this;
+    }
+
+    /**
+     * Attaches an enabled event destination that publishes send events to CloudWatch.
+     */
+    LocalSesServer addEventDestination(final String name, final String destination) {
+        final ObjectNode definition = JSON.createObjectNode().put("Enabled", true);
+        definition.putArray("MatchingEventTypes").add("SEND");
+        definition.putObject("CloudWatchDestination").putArray("DimensionConfigurations").addObject()
+            .put("DimensionName", "ses")
+            .put("DimensionValueSource", "MESSAGE_TAG")
+            .put("DefaultDimensionValue", "none");
+        eventDestinations.computeIfAbsent(name, n -> new ConcurrentSkipListMap<>()).put(destination, definition);
+        return this;
+    }
+
+    Set<String> getEventDestinations(final String name) {
+        final NavigableMap<String, ObjectNode> destinations = eventDestinations.get(name);
+        return destinations == null ? Collections.emptySet() : destinations.keySet();
+    }
+
+    /**
+     * The set's tags, by key.
+     */
+    Map<String, String> getTags(final String name) {
+        final NavigableMap<String, String> setTags = tags.get(name);
+        return setTags == null ? Collections.emptyMap() : setTags;
+    }
+
+    /**
+     * The value last set for an option, e.g. {@code TlsPolicy} or {@code CustomRedirectDomain}.
+     */
+    String getOption(final String name, final String option) {
+        final Map<String, String> options = configurationSets.get(name);
+        return options == null ? null : options.get(option);
+    }
+
+    boolean hasConfigurationSet(final String name) {
+        return configurationSets.containsKey(name);
+    }
+
+    long getRequestCount(final String action) {
+        final AtomicLong count = requestCounts.get(action);
+        return count == null ? 0L : count.get();
+    }
+
+    /**
+     * Requests received for every action, including throttled and failed ones.
+     */
+    long getRequestCount() {
+        long total = 0L;
+        for (final AtomicLong count : requestCounts.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            final String path = exchange.getRequestURI().getPath();
+            final boolean rest = path.startsWith(TAGS_PATH) || path.startsWith(CONFIGURATION_SETS_PATH)
+                || path.equals(ACCOUNT_PATH);
+            final Map<String, String> parameters;
+            final String action;
+            if (rest) {
+                // SESv2 is REST: the operation is the method and path, the body JSON
+                parameters = parseForm(exchange.getRequestURI().getRawQuery());
+                parameters.put("Body", readBody(exchange.getRequestBody()));
+                action = path.equals(ACCOUNT_PATH) ? "GetAccount"
+                    : path.startsWith(TAGS_PATH) ? tagAction(exchange.getRequestMethod())
+                    : configurationSetAction(exchange.getRequestMethod(),
+                        path.substring(CONFIGURATION_SETS_PATH.length()), parameters);
+            } else {
+                parameters = parseForm(readBody(exchange.getRequestBody()));
+                action = parameters.getOrDefault("Action", "");
+            }
+            requestCounts.computeIfAbsent(String.valueOf(action), a -> new AtomicLong()).incrementAndGet();
+
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            send(exchange, dispatch(action, parameters, rest));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, error(500, "InternalFailure", "Interrupted"));
+        } catch (final RuntimeException e) {
+            send(exchange, error(500, "InternalFailure", String.valueOf(e.getMessage())));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Response dispatch(final String action, final Map<String, String> parameters, final boolean rest) {
+        final Queue<Map.Entry<Integer, String>> errors = action == null ? null : injectedErrors.get(action);
+        final Map.Entry<Integer, String> injected = errors == null ? null : errors.poll();
+        if (injected != null) {
+            return rest
+                ? jsonError(injected.getKey(), injected.getValue(), "Injected error")
+                : error(injected.getKey(), injected.getValue(), "Injected error");
+        }
+        if (throttleRate > 0 && ThreadLocalRandom.current().nextDouble() < throttleRate) {
+            return rest
+                ? jsonError(429, "TooManyRequestsException", "Rate exceeded")
+                : error(400, "Throttling", "Rate exceeded");
+        }
+        final Function<Map<String, String>, Response> handler = (rest ? restActions : actions).get(action);
+        if (handler == null) {
+            return rest
+                ? jsonError(404, "NotFoundException", "Unsupported operation")
+                : error(400, "InvalidAction", "Unsupported action " + action);
+        }
+        return handler.apply(parameters);
+    }
+
+    private Response createConfigurationSet(final Map<String, String> parameters) {
+        final String name = parameters.get("ConfigurationSet.Name");
+        if (configurationSets.putIfAbsent(name, new ConcurrentHashMap<>()) != null) {
+            return error(400, "ConfigurationSetAlreadyExists", "Configuration set <" + name + "> already exists.");
+        }
+        eventDestinations.remove(name);
+        tags.remove(name);
+        return result("CreateConfigurationSet", "");
+    }
+
+    private Response describeConfigurationSet(final Map<String, String> parameters) {
+        final String name = parameters.get("ConfigurationSetName");
+        final Map<String, String> options = configurationSets.get(name);
+        if (options == null) {
+            return doesNotExist(name);
+        }
+        final StringBuilder body = new StringBuilder("<ConfigurationSet><Name>").append(escape(name))
+            .append("</Name></ConfigurationSet>");
+        // only the attribute groups that were asked for, as SES does
+        for (final Map.Entry<String, String> parameter : parameters.entrySet()) {
+            if (!parameter.getKey().startsWith("ConfigurationSetAttributeNames.member.")) {
+                continue;
+            }
+            switch (parameter.getValue()) {
+                case "reputationOptions":
+                    body.append("<ReputationOptions><SendingEnabled>")
+                        .append(options.getOrDefault("SendingEnabled", "true"))
+                        .append("</SendingEnabled><ReputationMetricsEnabled>")
+                        .append(options.getOrDefault("ReputationMetricsEnabled", "false"))
+                        .append("</ReputationMetricsEnabled></ReputationOptions>");
+                    break;
+                case "deliveryOptions":
+                    body.append("<DeliveryOptions><TlsPolicy>")
+                        .append(options.getOrDefault("TlsPolicy", "Optional"))
+                        .append("</TlsPolicy></DeliveryOptions>");
+                    break;
+                case "trackingOptions":
+                    if (options.containsKey("CustomRedirectDomain")) {
+                        body.append("<TrackingOptions><CustomRedirectDomain>")
+                            .append(escape(options.get("CustomRedirectDomain")))
+                            .append("</CustomRedirectDomain></TrackingOptions>");
+                    }
+                    break;
+                case "eventDestinations":
+                    body.append("<EventDestinations>");
+                    for (final String destination : getEventDestinations(name)) {
+                        final ObjectNode definition = eventDestinations.get(name).get(destination);
+                        if (definition != null) {
+                            body.append("<member>").append(toXml(destination, definition)).append("</member>");
+                        }
+                    }
+                    body.append("</EventDestinations>");
+                    break;
+                default:
+                    break;
+            }
+        }
+        return result("DescribeConfigurationSet", body.toString());
+    }
+
+    private Response deleteConfigurationSet(final Map<String, String> parameters) {
+        final String name = parameters.get("ConfigurationSetName");
+        if (configurationSets.remove(name) == null) {
+            return doesNotExist(name);
+        }
+        eventDestinations.remove(name);
+        tags.remove(name);
+        return result("DeleteConfigurationSet", "");
+    }
+
+    private Response createEventDestination(final Map<String, String> parameters) {
+        final String name = parameters.get("ConfigurationSetName");
+        if (!configurationSets.containsKey(name)) {
+            return doesNotExist(name);
+        }
+        final String destination = parameters.get("EventDestination.Name");
+        if (eventDestinations.computeIfAbsent(name, n -> new ConcurrentSkipListMap<>())
+            .putIfAbsent(destination, fromQuery(parameters)) != null) {
+            return error(400, "EventDestinationAlreadyExists", "Event destination <" + destination + "> already exists.");
+        }
+        return result("CreateConfigurationSetEventDestination", "");
+    }
+
+    private Response updateEventDestination(final Map<String, String> parameters) {
+        final String name = parameters.get("ConfigurationSetName");
+        if (!configurationSets.containsKey(name)) {
+            return doesNotExist(name);
+        }
+        final String destination = parameters.get("EventDestination.Name");
+        final NavigableMap<String, ObjectNode> destinations = eventDestinations.get(name);
+        if (destinations == null || destinations.replace(destination, fromQuery(parameters)) == null) {
+            return error(400, "EventDestinationDoesNotExist", "Event destination <" + destination + "> does not exist.");
+        }
+        return result("UpdateConfigurationSetEventDestination", "");
+    }
+
+    private Response deleteEventDestination(final Map<String, String> parameters) {
+        final String name = parameters.get("ConfigurationSetName");
+        if (!configurationSets.containsKey(name)) {
+            return doesNotExist(name);
+        }
+        final String destination = parameters.get("EventDestinationName");
+        if (!getEventDestinations(name).remove(destination)) {
+            return error(400, "EventDestinationDoesNotExist", "Event destination <" + destination + "> does not exist.");
+        }
+        return result("DeleteConfigurationSetEventDestination", "");
+    }
+
+    private Response tagResource(final Map<String, String> parameters) {
+        final JsonNode body;
+        try {
+            body = JSON.readTree(parameters.get("Body"));
+        } catch (final IOException e) {
+            return jsonError(400, "BadRequestException", "Malformed body");
+        }
+        final String name = configurationSetName(body.path("ResourceArn").asText());
+        if (name == null) {
+            return jsonError(404, "NotFoundException", "Resource not found");
+        }
+        final NavigableMap<String, String> setTags = tags.computeIfAbsent(name, n -> new ConcurrentSkipListMap<>());
+        for (final JsonNode tag : body.path("Tags")) {
+            setTags.put(tag.path("Key").asText(), tag.path("Value").asText());
+        }
+        return new Response(200, "{}");
+    }
+
+    private Response untagResource(final Map<String, String> parameters) {
+        final String name = configurationSetName(parameters.get("ResourceArn"));
+        if (name == null) {
+            return jsonError(404, "NotFoundException", "Resource not found");
+        }
+        final NavigableMap<String, String> setTags = tags.get(name);
+        if (setTags != null && parameters.containsKey("TagKeys")) {
+            for (final String key : parameters.get("TagKeys").split("\n")) {
+                setTags.remove(key);
+            }
+        }
+        return new Response(200, "{}");
+    }
+
+    private Response listTagsForResource(final Map<String, String> parameters) {
+        final String name = configurationSetName(parameters.get("ResourceArn"));
+        if (name == null) {
+            return jsonError(404, "NotFoundException", "Resource not found");
+        }
+        final ObjectNode body = JSON.createObjectNode();
+        final ArrayNode list = body.putArray("Tags");
+        for (final Map.Entry<String, String> tag : getTags(name).entrySet()) {
+            list.addObject().put("Key", tag.getKey()).put("Value", tag.getValue());
+        }
+        return new Response(200, body.toString());
+    }
+
+    /**
+     * @return the name in a configuration set ARN, or {@code null} unless that set exists
+     */
+    private String configurationSetName(final String arn) {
+        final int prefix = arn == null ? -1 : arn.indexOf(ARN_SET_PREFIX);
+        if (prefix < 0) {
+            return null;
+        }
+        final String name = arn.substring(prefix + ARN_SET_PREFIX.length());
+        return configurationSets.containsKey(name) ? name : null;
+    }
+
+    private static String tagAction(final String method) {
+        switch (method) {
+            case "POST":
+                return "TagResource";
+            case "DELETE":
+                return "UntagResource";
+            case "GET":
+                return "ListTagsForResource";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * The SESv2 operation for a request under {@value #CONFIGURATION_SETS_PATH}, putting the
+     * set and destination names from the path into {@code parameters}.
+     */
+    private static String configurationSetAction(
+        final String method,
+        final String path,
+        final Map<String, String> parameters) {
+        final String[] segments = path.startsWith("/") ? path.substring(1).split("/") : new String[0];
+        if (segments.length > 0) {
+            parameters.put("ConfigurationSetName", segments[0]);
+        }
+        if (segments.length > 2) {
+            parameters.put("EventDestinationName", segments[2]);
+        }
+        final String resource = segments.length < 2 ? "" : segments[1];
+        switch (method + " " + segments.length + " " + resource) {
+            case "POST 0 ":
+                return "CreateConfigurationSet";
+            case "GET 0 ":
+                return "ListConfigurationSets";
+            case "GET 1 ":
+                return "GetConfigurationSet";
+            case "DELETE 1 ":
+                return "DeleteConfigurationSet";
+            case "PUT 2 reputation-options":
+                return "PutConfigurationSetReputationOptions";
+            case "PUT 2 sending":
+                return "PutConfigurationSetSendingOptions";
+            case "PUT 2 delivery-options":
+                return "PutConfigurationSetDeliveryOptions";
+            case "PUT 2 tracking-options":
+                return "PutConfigurationSetTrackingOptions";
+            case "POST 2 event-destinations":
+                return "CreateConfigurationSetEventDestination";
+            case "GET 2 event-destinations":
+                return "GetConfigurationSetEventDestinations";
+            case "PUT 3 event-destinations":
+                return "UpdateConfigurationSetEventDestination";
+            case "DELETE 3 event-destinations":
+                return "DeleteConfigurationSetEventDestination";
+            default:
+                return null;
+        }
+    }
+
+    private Response createConfigurationSetV2(final Map<String, String> parameters) {
+        final JsonNode body = readJson(parameters);
+        if (body == null) {
+            return jsonError(400, "BadRequestException", "Malformed body");
+        }
+        final String name = body.path("ConfigurationSetName").asText();
+        final ConcurrentMap<String, String> options = new ConcurrentHashMap<>();
+        if (configurationSets.putIfAbsent(name, options) != null) {
+            return jsonError(400, "AlreadyExistsException", "Configuration set <" + name + "> already exists.");
+        }
+        eventDestinations.remove(name);
+        tags.remove(name);
+        putOptions(options, body.path("ReputationOptions"), "ReputationMetricsEnabled", "ReputationMetricsEnabled");
+        putOptions(options, body.path("SendingOptions"), "SendingEnabled", "SendingEnabled");
+        putOptions(options, body.path("DeliveryOptions"), "TlsPolicy", "TlsPolicy");
+        putOptions(options, body.path("TrackingOptions"), "CustomRedirectDomain", "CustomRedirectDomain");
+        if (body.path("Tags").size() > 0) {
+            final NavigableMap<String, String> setTags = tags.computeIfAbsent(name, n -> new ConcurrentSkipListMap<>());
+            for (final JsonNode tag : body.path("Tags")) {
+                setTags.put(tag.path("Key").asText(), tag.path("Value").asText());
+            }
+        }
+        return new Response(200, "{}");
+    }
+
+    private Response getConfigurationSet(final Map<String, String> parameters) {
+        final String name = parameters.get("ConfigurationSetName");
+        final Map<String, String> options = configurationSets.get(name);
+        if (options == null) {
+            return notFound(name);
+        }
+        final ObjectNode body = JSON.createObjectNode().put("ConfigurationSetName", name);
+        body.putObject("ReputationOptions")
+            .put("ReputationMetricsEnabled", Boolean.parseBoolean(options.getOrDefault("ReputationMetricsEnabled", "false")));
+        body.putObject("SendingOptions")
+            .put("SendingEnabled", Boolean.parseBoolean(options.getOrDefault("SendingEnabled", "true")));
+        body.putObject("DeliveryOptions")
+            .put("TlsPolicy", options.getOrDefault("TlsPolicy", "Optional").toUpperCase(Locale.ROOT));
+        if (options.containsKey("CustomRedirectDomain")) {
+            body.putObject("TrackingOptions").put("CustomRedirectDomain", options.get("CustomRedirectDomain"));
+        }
+        final ArrayNode list = body.putArray("Tags");
+        for (final Map.Entry<String, String> tag : getTags(name).entrySet()) {
+            list.addObject().put("Key", tag.getKey()).put("Value", tag.getValue());
+        }
+        return new Response(200, body.toString());
+    }
+
+    private Response deleteConfigurationSetV2(final Map<String, String> parameters) {
+        final String name = parameters.get("ConfigurationSetName");
+        if (configurationSets.remove(name) == null) {
+            return notFound(name);
+        }
+        eventDestinations.remove(name);
+        tags.remove(name);
+        return new Response(200, "{}");
+    }
+
+    private Response listConfigurationSetsV2(final Map<String, String> parameters) {
+        final int pageSize = Integer.parseInt(parameters.getOrDefault("PageSize", "1000"));
+        final String nextToken = parameters.get("NextToken");
+
+        final ObjectNode body = JSON.createObjectNode();
+        final ArrayNode names = body.putArray("ConfigurationSets");
+        for (final String name : nextToken == null
+            ? configurationSets.keySet()
+            : configurationSets.tailMap(nextToken, true).keySet()) {
+            if (names.size() == pageSize) {
+                body.put("NextToken", name);
+                break;
+            }
+            names.add(name);
+        }
+        return new Response(200, body.toString());
+    }
+
+    /**
+     * Stores {@code field} of a Put...Options body as {@code option}; a body without it, as
+     * PutConfigurationSetTrackingOptions sends to remove the domain, clears the option.
+     */
+    private Response putOptionV2(final Map<String, String> parameters, final String option, final String field) {
+        final String name = parameters.get("ConfigurationSetName");
+        final ConcurrentMap<String, String> options = configurationSets.get(name);
+        if (options == null) {
+            return notFound(name);
+        }
+        final JsonNode body = readJson(parameters);
+        if (body == null) {
+            return jsonError(400, "BadRequestException", "Malformed body");
+        }
+        options.remove(option);
+        putOptions(options, body, option, field);
+        return new Response(200, "{}");
+    }
+
+    private static void putOptions(
+        final Map<String, String> options,
+        final JsonNode group,
+        final String option,
+        final String field) {
+        final JsonNode value = group.path(field);
+        if (value.isMissingNode() || value.isNull()) {
+            return;
+        }
+        options.put(option, "TlsPolicy".equals(option) ? toV1TlsPolicy(value.asText()) : value.asText());
+    }
+
+    private Response createEventDestinationV2(final Map<String, String> parameters) {
+        final String name = parameters.get("ConfigurationSetName");
+        if (!configurationSets.containsKey(name)) {
+            return notFound(name);
+        }
+        final JsonNode body = readJson(parameters);
+        if (body == null || !body.path("EventDestination").isObject()) {
+            return jsonError(400, "BadRequestException", "Malformed body");
+        }
+        final String destination = body.path("EventDestinationName").asText();
+        if (eventDestinations.computeIfAbsent(name, n -> new ConcurrentSkipListMap<>())
+            .putIfAbsent(destination, ((ObjectNode) body.path("EventDestination")).deepCopy()) != null) {
+            return jsonError(400, "AlreadyExistsException", "Event destination <" + destination + "> already exists.");
+        }
+        return new Response(200, "{}");
+    }
+
+    private Response getEventDestinations(final Map<String, String> parameters) {
+        final String name = parameters.get("ConfigurationSetName");
+        if (!configurationSets.containsKey(name)) {
+            return notFound(name);
+        }
+        final ObjectNode body = JSON.createObjectNode();
+        final ArrayNode list = body.putArray("EventDestinations");
+        for (final String destination : getEventDestinations(name)) {
+            final ObjectNode definition = eventDestinations.get(name).get(destination);
+            if (definition != null) {
+                list.addObject().put("Name", destination).setAll(definition);
+            }
+        }
+        return new Response(200, body.toString());
+    }
+
+    private Response updateEventDestinationV2(final Map<String, String> parameters) {
+        final String name = parameters.get("ConfigurationSetName");
+        if (!configurationSets.containsKey(name)) {
+            return notFound(name);
+        }
+        final JsonNode body = readJson(parameters);
+        if (body == null || !body.path("EventDestination").isObject()) {
+            return jsonError(400, "BadRequestException", "Malformed body");
+        }
+        final String destination = parameters.get("EventDestinationName");
+        final NavigableMap<String, ObjectNode> destinations = eventDestinations.get(name);
+        if (destinations == null
+            || destinations.replace(destination, ((ObjectNode) body.path("EventDestination")).deepCopy()) == null) {
+            return jsonError(404, "NotFoundException", "Event destination <" + destination + "> does not exist.");
+        }
+        return new Response(200, "{}");
+    }
+
+    private Response deleteEventDestinationV2(final Map<String, String> parameters) {
+        final String name = parameters.get("ConfigurationSetName");
+        if (!configurationSets.containsKey(name)) {
+            return notFound(name);
+        }
+        final String destination = parameters.get("EventDestinationName");
+        if (!getEventDestinations(name).remove(destination)) {
+            return jsonError(404, "NotFoundException", "Event destination <" + destination + "> does not exist.");
+        }
+        return new Response(200, "{}");
+    }
+
+    /**
+     * @return the JSON body of a REST request, or {@code null} when it is malformed
+     */
+    private static JsonNode readJson(final Map<String, String> parameters) {
+        final String body = parameters.get("Body");
+        try {
+            return body == null || body.isEmpty() ? JSON.createObjectNode() : JSON.readTree(body);
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+
+    private Response listConfigurationSets(final Map<String, String> parameters) {
+        final int maxItems = Integer.parseInt(parameters.getOrDefault("MaxItems", "1000"));
+        final String nextToken = parameters.get("NextToken");
+
+        final StringBuilder members = new StringBuilder("<ConfigurationSets>");
+        String token = null;
+        int count = 0;
+        for (final String name : nextToken == null
+            ? configurationSets.keySet()
+            : configurationSets.tailMap(nextToken, true).keySet()) {
+            if (count == maxItems) {
+                token = name;
+                break;
+            }
+            members.append("<member><Name>").append(escape(name)).append("</Name></member>");
+            count++;
+        }
+        members.append("</ConfigurationSets>");
+        if (token != null) {
+            members.append("<NextToken>").append(escape(token)).append("</NextToken>");
+        }
+        return result("ListConfigurationSets", members.toString());
+    }
+
+    private Response putOption(
+        final Map<String, String> parameters,
+        final String action,
+        final String option,
+        final String parameter) {
+        final String name = parameters.get("ConfigurationSetName");
+        final Map<String, String> options = configurationSets.get(name);
+        if (options == null) {
+            return doesNotExist(name);
+        }
+        options.put(option, parameters.get(parameter));
+        return result(action, "");
+    }
+
+    private Response createTrackingOptions(final Map<String, String> parameters) {
+        final String name = parameters.get("ConfigurationSetName");
+        final Map<String, String> options = configurationSets.get(name);
+        if (options == null) {
+            return doesNotExist(name);
+        }
+        if (options.putIfAbsent("CustomRedirectDomain", parameters.get("TrackingOptions.CustomRedirectDomain")) != null) {
+            return error(400, "TrackingOptionsAlreadyExistsException", "Tracking options already exist.");
+        }
+        return result("CreateConfigurationSetTrackingOptions", "");
+    }
+
+    private Response updateTrackingOptions(final Map<String, String> parameters) {
+        final String name = parameters.get("ConfigurationSetName");
+        final Map<String, String> options = configurationSets.get(name);
+        if (options == null) {
+            return doesNotExist(name);
+        }
+        if (options.replace("CustomRedirectDomain", parameters.get("TrackingOptions.CustomRedirectDomain")) == null) {
+            return error(400, "TrackingOptionsDoesNotExistException", "Tracking options do not exist.");
+        }
+        return result("UpdateConfigurationSetTrackingOptions", "");
+    }
+
+    private Response deleteTrackingOptions(final Map<String, String> parameters) {
+        final String name = parameters.get("ConfigurationSetName");
+        final Map<String, String> options = configurationSets.get(name);
+        if (options == null) {
+            return doesNotExist(name);
+        }
+        if (options.remove("CustomRedirectDomain") == null) {
+            return error(400, "TrackingOptionsDoesNotExistException", "Tracking options do not exist.");
+        }
+        return result("DeleteConfigurationSetTrackingOptions", "");
+    }
+
+    private static Response doesNotExist(final String name) {
+        return error(400, "ConfigurationSetDoesNotExist", "Configuration set <" + name + "> does not exist.");
+    }
+
+    private static Response notFound(final String name) {
+        return jsonError(404, "NotFoundException", "Configuration set <" + name + "> does not exist.");
+    }
+
+    private static Response result(final String action, final String body) {
+        return new Response(200, "<" + action + "Response xmlns=\"" + NAMESPACE + "\">"
+            + "<" + action + "Result>" + body + "</" + action + "Result>"
+            + "<ResponseMetadata><RequestId>" + UUID.randomUUID() + "</RequestId></ResponseMetadata>"
+            + "</" + action + "Response>");
+    }
+
+    private static Response error(final int statusCode, final String errorCode, final String message) {
+        return new Response(statusCode, "<ErrorResponse xmlns=\"" + NAMESPACE + "\">"
+            + "<Error><Type>Sender</Type><Code>" + errorCode + "</Code><Message>" + escape(message) + "</Message></Error>"
+            + "<RequestId>" + UUID.randomUUID() + "</RequestId>"
+            + "</ErrorResponse>");
+    }
+
+    private static Response jsonError(final int statusCode, final String errorType, final String message) {
+        final ObjectNode body = JSON.createObjectNode().put("message", message);
+        return new Response(statusCode, body.toString(), errorType);
+    }
+
+    private static void send(final HttpExchange exchange, final Response response) throws IOException {
+        final byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        final boolean json = response.body.startsWith("{");
+        exchange.getResponseHeaders().set("Content-Type", json ? "application/json" : "text/xml");
+        if (response.errorType != null) {
+            exchange.getResponseHeaders().set("x-amzn-ErrorType", response.errorType);
+        }
+        exchange.sendResponseHeaders(response.statusCode, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String readBody(final InputStream in) throws IOException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    // a repeated parameter, like the TagKeys of UntagResource, keeps every value, one per line
+    private static Map<String, String> parseForm(final String body) throws UnsupportedEncodingException {
+        final Map<String, String> parameters = new HashMap<>();
+        if (body == null) {
+            return parameters;
+        }
+        for (final String pair : body.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            final int separator = pair.indexOf('=');
+            final String key = separator < 0 ? pair : pair.substring(0, separator);
+            final String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.merge(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"),
+                (first, next) -> first + "\n" + next);
+        }
+        return parameters;
+    }
+
+    /**
+     * The SESv2 JSON form of the event destination in a Query API request, e.g.
+     * {@code EventDestination.MatchingEventTypes.member.1=send} becomes
+     * {@code "MatchingEventTypes":["SEND"]}.
+     */
+    private static ObjectNode fromQuery(final Map<String, String> parameters) {
+        final String prefix = "EventDestination.";
+        final ObjectNode definition = JSON.createObjectNode()
+            .put("Enabled", Boolean.parseBoolean(parameters.get(prefix + "Enabled")));
+        final ArrayNode eventTypes = definition.putArray("MatchingEventTypes");
+        for (int i = 1; parameters.containsKey(prefix + "MatchingEventTypes.member." + i); i++) {
+            eventTypes.add(toV2Value(parameters.get(prefix + "MatchingEventTypes.member." + i)));
+        }
+        final String dimensions = prefix + "CloudWatchDestination.DimensionConfigurations.member.";
+        if (parameters.containsKey(dimensions + "1.DimensionName")) {
+            final ArrayNode configurations =
+                definition.putObject("CloudWatchDestination").putArray("DimensionConfigurations");
+            for (int i = 1; parameters.containsKey(dimensions + i + ".DimensionName"); i++) {
+                configurations.addObject()
+                    .put("DimensionName", parameters.get(dimensions + i + ".DimensionName"))
+                    .put("DimensionValueSource", toV2Value(parameters.get(dimensions + i + ".DimensionValueSource")))
+                    .put("DefaultDimensionValue", parameters.get(dimensions + i + ".DefaultDimensionValue"));
+            }
+        }
+        if (parameters.containsKey(prefix + "KinesisFirehoseDestination.IAMRoleARN")) {
+            definition.putObject("KinesisFirehoseDestination")
+                .put("IamRoleArn", parameters.get(prefix + "KinesisFirehoseDestination.IAMRoleARN"))
+                .put("DeliveryStreamArn", parameters.get(prefix + "KinesisFirehoseDestination.DeliveryStreamARN"));
+        }
+        if (parameters.containsKey(prefix + "SNSDestination.TopicARN")) {
+            definition.putObject("SnsDestination").put("TopicArn", parameters.get(prefix + "SNSDestination.TopicARN"));
+        }
+        return definition;
+    }
+
+    /**
+     * The Query API XML for an event destination stored in its SESv2 JSON form.
+     */
+    private static String toXml(final String name, final JsonNode definition) {
+        final StringBuilder xml = new StringBuilder("<Name>").append(escape(name)).append("</Name>")
+            .append("<Enabled>").append(definition.path("Enabled").asBoolean()).append("</Enabled>")
+            .append("<MatchingEventTypes>");
+        for (final JsonNode eventType : definition.path("MatchingEventTypes")) {
+            xml.append("<member>").append(toV1Value(eventType.asText())).append("</member>");
+        }
+        xml.append("</MatchingEventTypes>");
+        final JsonNode cloudWatch = definition.path("CloudWatchDestination");
+        if (!cloudWatch.isMissingNode()) {
+            xml.append("<CloudWatchDestination><DimensionConfigurations>");
+            for (final JsonNode configuration : cloudWatch.path("DimensionConfigurations")) {
+                xml.append("<member><DimensionName>").append(escape(configuration.path("DimensionName").asText()))
+                    .append("</DimensionName><DimensionValueSource>")
+                    .append(toV1Value(configuration.path("DimensionValueSource").asText()))
+                    .append("</DimensionValueSource><DefaultDimensionValue>")
+                    .append(escape(configuration.path("DefaultDimensionValue").asText()))
+                    .append("</DefaultDimensionValue></member>");
+            }
+            xml.append("</DimensionConfigurations></CloudWatchDestination>");
+        }
+        final JsonNode firehose = definition.path("KinesisFirehoseDestination");
+        if (!firehose.isMissingNode()) {
+            xml.append("<KinesisFirehoseDestination><IAMRoleARN>").append(escape(firehose.path("IamRoleArn").asText()))
+                .append("</IAMRoleARN><DeliveryStreamARN>").append(escape(firehose.path("DeliveryStreamArn").asText()))
+                .append("</DeliveryStreamARN></KinesisFirehoseDestination>");
+        }
+        final JsonNode sns = definition.path("SnsDestination");
+        if (!sns.isMissingNode()) {
+            xml.append("<SNSDestination><TopicARN>").append(escape(sns.path("TopicArn").asText()))
+                .append("</TopicARN></SNSDestination>");
+        }
+        return xml.toString();
+    }
+
+    /**
+     * SESv2 spells enum values like {@code RENDERING_FAILURE} where the Query API has
+     * {@code renderingFailure}.
+     */
+    private static String toV2Value(final String value) {
+        return value.replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+    }
+
+    private static String toV1Value(final String value) {
+        final StringBuilder camel = new StringBuilder();
+        boolean upper = false;
+        for (final char c : value.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (c == '_') {
+                upper = true;
+            } else {
+                camel.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return camel.toString();
+    }
+
+    /**
+     * Query API spelling of a TLS policy, e.g. {@code Require} for {@code REQUIRE}.
+     */
+    private static String toV1TlsPolicy(final String value) {
+        return value.charAt(0) + value.substring(1).toLowerCase(Locale.ROOT);
+    }
+
+    private static String escape(final String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static final class Response {
+        private final int statusCode;
+        private final String body;
+        private final String errorType;
+
+        private Response(final int statusCode, final String body) {
+            this(statusCode, body, null);
+        }
+
+        private Response(final int statusCode, final String body, final String errorType) {
+            this.statusCode = statusCode;
+            this.body = body;
+            this.errorType = errorType;
+        }
+    }
+}
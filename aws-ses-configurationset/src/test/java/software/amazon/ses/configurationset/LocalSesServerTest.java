@@ -0,0 +1,454 @@
+package software.amazon.ses.configurationset;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.ses.model.SesException;
+import software.amazon.cloudformation.exceptions.CfnAlreadyExistsException;
+import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnServiceInternalErrorException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.LoggerProxy;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the handlers through the real SDK client against {@link LocalSesServer}.
+ */
+public class LocalSesServerTest {
+
+    private final Logger logger = message -> { };
+
+    private LocalSesServer localSes;
+    private AmazonWebServicesClientProxy proxy;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        localSes = LocalSesServer.start();
+        ClientBuilder.setEndpointOverride(localSes.getEndpoint());
+        DescribeCache.shared().clear();
+        InventoryIndex.shared().clear();
+        RateLimiter.shared().reset();
+        CircuitBreaker.resetAll();
+        LatencyTracker.shared().clear();
+        proxy = new AmazonWebServicesClientProxy(new LoggerProxy(),
+            new Credentials("accessKeyId", "secretAccessKey", "sessionToken"),
+            () -> TimeUnit.MINUTES.toMillis(15));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ClientBuilder.setEndpointOverride(null);
+        DescribeCache.shared().clear();
+        InventoryIndex.shared().clear();
+        CircuitBreaker.resetAll();
+        localSes.close();
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final String name) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+            .awsAccountId("123456789012")
+            .region("us-east-1")
+            .desiredResourceState(ResourceModel.builder().name(name).build())
+            .build();
+    }
+
+    @Test
+    public void handlers_Lifecycle() {
+        final ProgressEvent<ResourceModel, CallbackContext> created =
+            new CreateHandler().handleRequest(proxy, request("test-set"), null, logger);
+        assertThat(created.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(localSes.hasConfigurationSet("test-set")).isTrue();
+        assertThat(LatencyTracker.shared().count("CreateConfigurationSet")).isEqualTo(1);
+
+        final ProgressEvent<ResourceModel, CallbackContext> read =
+            new ReadHandler().handleRequest(proxy, request("test-set"), null, logger);
+        assertThat(read.getResourceModel().getName()).isEqualTo("test-set");
+
+        final ProgressEvent<ResourceModel, CallbackContext> deleted =
+            new DeleteHandler().handleRequest(proxy, request("test-set"), null, logger);
+        assertThat(deleted.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(localSes.hasConfigurationSet("test-set")).isFalse();
+
+        assertThrows(CfnNotFoundException.class,
+            () -> new ReadHandler().handleRequest(proxy, request("test-set"), null, logger));
+    }
+
+    @Test
+    public void handlers_Options() {
+        final ResourceHandlerRequest<ResourceModel> create = request("test-set");
+        create.getDesiredResourceState().setSendingOptions(SendingOptions.builder().sendingEnabled(false).build());
+        create.getDesiredResourceState().setTrackingOptions(
+            TrackingOptions.builder().customRedirectDomain("a.example.com").build());
+
+        final ProgressEvent<ResourceModel, CallbackContext> created =
+            new CreateHandler().handleRequest(proxy, create, null, logger);
+        assertThat(created.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(localSes.getOption("test-set", "SendingEnabled")).isEqualTo("false");
+        assertThat(localSes.getOption("test-set", "CustomRedirectDomain")).isEqualTo("a.example.com");
+
+        final ResourceHandlerRequest<ResourceModel> update = request("test-set");
+        update.setPreviousResourceState(create.getDesiredResourceState());
+        update.getDesiredResourceState().setSendingOptions(SendingOptions.builder().sendingEnabled(false).build());
+        update.getDesiredResourceState().setDeliveryOptions(DeliveryOptions.builder().tlsPolicy("REQUIRE").build());
+
+        final ProgressEvent<ResourceModel, CallbackContext> updated =
+            new UpdateHandler().handleRequest(proxy, update, null, logger);
+        assertThat(updated.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(localSes.getOption("test-set", "TlsPolicy")).isEqualTo("Require");
+        assertThat(localSes.getOption("test-set", "CustomRedirectDomain")).isNull();
+        assertThat(localSes.getRequestCount("UpdateConfigurationSetSendingEnabled")).isEqualTo(1);
+
+        final ProgressEvent<ResourceModel, CallbackContext> read =
+            new ReadHandler().handleRequest(proxy, request("test-set"), null, logger);
+        assertThat(read.getResourceModel()).isEqualTo(ResourceModel.builder()
+            .name("test-set")
+            .reputationOptions(ReputationOptions.builder().reputationMetricsEnabled(false).build())
+            .sendingOptions(SendingOptions.builder().sendingEnabled(false).build())
+            .deliveryOptions(DeliveryOptions.builder().tlsPolicy("REQUIRE").build())
+            .build());
+    }
+
+    @Test
+    public void handlers_EventDestinations() {
+        final EventDestination bounces = EventDestination.builder()
+            .name("bounces")
+            .enabled(true)
+            .matchingEventTypes(Arrays.asList("BOUNCE", "COMPLAINT"))
+            .snsDestination(SnsDestination.builder().topicARN("arn:aws:sns:us-east-1:123456789012:bounces").build())
+            .build();
+        final EventDestination firehose = EventDestination.builder()
+            .name("firehose")
+            .enabled(false)
+            .matchingEventTypes(Arrays.asList("SEND"))
+            .kinesisFirehoseDestination(KinesisFirehoseDestination.builder()
+                .iAMRoleARN("arn:aws:iam::123456789012:role/ses")
+                .deliveryStreamARN("arn:aws:firehose:us-east-1:123456789012:deliverystream/ses")
+                .build())
+            .build();
+        final ResourceHandlerRequest<ResourceModel> create = request("test-set");
+        create.getDesiredResourceState().setEventDestinations(Arrays.asList(bounces, firehose));
+
+        final ProgressEvent<ResourceModel, CallbackContext> created =
+            new CreateHandler().handleRequest(proxy, create, null, logger);
+        assertThat(created.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(localSes.getEventDestinations("test-set")).containsExactly("bounces", "firehose");
+
+        final ProgressEvent<ResourceModel, CallbackContext> read =
+            new ReadHandler().handleRequest(proxy, request("test-set"), null, logger);
+        assertThat(read.getResourceModel().getEventDestinations()).containsExactly(bounces, firehose);
+        assertThat(localSes.getRequestCount("DescribeConfigurationSet")).isEqualTo(2);
+
+        final EventDestination enabledFirehose = EventDestination.builder()
+            .name("firehose")
+            .enabled(true)
+            .matchingEventTypes(Arrays.asList("SEND"))
+            .kinesisFirehoseDestination(firehose.getKinesisFirehoseDestination())
+            .build();
+        final ResourceHandlerRequest<ResourceModel> update = request("test-set");
+        update.setPreviousResourceState(create.getDesiredResourceState());
+        update.getDesiredResourceState().setEventDestinations(Arrays.asList(enabledFirehose));
+
+        final ProgressEvent<ResourceModel, CallbackContext> updated =
+            new UpdateHandler().handleRequest(proxy, update, null, logger);
+        assertThat(updated.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(localSes.getEventDestinations("test-set")).containsExactly("firehose");
+        assertThat(localSes.getRequestCount("UpdateConfigurationSetEventDestination")).isEqualTo(1);
+
+        final ProgressEvent<ResourceModel, CallbackContext> reread =
+            new ReadHandler().handleRequest(proxy, request("test-set"), null, logger);
+        assertThat(reread.getResourceModel().getEventDestinations()).containsExactly(enabledFirehose);
+    }
+
+    @Test
+    public void handlers_Tags() {
+        final ResourceHandlerRequest<ResourceModel> create = request("test-set");
+        create.getDesiredResourceState().setTags(Arrays.asList(
+            Tag.builder().key("team").value("mail").build(),
+            Tag.builder().key("stage").value("beta").build(),
+            Tag.builder().key("owner").value("ops").build()));
+
+        final ProgressEvent<ResourceModel, CallbackContext> created =
+            new CreateHandler().handleRequest(proxy, create, null, logger);
+        assertThat(created.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(localSes.getTags("test-set")).containsOnlyKeys("team", "stage", "owner");
+        assertThat(localSes.getRequestCount("TagResource")).isEqualTo(1);
+
+        final ProgressEvent<ResourceModel, CallbackContext> read =
+            new ReadHandler().handleRequest(proxy, request("test-set"), null, logger);
+        assertThat(read.getResourceModel().getTags()).containsExactlyInAnyOrderElementsOf(
+            create.getDesiredResourceState().getTags());
+        assertThat(localSes.getRequestCount("ListTagsForResource")).isEqualTo(1);
+
+        final ResourceHandlerRequest<ResourceModel> update = request("test-set");
+        update.setPreviousResourceState(create.getDesiredResourceState());
+        update.getDesiredResourceState().setTags(Arrays.asList(
+            Tag.builder().key("team").value("mail").build(),
+            Tag.builder().key("stage").value("prod").build(),
+            Tag.builder().key("cost-center").value("42").build()));
+
+        final ProgressEvent<ResourceModel, CallbackContext> updated =
+            new UpdateHandler().handleRequest(proxy, update, null, logger);
+        assertThat(updated.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(localSes.getTags("test-set"))
+            .containsEntry("team", "mail")
+            .containsEntry("stage", "prod")
+            .containsEntry("cost-center", "42")
+            .doesNotContainKey("owner");
+        assertThat(localSes.getRequestCount("TagResource")).isEqualTo(2);
+        assertThat(localSes.getRequestCount("UntagResource")).isEqualTo(1);
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> fullRequest(final String name) {
+        final ResourceHandlerRequest<ResourceModel> request = request(name);
+        final ResourceModel model = request.getDesiredResourceState();
+        model.setSendingOptions(SendingOptions.builder().sendingEnabled(false).build());
+        model.setDeliveryOptions(DeliveryOptions.builder().tlsPolicy("REQUIRE").build());
+        model.setTrackingOptions(TrackingOptions.builder().customRedirectDomain("a.example.com").build());
+        model.setEventDestinations(Arrays.asList(
+            EventDestination.builder()
+                .name("bounces")
+                .enabled(true)
+                .matchingEventTypes(Arrays.asList("BOUNCE", "COMPLAINT"))
+                .snsDestination(SnsDestination.builder().topicARN("arn:aws:sns:us-east-1:123456789012:bounces").build())
+                .build(),
+            EventDestination.builder()
+                .name("metrics")
+                .enabled(false)
+                .matchingEventTypes(Arrays.asList("RENDERING_FAILURE", "SEND"))
+                .cloudWatchDestination(CloudWatchDestination.builder()
+                    .dimensionConfigurations(Arrays.asList(DimensionConfiguration.builder()
+                        .dimensionName("campaign")
+                        .dimensionValueSource("MESSAGE_TAG")
+                        .defaultDimensionValue("none")
+                        .build()))
+                    .build())
+                .build()));
+        model.setTags(Arrays.asList(Tag.builder().key("team").value("mail").build()));
+        return request;
+    }
+
+    private ResourceModel read(final String name, final SesApi api) {
+        return new ReadHandler(new DescribeCache(0, 0L, System::currentTimeMillis), new SingleFlight<>(), api)
+            .handleRequest(proxy, request(name), null, logger)
+            .getResourceModel();
+    }
+
+    @Test
+    public void handlers_V2ReadsBackWhatV1Reads() {
+        final ProgressEvent<ResourceModel, CallbackContext> createdV1 = new CreateHandler(SesInvoker.Mode.ASYNC, SesApi.V1)
+            .handleRequest(proxy, fullRequest("v1-set"), null, logger);
+        final long v1Calls = localSes.getRequestCount();
+        final ProgressEvent<ResourceModel, CallbackContext> createdV2 = new CreateHandler(SesInvoker.Mode.ASYNC, SesApi.V2)
+            .handleRequest(proxy, fullRequest("v2-set"), null, logger);
+        final long v2Calls = localSes.getRequestCount() - v1Calls;
+        assertThat(createdV1.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(createdV2.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+
+        // options and tags go inline, so only the destinations and the existence check follow
+        assertThat(v2Calls).isEqualTo(4);
+        assertThat(v1Calls).isGreaterThan(v2Calls);
+        assertThat(localSes.getOption("v2-set", "TlsPolicy")).isEqualTo("Require");
+        assertThat(localSes.getTags("v2-set")).containsEntry("team", "mail");
+        assertThat(localSes.getEventDestinations("v2-set")).containsExactly("bounces", "metrics");
+
+        final ResourceModel v1 = read("v1-set", SesApi.V1);
+        final ResourceModel v2 = read("v2-set", SesApi.V2);
+        assertThat(localSes.getRequestCount("GetConfigurationSet")).isEqualTo(2);
+        assertThat(localSes.getRequestCount("GetConfigurationSetEventDestinations")).isEqualTo(1);
+        v1.setName("v2-set");
+        assertThat(v2).isEqualTo(v1);
+        // both APIs read the one store
+        assertThat(read("v1-set", SesApi.V2)).isEqualTo(read("v1-set", SesApi.V1));
+    }
+
+    @Test
+    public void handlers_V2Lifecycle() {
+        final ResourceHandlerRequest<ResourceModel> create = fullRequest("test-set");
+        assertThat(new CreateHandler(SesInvoker.Mode.ASYNC, SesApi.V2).handleRequest(proxy, create, null, logger)
+            .getStatus()).isEqualTo(OperationStatus.SUCCESS);
+
+        final ResourceHandlerRequest<ResourceModel> update = fullRequest("test-set");
+        update.setPreviousResourceState(create.getDesiredResourceState());
+        final ResourceModel desired = update.getDesiredResourceState();
+        desired.setTrackingOptions(null);
+        desired.setDeliveryOptions(DeliveryOptions.builder().tlsPolicy("OPTIONAL").build());
+        desired.setEventDestinations(Arrays.asList(desired.getEventDestinations().get(0)));
+        desired.getEventDestinations().get(0).setEnabled(false);
+
+        assertThat(new UpdateHandler(SesInvoker.Mode.ASYNC, SesApi.V2).handleRequest(proxy, update, null, logger)
+            .getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(localSes.getOption("test-set", "CustomRedirectDomain")).isNull();
+        assertThat(localSes.getOption("test-set", "TlsPolicy")).isEqualTo("Optional");
+        assertThat(localSes.getEventDestinations("test-set")).containsExactly("bounces");
+        assertThat(localSes.getRequestCount("PutConfigurationSetTrackingOptions")).isEqualTo(1);
+        assertThat(localSes.getRequestCount("PutConfigurationSetDeliveryOptions")).isEqualTo(1);
+        assertThat(localSes.getRequestCount("UpdateConfigurationSetEventDestination")).isEqualTo(1);
+        assertThat(read("test-set", SesApi.V2).getEventDestinations()).containsExactly(desired.getEventDestinations().get(0));
+
+        assertThat(new DeleteHandler(DescribeCache.shared(), SesApi.V2).handleRequest(proxy, request("test-set"), null, logger)
+            .getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(localSes.hasConfigurationSet("test-set")).isFalse();
+        assertThat(localSes.getRequestCount("DeleteConfigurationSetEventDestination")).isEqualTo(2);
+        assertThat(localSes.getRequestCount("DescribeConfigurationSet")).isZero();
+
+        assertThrows(CfnNotFoundException.class, () -> read("test-set", SesApi.V2));
+        assertThrows(CfnNotFoundException.class,
+            () -> new DeleteHandler(DescribeCache.shared(), SesApi.V2).handleRequest(proxy, request("test-set"), null, logger));
+    }
+
+    @Test
+    public void listHandler_V2Pages() {
+        localSes.addConfigurationSet("set1").addConfigurationSet("set2").addConfigurationSet("set3");
+        final ListHandler handler = new ListHandler(2, new SingleFlight<>(), InventoryIndex.shared(), SesApi.V2);
+
+        final ProgressEvent<ResourceModel, CallbackContext> first =
+            handler.handleRequest(proxy, request(null), null, logger);
+        assertThat(first.getResourceModels()).extracting(ResourceModel::getName).containsExactly("set1", "set2");
+
+        final ResourceHandlerRequest<ResourceModel> next = request(null);
+        next.setNextToken(first.getNextToken());
+        assertThat(handler.handleRequest(proxy, next, null, logger).getResourceModels())
+            .extracting(ResourceModel::getName).containsExactly("set3");
+        assertThat(localSes.getRequestCount("ListConfigurationSets")).isEqualTo(1);
+    }
+
+    @Test
+    public void deleteHandler_RemovesEventDestinations() {
+        localSes.addConfigurationSet("test-set")
+            .addEventDestination("test-set", "cloudwatch")
+            .addEventDestination("test-set", "metrics");
+
+        final ProgressEvent<ResourceModel, CallbackContext> deleted =
+            new DeleteHandler().handleRequest(proxy, request("test-set"), null, logger);
+
+        assertThat(deleted.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(localSes.hasConfigurationSet("test-set")).isFalse();
+        assertThat(localSes.getRequestCount("DeleteConfigurationSetEventDestination")).isEqualTo(2);
+        assertThat(localSes.getRequestCount("DescribeConfigurationSet")).isEqualTo(2);
+    }
+
+    @Test
+    public void createHandler_AlreadyExists() {
+        localSes.addConfigurationSet("test-set");
+
+        assertThrows(CfnAlreadyExistsException.class,
+            () -> new CreateHandler().handleRequest(proxy, request("test-set"), null, logger));
+    }
+
+    @Test
+    public void createHandler_InjectedThrottle_RetriedBySdk() {
+        localSes.injectError("CreateConfigurationSet", 400, "Throttling");
+        final MetricsSink previousSink = HandlerMetrics.getSink();
+        final InMemoryMetricsSink sink = new InMemoryMetricsSink();
+        HandlerMetrics.setSink(sink);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response;
+        try {
+            response = new CreateHandler().handleRequest(proxy, request("test-set"), null, logger);
+        } finally {
+            HandlerMetrics.setSink(previousSink);
+        }
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(localSes.getRequestCount("CreateConfigurationSet")).isEqualTo(2);
+
+        // the SDK retry is only visible to the client interceptor
+        assertThat(sink.getValues("CreateConfigurationSet.Retries")).containsExactly(1.0);
+        assertThat(sink.getValues("CreateConfigurationSet.RequestBytes")).hasSize(2).allMatch(bytes -> bytes > 0);
+        assertThat(sink.getValues("CreateConfigurationSet.ResponseBytes")).hasSize(2).allMatch(bytes -> bytes > 0);
+        assertThat(sink.getValues("CreateConfigurationSet.Latency")).hasSize(1);
+        assertThat(sink.getValues("DescribeConfigurationSet.Latency")).hasSize(1);
+        assertThat(sink.getValues(HandlerMetrics.HANDLER_LATENCY)).hasSize(1);
+    }
+
+    @Test
+    public void createHandler_InjectedLimitExceeded() {
+        localSes.injectError("CreateConfigurationSet", 400, "LimitExceeded");
+
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+            new CreateHandler().handleRequest(proxy, request("test-set"), null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackContext().getThrottledAttempts()).isEqualTo(1);
+        assertThat(localSes.hasConfigurationSet("test-set")).isFalse();
+    }
+
+    @Test
+    public void readHandler_SustainedServerErrors_OpenCircuit() {
+        final MetricsSink previousSink = HandlerMetrics.getSink();
+        final InMemoryMetricsSink sink = new InMemoryMetricsSink();
+        HandlerMetrics.setSink(sink);
+        try {
+            localSes.addConfigurationSet("test-set");
+            // every Read also sends a ListTagsForResource, which succeeds, so half the calls fail
+            for (int i = 0; i < CircuitBreaker.MINIMUM_CALLS / 2; i++) {
+                // enough for the SDK's own retries of every call
+                for (int attempt = 0; attempt < 4; attempt++) {
+                    localSes.injectError("DescribeConfigurationSet", 500, "InternalFailure");
+                }
+                DescribeCache.shared().clear();
+                assertThrows(SesException.class,
+                    () -> new ReadHandler().handleRequest(proxy, request("test-set"), null, logger));
+            }
+            final long sent = localSes.getRequestCount("DescribeConfigurationSet");
+
+            assertThrows(CfnServiceInternalErrorException.class,
+                () -> new ReadHandler().handleRequest(proxy, request("test-set"), null, logger));
+            assertThat(localSes.getRequestCount("DescribeConfigurationSet")).isEqualTo(sent);
+        } finally {
+            HandlerMetrics.setSink(previousSink);
+        }
+
+        assertThat(sink.getValues("CircuitBreaker.Open")).containsExactly(1.0);
+        // both calls of the last Read
+        assertThat(sink.getValues("CircuitBreaker.Rejected")).containsExactly(2.0);
+    }
+
+    @Test
+    public void listHandler_Pages() {
+        localSes.addConfigurationSet("set1").addConfigurationSet("set2").addConfigurationSet("set3");
+        final ListHandler handler = new ListHandler(2);
+
+        final ProgressEvent<ResourceModel, CallbackContext> first =
+            handler.handleRequest(proxy, request(null), null, logger);
+        assertThat(first.getResourceModels()).extracting(ResourceModel::getName).containsExactly("set1", "set2");
+        assertThat(first.getNextToken()).isNotNull();
+
+        final ResourceHandlerRequest<ResourceModel> next = request(null);
+        next.setNextToken(first.getNextToken());
+        final ProgressEvent<ResourceModel, CallbackContext> second = handler.handleRequest(proxy, next, null, logger);
+        assertThat(second.getResourceModels()).extracting(ResourceModel::getName).containsExactly("set3");
+        assertThat(second.getNextToken()).isNull();
+
+        // both pages come from one listing
+        assertThat(localSes.getRequestCount("ListConfigurationSets")).isEqualTo(1);
+    }
+
+    @Test
+    public void listHandler_SeesCreateAndDeleteWithoutListingAgain() {
+        localSes.addConfigurationSet("set1");
+        final ListHandler handler = new ListHandler();
+        assertThat(handler.handleRequest(proxy, request(null), null, logger).getResourceModels())
+            .extracting(ResourceModel::getName).containsExactly("set1");
+
+        new CreateHandler().handleRequest(proxy, request("set0"), null, logger);
+        assertThat(handler.handleRequest(proxy, request(null), null, logger).getResourceModels())
+            .extracting(ResourceModel::getName).containsExactly("set0", "set1");
+
+        new DeleteHandler().handleRequest(proxy, request("set1"), null, logger);
+        assertThat(handler.handleRequest(proxy, request(null), null, logger).getResourceModels())
+            .extracting(ResourceModel::getName).containsExactly("set0");
+
+        assertThat(localSes.getRequestCount("ListConfigurationSets")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,33 @@
+package software.amazon.ses.configurationset;
+
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.LoggerProxy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Mock proxy built through the real constructor, so the final
+ * {@link AmazonWebServicesClientProxy#getRemainingTimeInMillis()} reports the given time
+ * while every SES call stays mocked.
+ */
+final class MockProxy {
+
+    static final long REMAINING_MILLIS = TimeUnit.MINUTES.toMillis(15);
+
+    private MockProxy() {
+    }
+
+    static AmazonWebServicesClientProxy create() {
+        return create(() -> REMAINING_MILLIS);
+    }
+
+    static AmazonWebServicesClientProxy create(final Supplier<Long> remainingMillis) {
+        return mock(AmazonWebServicesClientProxy.class, withSettings().useConstructor(
+            new LoggerProxy(), new Credentials("accessKeyId", "secretAccessKey", "sessionToken"), remainingMillis));
+    }
+}
@@ -0,0 +1,309 @@
+package software.amazon.ses.configurationset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.services.ses.model.CreateConfigurationSetEventDestinationRequest;
+import software.amazon.awssdk.services.ses.model.EventDestinationAlreadyExistsException;
+import software.amazon.awssdk.services.ses.model.PutConfigurationSetDeliveryOptionsRequest;
+import software.amazon.awssdk.services.ses.model.UpdateConfigurationSetTrackingOptionsRequest;
+import software.amazon.awssdk.services.sesv2.model.PutConfigurationSetTrackingOptionsRequest;
+import software.amazon.awssdk.services.sesv2.model.TagResourceRequest;
+import software.amazon.awssdk.services.sesv2.model.UntagResourceRequest;
+import software.amazon.cloudformation.exceptions.CfnNotUpdatableException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class MutationPlannerTest {
+
+    private final AmazonWebServicesClientProxy proxy = MockProxy.create();
+
+    @BeforeEach
+    public void setup() {
+        RateLimiter.shared().reset();
+    }
+    private final SesInvoker invoker = new SesInvoker(SesInvoker.Mode.ASYNC, proxy, null);
+
+    private static ResourceModel.ResourceModelBuilder model() {
+        return ResourceModel.builder().name("test-set");
+    }
+
+    private static EventDestination destination(final String name, final String... eventTypes) {
+        return EventDestination.builder()
+            .name(name)
+            .enabled(true)
+            .matchingEventTypes(Arrays.asList(eventTypes))
+            .snsDestination(SnsDestination.builder().topicARN("arn:aws:sns:us-east-1:123456789012:" + name).build())
+            .build();
+    }
+
+    private static List<String> ids(final List<Mutation> mutations) {
+        return mutations.stream().map(Mutation::getId).collect(Collectors.toList());
+    }
+
+    private static List<String> operations(final List<Mutation> mutations) {
+        return mutations.stream().map(Mutation::getOperation).collect(Collectors.toList());
+    }
+
+    @Test
+    public void planCreate_OnlyNonDefaultOptions() {
+        assertThat(MutationPlanner.planCreate(model().build(), invoker)).isEmpty();
+
+        final ResourceModel desired = model()
+            .reputationOptions(ReputationOptions.builder().reputationMetricsEnabled(false).build())
+            .sendingOptions(SendingOptions.builder().sendingEnabled(false).build())
+            .deliveryOptions(DeliveryOptions.builder().build())
+            .trackingOptions(TrackingOptions.builder().customRedirectDomain("track.example.com").build())
+            .build();
+
+        assertThat(operations(MutationPlanner.planCreate(desired, invoker))).containsExactly(
+            "UpdateConfigurationSetSendingEnabled",
+            "CreateConfigurationSetTrackingOptions");
+    }
+
+    @Test
+    public void planUpdate_OnlyChangedGroups() {
+        final ResourceModel previous = model()
+            .reputationOptions(ReputationOptions.builder().reputationMetricsEnabled(true).build())
+            .deliveryOptions(DeliveryOptions.builder().tlsPolicy("REQUIRE").build())
+            .build();
+        final ResourceModel desired = model()
+            .reputationOptions(ReputationOptions.builder().reputationMetricsEnabled(true).build())
+            .deliveryOptions(DeliveryOptions.builder().tlsPolicy("OPTIONAL").build())
+            .build();
+
+        assertThat(MutationPlanner.planUpdate(previous, previous, invoker)).isEmpty();
+        assertThat(operations(MutationPlanner.planUpdate(previous, desired, invoker)))
+            .containsExactly("PutConfigurationSetDeliveryOptions");
+        assertThat(operations(MutationPlanner.planUpdate(desired, model().build(), invoker)))
+            .containsExactly("UpdateConfigurationSetReputationMetricsEnabled");
+    }
+
+    @Test
+    public void planUpdate_TrackingOptionsLifecycle() {
+        final ResourceModel untracked = model().build();
+        final ResourceModel tracked = model()
+            .trackingOptions(TrackingOptions.builder().customRedirectDomain("a.example.com").build())
+            .build();
+        final ResourceModel retracked = model()
+            .trackingOptions(TrackingOptions.builder().customRedirectDomain("b.example.com").build())
+            .build();
+
+        assertThat(operations(MutationPlanner.planUpdate(untracked, tracked, invoker)))
+            .containsExactly("CreateConfigurationSetTrackingOptions");
+        assertThat(operations(MutationPlanner.planUpdate(tracked, retracked, invoker)))
+            .containsExactly("UpdateConfigurationSetTrackingOptions");
+        assertThat(operations(MutationPlanner.planUpdate(retracked, untracked, invoker)))
+            .containsExactly("DeleteConfigurationSetTrackingOptions");
+    }
+
+    @Test
+    public void planUpdate_WithoutPreviousState_PlansAgainstDefaults() {
+        final ResourceModel desired = model()
+            .deliveryOptions(DeliveryOptions.builder().tlsPolicy("REQUIRE").build())
+            .build();
+
+        assertThat(operations(MutationPlanner.planUpdate(null, desired, invoker)))
+            .containsExactly("PutConfigurationSetDeliveryOptions");
+    }
+
+    @Test
+    public void planUpdate_CreateOnlyPropertyChanged() {
+        assertThrows(CfnNotUpdatableException.class,
+            () -> MutationPlanner.planUpdate(model().build(), ResourceModel.builder().name("other-set").build(), invoker));
+    }
+
+    @Test
+    public void mutations_SendDesiredValues() {
+        doReturn(CompletableFuture.completedFuture(null)).when(proxy).injectCredentialsAndInvokeV2Async(any(), any());
+        final ResourceModel previous = model()
+            .trackingOptions(TrackingOptions.builder().customRedirectDomain("a.example.com").build())
+            .build();
+        final ResourceModel desired = model()
+            .deliveryOptions(DeliveryOptions.builder().tlsPolicy("REQUIRE").build())
+            .trackingOptions(TrackingOptions.builder().customRedirectDomain("b.example.com").build())
+            .build();
+
+        MutationPlanner.planUpdate(previous, desired, invoker).forEach(Mutation::apply);
+
+        final ArgumentCaptor<AwsRequest> requests = ArgumentCaptor.forClass(AwsRequest.class);
+        verify(proxy, times(2)).injectCredentialsAndInvokeV2Async(requests.capture(), any());
+        final PutConfigurationSetDeliveryOptionsRequest delivery =
+            (PutConfigurationSetDeliveryOptionsRequest) requests.getAllValues().get(0);
+        assertThat(delivery.configurationSetName()).isEqualTo("test-set");
+        assertThat(delivery.deliveryOptions().tlsPolicyAsString()).isEqualTo("Require");
+        final UpdateConfigurationSetTrackingOptionsRequest tracking =
+            (UpdateConfigurationSetTrackingOptionsRequest) requests.getAllValues().get(1);
+        assertThat(tracking.trackingOptions().customRedirectDomain()).isEqualTo("b.example.com");
+    }
+
+    @Test
+    public void planCreate_OneCallPerEventDestination() {
+        final ResourceModel desired = model()
+            .eventDestinations(Arrays.asList(destination("sns", "BOUNCE"), destination("complaints", "COMPLAINT")))
+            .build();
+
+        assertThat(ids(MutationPlanner.planCreate(desired, invoker))).containsExactly(
+            "CreateConfigurationSetEventDestination/sns",
+            "CreateConfigurationSetEventDestination/complaints");
+    }
+
+    @Test
+    public void planUpdate_EventDestinationsByName() {
+        final ResourceModel previous = model()
+            .eventDestinations(Arrays.asList(
+                destination("kept", "SEND", "BOUNCE"),
+                destination("changed", "SEND"),
+                destination("removed", "SEND")))
+            .build();
+        final ResourceModel desired = model()
+            .eventDestinations(Arrays.asList(
+                destination("kept", "BOUNCE", "SEND"),
+                destination("changed", "SEND", "DELIVERY"),
+                destination("added", "SEND")))
+            .build();
+
+        assertThat(ids(MutationPlanner.planUpdate(previous, desired, invoker))).containsExactly(
+            "UpdateConfigurationSetEventDestination/changed",
+            "CreateConfigurationSetEventDestination/added",
+            "DeleteConfigurationSetEventDestination/removed");
+    }
+
+    @Test
+    public void createEventDestination_SendsSesValues() {
+        doReturn(CompletableFuture.completedFuture(null)).when(proxy).injectCredentialsAndInvokeV2Async(any(), any());
+        final EventDestination cloudWatch = EventDestination.builder()
+            .name("metrics")
+            .matchingEventTypes(Arrays.asList("RENDERING_FAILURE", "SEND"))
+            .cloudWatchDestination(CloudWatchDestination.builder()
+                .dimensionConfigurations(Arrays.asList(DimensionConfiguration.builder()
+                    .dimensionName("campaign")
+                    .dimensionValueSource("MESSAGE_TAG")
+                    .defaultDimensionValue("none")
+                    .build()))
+                .build())
+            .build();
+
+        MutationPlanner.planCreate(model().eventDestinations(Arrays.asList(cloudWatch)).build(), invoker)
+            .forEach(Mutation::apply);
+
+        final ArgumentCaptor<CreateConfigurationSetEventDestinationRequest> request =
+            ArgumentCaptor.forClass(CreateConfigurationSetEventDestinationRequest.class);
+        verify(proxy).injectCredentialsAndInvokeV2Async(request.capture(), any());
+        assertThat(request.getValue().configurationSetName()).isEqualTo("test-set");
+        assertThat(request.getValue().eventDestination().enabled()).isFalse();
+        assertThat(request.getValue().eventDestination().matchingEventTypesAsStrings())
+            .containsExactly("send", "renderingFailure");
+        assertThat(request.getValue().eventDestination().cloudWatchDestination().dimensionConfigurations().get(0)
+            .dimensionValueSourceAsString()).isEqualTo("messageTag");
+        assertThat(EventDestinations.fromSes(request.getValue().eventDestination()).getMatchingEventTypes())
+            .containsExactly("SEND", "RENDERING_FAILURE");
+    }
+
+    @Test
+    public void createEventDestination_AlreadyExists_CountsAsDone() {
+        final CompletableFuture<Object> exists = new CompletableFuture<>();
+        exists.completeExceptionally(EventDestinationAlreadyExistsException.builder().build());
+        doReturn(exists).when(proxy).injectCredentialsAndInvokeV2Async(any(), any());
+
+        final List<Mutation> mutations =
+            MutationPlanner.planCreate(model().eventDestinations(Arrays.asList(destination("sns", "SEND"))).build(), invoker);
+
+        assertThat(mutations.get(0).apply().join()).isNull();
+    }
+
+    @Test
+    public void planV2_OptionsInlineOnCreate_OnePutPerChangedGroup() {
+        final SesInvoker v2 = new SesInvoker(SesInvoker.Mode.ASYNC, SesApi.V2, proxy, null);
+        final ResourceModel untracked = model()
+            .sendingOptions(SendingOptions.builder().sendingEnabled(false).build())
+            .eventDestinations(Arrays.asList(destination("sns", "BOUNCE")))
+            .build();
+        final ResourceModel tracked = model()
+            .deliveryOptions(DeliveryOptions.builder().tlsPolicy("REQUIRE").build())
+            .trackingOptions(TrackingOptions.builder().customRedirectDomain("a.example.com").build())
+            .build();
+
+        assertThat(ids(MutationPlanner.planCreate(untracked, v2)))
+            .containsExactly("CreateConfigurationSetEventDestination/sns");
+        assertThat(operations(MutationPlanner.planUpdate(untracked, tracked, v2))).containsExactly(
+            "PutConfigurationSetSendingOptions",
+            "PutConfigurationSetDeliveryOptions",
+            "PutConfigurationSetTrackingOptions",
+            "DeleteConfigurationSetEventDestination");
+        assertThat(operations(MutationPlanner.planUpdate(tracked, model().build(), v2))).containsExactly(
+            "PutConfigurationSetDeliveryOptions",
+            "PutConfigurationSetTrackingOptions");
+    }
+
+    @Test
+    public void planV2_SendsSesV2Values() {
+        doReturn(CompletableFuture.completedFuture(null)).when(proxy).injectCredentialsAndInvokeV2Async(any(), any());
+        final SesInvoker v2 = new SesInvoker(SesInvoker.Mode.ASYNC, SesApi.V2, proxy, null);
+        final ResourceModel previous = model()
+            .trackingOptions(TrackingOptions.builder().customRedirectDomain("a.example.com").build())
+            .build();
+        final ResourceModel desired = model()
+            .deliveryOptions(DeliveryOptions.builder().tlsPolicy("REQUIRE").build())
+            .eventDestinations(Arrays.asList(destination("sns", "RENDERING_FAILURE", "SEND")))
+            .build();
+
+        MutationPlanner.planUpdate(previous, desired, v2).forEach(Mutation::apply);
+
+        final ArgumentCaptor<AwsRequest> requests = ArgumentCaptor.forClass(AwsRequest.class);
+        verify(proxy, times(3)).injectCredentialsAndInvokeV2Async(requests.capture(), any());
+        final software.amazon.awssdk.services.sesv2.model.PutConfigurationSetDeliveryOptionsRequest delivery =
+            (software.amazon.awssdk.services.sesv2.model.PutConfigurationSetDeliveryOptionsRequest)
+                requests.getAllValues().get(0);
+        assertThat(delivery.tlsPolicyAsString()).isEqualTo("REQUIRE");
+        final PutConfigurationSetTrackingOptionsRequest tracking =
+            (PutConfigurationSetTrackingOptionsRequest) requests.getAllValues().get(1);
+        assertThat(tracking.customRedirectDomain()).isNull();
+        final software.amazon.awssdk.services.sesv2.model.CreateConfigurationSetEventDestinationRequest created =
+            (software.amazon.awssdk.services.sesv2.model.CreateConfigurationSetEventDestinationRequest)
+                requests.getAllValues().get(2);
+        assertThat(created.eventDestinationName()).isEqualTo("sns");
+        assertThat(created.eventDestination().matchingEventTypesAsStrings()).containsExactly("SEND", "RENDERING_FAILURE");
+    }
+
+    @Test
+    public void planTags_OneCallEachForAddedAndRemovedKeys() {
+        final String arn = "arn:aws:ses:us-east-1:123456789012:configuration-set/test-set";
+        final List<Tag> previous = Arrays.asList(tag("kept", "1"), tag("changed", "1"), tag("removed", "1"));
+
+        assertThat(MutationPlanner.planTags(arn, previous, previous, invoker)).isEmpty();
+        assertThat(ids(MutationPlanner.planTags(arn, null, previous, invoker))).containsExactly("TagResource");
+
+        final List<Mutation> mutations = MutationPlanner.planTags(arn, previous,
+            Arrays.asList(tag("kept", "1"), tag("changed", "2"), tag("added", "1")), invoker);
+        assertThat(ids(mutations)).containsExactly("TagResource", "UntagResource");
+
+        doReturn(null).when(proxy).injectCredentialsAndInvokeV2(any(), any());
+        mutations.forEach(Mutation::apply);
+
+        final ArgumentCaptor<AwsRequest> requests = ArgumentCaptor.forClass(AwsRequest.class);
+        verify(proxy, times(2)).injectCredentialsAndInvokeV2(requests.capture(), any());
+        final TagResourceRequest tagged = (TagResourceRequest) requests.getAllValues().get(0);
+        assertThat(tagged.resourceArn()).isEqualTo(arn);
+        assertThat(tagged.tags()).extracting(software.amazon.awssdk.services.sesv2.model.Tag::key)
+            .containsExactly("changed", "added");
+        final UntagResourceRequest untagged = (UntagResourceRequest) requests.getAllValues().get(1);
+        assertThat(untagged.tagKeys()).containsExactly("removed");
+    }
+
+    private static Tag tag(final String key, final String value) {
+        return Tag.builder().key(key).value(value).build();
+    }
+}
@@ -0,0 +1,122 @@
+package software.amazon.ses.configurationset;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MutationRunnerTest {
+
+    private final HandlerMetrics metrics = HandlerMetrics.start("UpdateHandler", message -> { });
+
+    @AfterEach
+    public void tearDown() {
+        metrics.close();
+    }
+
+    @Test
+    public void run_StartsAllMutationsBeforeWaiting() {
+        // neither future completes until both calls have been started
+        final CompletableFuture<Void> first = new CompletableFuture<>();
+        final CompletableFuture<Void> second = new CompletableFuture<>();
+        final CallbackContext context = new CallbackContext();
+
+        MutationRunner.shared().run(Arrays.asList(
+            new Mutation("PutConfigurationSetDeliveryOptions", () -> first),
+            new Mutation("UpdateConfigurationSetSendingEnabled", () -> {
+                first.complete(null);
+                second.complete(null);
+                return second;
+            })), context, metrics);
+
+        assertThat(context.getCompletedMutations())
+            .containsExactlyInAnyOrder("PutConfigurationSetDeliveryOptions", "UpdateConfigurationSetSendingEnabled");
+        assertThat(metrics.getValues("PutConfigurationSetDeliveryOptions.Latency")).hasSize(1);
+    }
+
+    @Test
+    public void run_BoundsCallsInFlight() {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final List<Mutation> mutations = IntStream.range(0, 20)
+            .mapToObj(i -> new Mutation("m" + i, "PutConfigurationSetDeliveryOptions", () -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                return CompletableFuture.runAsync(inFlight::decrementAndGet);
+            }))
+            .collect(Collectors.toList());
+        final CallbackContext context = new CallbackContext();
+
+        new MutationRunner(3).run(mutations, context, metrics);
+
+        assertThat(maxInFlight.get()).isBetween(1, 3);
+        assertThat(context.getCompletedMutations()).hasSize(20);
+    }
+
+    @Test
+    public void run_SkipsCompletedMutations() {
+        final AtomicInteger calls = new AtomicInteger();
+        final CallbackContext context = new CallbackContext();
+        context.getCompletedMutations().add("PutConfigurationSetDeliveryOptions");
+
+        MutationRunner.shared().run(Arrays.asList(
+            new Mutation("PutConfigurationSetDeliveryOptions", () -> count(calls)),
+            new Mutation("UpdateConfigurationSetSendingEnabled", () -> count(calls))), context, metrics);
+        MutationRunner.shared().run(Collections.singletonList(
+            new Mutation("UpdateConfigurationSetSendingEnabled", () -> count(calls))), context, metrics);
+
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void run_RecordsSuccessesBeforeRethrowingFailure() {
+        final IllegalStateException failure = new IllegalStateException("failed");
+        final CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new CompletionException(failure));
+        final CallbackContext context = new CallbackContext();
+
+        final IllegalStateException thrown = assertThrows(IllegalStateException.class,
+            () -> MutationRunner.shared().run(Arrays.asList(
+                new Mutation("UpdateConfigurationSetSendingEnabled", () -> CompletableFuture.completedFuture(null)),
+                new Mutation("PutConfigurationSetDeliveryOptions", () -> failed)), context, metrics));
+
+        assertThat(thrown).isSameAs(failure);
+        assertThat(context.getCompletedMutations()).containsExactly("UpdateConfigurationSetSendingEnabled");
+    }
+
+    @Test
+    public void run_StopsStartingMutationsAfterFailure() {
+        final AtomicInteger calls = new AtomicInteger();
+        final CallbackContext context = new CallbackContext();
+
+        assertThrows(IllegalStateException.class, () -> new MutationRunner(1).run(Arrays.asList(
+            new Mutation("PutConfigurationSetDeliveryOptions", () -> { throw new IllegalStateException(); }),
+            new Mutation("UpdateConfigurationSetSendingEnabled", () -> count(calls))), context, metrics));
+
+        assertThat(calls.get()).isEqualTo(0);
+        assertThat(context.getCompletedMutations()).isEmpty();
+    }
+
+    @Test
+    public void run_WrapsCheckedFailures() {
+        final CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new Exception("checked"));
+
+        assertThrows(CompletionException.class, () -> MutationRunner.shared().run(Collections.singletonList(
+            new Mutation("PutConfigurationSetDeliveryOptions", () -> failed)), new CallbackContext(), metrics));
+    }
+
+    private static CompletableFuture<?> count(final AtomicInteger calls) {
+        calls.incrementAndGet();
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,74 @@
+package software.amazon.ses.configurationset;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class NameValidatorTest {
+
+    private final NameValidator validator = NameValidator.schema();
+
+    @Test
+    public void validate_AcceptsSchemaNames() {
+        validator.validate("a");
+        validator.validate("my_configuration-set-01");
+        validator.validate(repeat('x', CreateHandler.MAX_LENGTH_CONFIGURATION_SET_NAME));
+    }
+
+    @Test
+    public void validate_RejectsMissingName() {
+        final CfnInvalidRequestException e = assertThrows(CfnInvalidRequestException.class,
+            () -> validator.validate(null));
+
+        assertThat(e.getMessage()).contains("Name is required");
+    }
+
+    @Test
+    public void validate_RejectsEmptyName() {
+        final CfnInvalidRequestException e = assertThrows(CfnInvalidRequestException.class,
+            () -> validator.validate(""));
+
+        assertThat(e.getMessage()).contains("Name must be at least 1 characters, got 0");
+    }
+
+    @Test
+    public void validate_RejectsLongNameWithoutEchoingIt() {
+        final String name = repeat('x', 1000);
+
+        final CfnInvalidRequestException e = assertThrows(CfnInvalidRequestException.class,
+            () -> validator.validate(name));
+
+        assertThat(e.getMessage()).contains("Name must be at most 64 characters, got 1000");
+        assertThat(e.getMessage()).doesNotContain(name);
+    }
+
+    @Test
+    public void validate_RejectsCharactersOutsidePattern() {
+        final CfnInvalidRequestException e = assertThrows(CfnInvalidRequestException.class,
+            () -> validator.validate("my.set"));
+
+        assertThat(e.getMessage()).contains("Name <my.set> must match ^[a-zA-Z0-9_-]{1,64}$");
+    }
+
+    @Test
+    public void validate_ReusesValidatorAcrossNames() {
+        final String[] names = {"my-set", "another_configuration_set", "set-0123456789"};
+
+        assertThat(NameValidator.schema()).isSameAs(validator);
+        for (int i = 0; i < names.length * 2; i++) {
+            validator.validate(names[i % names.length]);
+        }
+        assertThrows(CfnInvalidRequestException.class, () -> validator.validate("my set"));
+        validator.validate(names[0]);
+    }
+
+    private static String repeat(final char c, final int count) {
+        final StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,159 @@
+package software.amazon.ses.configurationset;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RateLimiterTest {
+
+    private static final long PLENTY_OF_TIME = TimeUnit.MINUTES.toMillis(1);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final List<Long> sleeps = new ArrayList<>();
+
+    private RateLimiter limiter(final RateLimiter.Limit limit) {
+        return new RateLimiter(limit, limit, Collections.emptyMap(), nanos::get, millis -> {
+            sleeps.add(millis);
+            nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        });
+    }
+
+    @Test
+    public void acquire_BurstThenWaitsLocally() {
+        final RateLimiter limiter = limiter(new RateLimiter.Limit(2.0, 3));
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("DescribeConfigurationSet", () -> PLENTY_OF_TIME);
+        }
+        assertThat(sleeps).isEmpty();
+
+        limiter.acquire("DescribeConfigurationSet", () -> PLENTY_OF_TIME);
+        assertThat(sleeps).containsExactly(501L);
+    }
+
+    @Test
+    public void acquire_RefillsOverTime() {
+        final RateLimiter limiter = limiter(new RateLimiter.Limit(1.0, 1));
+
+        limiter.acquire("ListConfigurationSets", () -> PLENTY_OF_TIME);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        limiter.acquire("ListConfigurationSets", () -> PLENTY_OF_TIME);
+
+        assertThat(sleeps).isEmpty();
+    }
+
+    @Test
+    public void acquire_BucketsPerOperation() {
+        final RateLimiter limiter = limiter(new RateLimiter.Limit(1.0, 1));
+
+        limiter.acquire("CreateConfigurationSet", () -> PLENTY_OF_TIME);
+        limiter.acquire("DescribeConfigurationSet", () -> PLENTY_OF_TIME);
+
+        assertThat(sleeps).isEmpty();
+    }
+
+    @Test
+    public void acquire_YieldsWhenTokenTooFarOff() {
+        final RateLimiter limiter = limiter(new RateLimiter.Limit(0.1, 1));
+        limiter.acquire("CreateConfigurationSet", () -> PLENTY_OF_TIME);
+
+        final RateLimitedException e = assertThrows(RateLimitedException.class,
+            () -> limiter.acquire("CreateConfigurationSet", () -> PLENTY_OF_TIME));
+
+        assertThat(e.getOperation()).isEqualTo("CreateConfigurationSet");
+        assertThat(e.getDelaySeconds()).isEqualTo(11);
+        assertThat(sleeps).isEmpty();
+    }
+
+    @Test
+    public void acquire_YieldsWhenInvocationNearlyOver() {
+        final RateLimiter limiter = limiter(new RateLimiter.Limit(1.0, 1));
+        limiter.acquire("CreateConfigurationSet", () -> PLENTY_OF_TIME);
+
+        final RateLimitedException e = assertThrows(RateLimitedException.class,
+            () -> limiter.acquire("CreateConfigurationSet", () -> RateLimiter.MIN_REMAINING_MILLIS));
+
+        assertThat(e.getDelaySeconds()).isEqualTo(2);
+        assertThat(sleeps).isEmpty();
+    }
+
+    @Test
+    public void acquire_Unlimited() {
+        final RateLimiter limiter = limiter(RateLimiter.Limit.UNLIMITED);
+
+        for (int i = 0; i < 1000; i++) {
+            limiter.acquire("DescribeConfigurationSet", () -> 0L);
+        }
+
+        assertThat(sleeps).isEmpty();
+    }
+
+    @Test
+    public void configure_ReplacesLimitsAndRefills() {
+        final RateLimiter limiter = limiter(new RateLimiter.Limit(0.1, 1));
+        limiter.acquire("CreateConfigurationSet", () -> PLENTY_OF_TIME);
+
+        limiter.configure(new RateLimiter.Limit(0.1, 1), new RateLimiter.Limit(0.1, 1),
+            Collections.singletonMap("CreateConfigurationSet", new RateLimiter.Limit(0.1, 2)));
+        limiter.acquire("CreateConfigurationSet", () -> PLENTY_OF_TIME);
+        limiter.acquire("CreateConfigurationSet", () -> PLENTY_OF_TIME);
+
+        assertThat(sleeps).isEmpty();
+    }
+
+    @Test
+    public void fromSpec_OverridesDefaultsAndOperations() {
+        final RateLimiter limiter = RateLimiter.fromSpec("ListConfigurationSets=2:4, *=0.5:3, read=5:20");
+
+        assertThat(limiter.getLimit("ListConfigurationSets").getPermitsPerSecond()).isEqualTo(2.0);
+        assertThat(limiter.getLimit("ListConfigurationSets").getBurst()).isEqualTo(4);
+        assertThat(limiter.getLimit("CreateConfigurationSet").getPermitsPerSecond()).isEqualTo(0.5);
+        assertThat(limiter.getLimit("CreateConfigurationSet").getBurst()).isEqualTo(3);
+        assertThat(limiter.getLimit("DescribeConfigurationSet").getPermitsPerSecond()).isEqualTo(5.0);
+        assertThat(limiter.getLimit("DescribeConfigurationSet").getBurst()).isEqualTo(20);
+    }
+
+    @Test
+    public void fromSpec_Unset_LimitsOnlyMutatingCalls() {
+        final RateLimiter limiter = RateLimiter.fromSpec(null);
+
+        assertThat(limiter.getLimit("CreateConfigurationSet")).isSameAs(RateLimiter.DEFAULT_LIMIT);
+        assertThat(limiter.getLimit("TagResource")).isSameAs(RateLimiter.DEFAULT_LIMIT);
+        assertThat(limiter.getLimit("DescribeConfigurationSet")).isSameAs(RateLimiter.DEFAULT_READ_LIMIT);
+        assertThat(limiter.getLimit("GetConfigurationSetEventDestinations")).isSameAs(RateLimiter.DEFAULT_READ_LIMIT);
+        assertThat(limiter.getLimit("ListTagsForResource")).isSameAs(RateLimiter.DEFAULT_READ_LIMIT);
+    }
+
+    @Test
+    public void fromEnvironment_Malformed_FallsBackToDefaults() {
+        final RateLimiter limiter = RateLimiter.fromEnvironment("ListConfigurationSets=2:4,*=fast:10");
+
+        assertThat(limiter.getLimit("ListConfigurationSets")).isSameAs(RateLimiter.DEFAULT_READ_LIMIT);
+        assertThat(limiter.getLimit("CreateConfigurationSet")).isSameAs(RateLimiter.DEFAULT_LIMIT);
+        assertThat(limiter.takeConfigurationError()).contains("*=fast:10");
+        assertThat(limiter.takeConfigurationError()).isNull();
+    }
+
+    @Test
+    public void parse_RejectsMalformedEntries() {
+        assertThrows(IllegalArgumentException.class, () -> RateLimiter.parse("ListConfigurationSets=2"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimiter.parse("ListConfigurationSets"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimiter.parse("ListConfigurationSets=0:1"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimiter.parse("ListConfigurationSets=x:1"));
+    }
+
+    @Test
+    public void parse_SkipsEmptyEntries() {
+        final Map<String, RateLimiter.Limit> limits = RateLimiter.parse(",ListConfigurationSets=2:4,");
+
+        assertThat(limits).containsOnlyKeys("ListConfigurationSets");
+    }
+}
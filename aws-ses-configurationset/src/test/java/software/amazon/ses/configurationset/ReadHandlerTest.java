@@ -1,6 +1,7 @@
 package software.amazon.ses.configurationset;
 
 import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
@@ -9,18 +10,27 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.awssdk.services.ses.model.ConfigurationSet;
 import software.amazon.awssdk.services.ses.model.ConfigurationSetDoesNotExistException;
+import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetRequest;
 import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetResponse;
+import software.amazon.awssdk.services.sesv2.model.ListTagsForResourceRequest;
+import software.amazon.awssdk.services.sesv2.model.ListTagsForResourceResponse;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static software.amazon.ses.configurationset.Matchers.assertThatModelsAreEqual;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,8 +44,10 @@ public class ReadHandlerTest {
 
     @BeforeEach
     public void setup() {
-        proxy = mock(AmazonWebServicesClientProxy.class);
+        proxy = MockProxy.create();
         logger = mock(Logger.class);
+        DescribeCache.shared().clear();
+        RateLimiter.shared().reset();
     }
 
     @Test
@@ -50,9 +62,12 @@ public class ReadHandlerTest {
         doReturn(describeResponse)
             .when(proxy)
             .injectCredentialsAndInvokeV2(
-                ArgumentMatchers.any(),
+                ArgumentMatchers.any(DescribeConfigurationSetRequest.class),
                 ArgumentMatchers.any()
             );
+        doReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().build()))
+            .when(proxy)
+            .injectCredentialsAndInvokeV2Async(ArgumentMatchers.any(ListTagsForResourceRequest.class), ArgumentMatchers.any());
 
         final ResourceModel model = ResourceModel.builder()
             .name("test-set")
@@ -74,6 +89,58 @@ public class ReadHandlerTest {
         assertThat(response.getErrorCode()).isNull();
     }
 
+    @Test
+    public void handleRequest_MapsAllModeledAttributes() {
+        final ReadHandler handler = new ReadHandler();
+
+        final DescribeConfigurationSetResponse describeResponse = DescribeConfigurationSetResponse.builder()
+            .configurationSet(ConfigurationSet.builder().name("test-set").build())
+            .reputationOptions(software.amazon.awssdk.services.ses.model.ReputationOptions.builder()
+                .reputationMetricsEnabled(true)
+                .sendingEnabled(false)
+                .build())
+            .deliveryOptions(software.amazon.awssdk.services.ses.model.DeliveryOptions.builder()
+                .tlsPolicy("Require")
+                .build())
+            .trackingOptions(software.amazon.awssdk.services.ses.model.TrackingOptions.builder()
+                .customRedirectDomain("track.example.com")
+                .build())
+            .build();
+
+        doReturn(describeResponse)
+            .when(proxy)
+            .injectCredentialsAndInvokeV2(
+                ArgumentMatchers.any(DescribeConfigurationSetRequest.class),
+                ArgumentMatchers.any()
+            );
+        doReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().build()))
+            .when(proxy)
+            .injectCredentialsAndInvokeV2Async(ArgumentMatchers.any(ListTagsForResourceRequest.class), ArgumentMatchers.any());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().name("test-set").build())
+            .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getResourceModel()).isEqualTo(ResourceModel.builder()
+            .name("test-set")
+            .reputationOptions(ReputationOptions.builder().reputationMetricsEnabled(true).build())
+            .sendingOptions(SendingOptions.builder().sendingEnabled(false).build())
+            .deliveryOptions(DeliveryOptions.builder().tlsPolicy("REQUIRE").build())
+            .trackingOptions(TrackingOptions.builder().customRedirectDomain("track.example.com").build())
+            .build());
+
+        // one describe, asking for exactly the modeled attributes, and one call for the tags sent alongside it
+        final ArgumentCaptor<DescribeConfigurationSetRequest> describe =
+            ArgumentCaptor.forClass(DescribeConfigurationSetRequest.class);
+        verify(proxy).injectCredentialsAndInvokeV2(describe.capture(), ArgumentMatchers.any());
+        assertThat(describe.getValue().configurationSetAttributeNames())
+            .containsExactlyElementsOf(ConfigurationSetAttributes.MODELED);
+        verify(proxy).injectCredentialsAndInvokeV2Async(ArgumentMatchers.any(ListTagsForResourceRequest.class),
+            ArgumentMatchers.any());
+    }
+
     @Test
     public void handleRequest_ResourceNotFound() {
         final ReadHandler handler = new ReadHandler();
@@ -84,6 +151,9 @@ public class ReadHandlerTest {
                 ArgumentMatchers.any(),
                 ArgumentMatchers.any()
             );
+        doReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().build()))
+            .when(proxy)
+            .injectCredentialsAndInvokeV2Async(ArgumentMatchers.any(ListTagsForResourceRequest.class), ArgumentMatchers.any());
 
         final ResourceModel model = ResourceModel.builder()
             .name("test-set")
@@ -97,4 +167,124 @@ public class ReadHandlerTest {
             handler.handleRequest(proxy, request, null, logger);
         });
     }
+
+    @Test
+    public void handleRequest_ServedFromCache() {
+        final DescribeCache cache = new DescribeCache(DescribeCache.MAX_ENTRIES, DescribeCache.TTL_MILLIS, System::currentTimeMillis);
+        final ReadHandler handler = new ReadHandler(cache, new SingleFlight<>());
+
+        final ConfigurationSet set = ConfigurationSet.builder().name("test-set").build();
+        doReturn(DescribeConfigurationSetResponse.builder().configurationSet(set).build())
+            .when(proxy)
+            .injectCredentialsAndInvokeV2(
+                ArgumentMatchers.any(DescribeConfigurationSetRequest.class),
+                ArgumentMatchers.any()
+            );
+        doReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().build()))
+            .when(proxy)
+            .injectCredentialsAndInvokeV2Async(ArgumentMatchers.any(ListTagsForResourceRequest.class), ArgumentMatchers.any());
+
+        final ResourceModel model = ResourceModel.builder()
+            .name("test-set")
+            .build();
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(model)
+            .build();
+
+        handler.handleRequest(proxy, request, null, logger);
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThatModelsAreEqual(response.getResourceModel(), set);
+        verify(proxy).injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+        verify(proxy).injectCredentialsAndInvokeV2Async(ArgumentMatchers.any(), ArgumentMatchers.any());
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void handleRequest_InvalidatedDuringDescribe_NotCached() {
+        final DescribeCache cache = new DescribeCache(DescribeCache.MAX_ENTRIES, DescribeCache.TTL_MILLIS, System::currentTimeMillis);
+        final ReadHandler handler = new ReadHandler(cache, new SingleFlight<>());
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().name("test-set").build())
+            .build();
+        final String key = DescribeCache.key(request, "test-set");
+
+        // an Update finishes while the describe is in flight
+        doAnswer(invocation -> {
+            cache.invalidate(key);
+            return DescribeConfigurationSetResponse.builder()
+                .configurationSet(ConfigurationSet.builder().name("test-set").build())
+                .build();
+        })
+            .when(proxy)
+            .injectCredentialsAndInvokeV2(ArgumentMatchers.any(DescribeConfigurationSetRequest.class), ArgumentMatchers.any());
+        doReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().build()))
+            .when(proxy)
+            .injectCredentialsAndInvokeV2Async(ArgumentMatchers.any(ListTagsForResourceRequest.class), ArgumentMatchers.any());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void handleRequest_ReturnsTagsFromOneCall() {
+        final ReadHandler handler = new ReadHandler();
+
+        doReturn(DescribeConfigurationSetResponse.builder()
+            .configurationSet(ConfigurationSet.builder().name("test-set").build())
+            .build())
+            .when(proxy)
+            .injectCredentialsAndInvokeV2(ArgumentMatchers.any(DescribeConfigurationSetRequest.class), ArgumentMatchers.any());
+        doReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder()
+            .tags(software.amazon.awssdk.services.sesv2.model.Tag.builder().key("team").value("mail").build(),
+                software.amazon.awssdk.services.sesv2.model.Tag.builder().key("cost-center").value("42").build())
+            .build()))
+            .when(proxy)
+            .injectCredentialsAndInvokeV2Async(ArgumentMatchers.any(ListTagsForResourceRequest.class), ArgumentMatchers.any());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .awsAccountId("123456789012")
+            .awsPartition("aws")
+            .region("us-east-1")
+            .desiredResourceState(ResourceModel.builder().name("test-set").build())
+            .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getResourceModel().getTags()).containsExactly(
+            Tag.builder().key("team").value("mail").build(),
+            Tag.builder().key("cost-center").value("42").build());
+        final ArgumentCaptor<ListTagsForResourceRequest> tagsRequest =
+            ArgumentCaptor.forClass(ListTagsForResourceRequest.class);
+        verify(proxy).injectCredentialsAndInvokeV2Async(tagsRequest.capture(), ArgumentMatchers.any());
+        assertThat(tagsRequest.getValue().resourceArn())
+            .isEqualTo("arn:aws:ses:us-east-1:123456789012:configuration-set/test-set");
+    }
+
+    @Test
+    public void handleRequest_RateLimited_FailsWithThrottling() {
+        final ReadHandler handler = new ReadHandler();
+        RateLimiter.shared().configure(RateLimiter.DEFAULT_LIMIT, RateLimiter.DEFAULT_READ_LIMIT,
+            Collections.singletonMap("DescribeConfigurationSet", new RateLimiter.Limit(0.01, 1)));
+        try {
+            RateLimiter.shared().acquire("DescribeConfigurationSet", () -> Long.MAX_VALUE);
+            doReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().build()))
+                .when(proxy)
+                .injectCredentialsAndInvokeV2Async(ArgumentMatchers.any(ListTagsForResourceRequest.class),
+                    ArgumentMatchers.any());
+
+            final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().name("test-set").build())
+                .build();
+
+            assertThrows(CfnThrottlingException.class, () -> handler.handleRequest(proxy, request, null, logger));
+        } finally {
+            RateLimiter.shared().configure(null);
+        }
+    }
 }
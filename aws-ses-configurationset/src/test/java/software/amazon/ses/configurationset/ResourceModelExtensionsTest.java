@@ -0,0 +1,49 @@
+package software.amazon.ses.configurationset;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResourceModelExtensionsTest {
+
+    private static String jsonIdentifier(final String name) {
+        final JSONObject identifier = new JSONObject();
+        identifier.append("Name", name);
+        return identifier.toString();
+    }
+
+    @Test
+    public void getPrimaryIdentifier_MatchesJsonRendering() {
+        final ResourceModel model = ResourceModel.builder().name("test-set").build();
+
+        final PrimaryIdentifier identifier = ResourceModelExtensions.getPrimaryIdentifier(model);
+
+        assertThat(identifier.getName()).isEqualTo("test-set");
+        assertThat(identifier.toString()).isEqualTo(jsonIdentifier("test-set"));
+        assertThat(identifier.toString()).isEqualTo("{\"Name\":[\"test-set\"]}");
+    }
+
+    @Test
+    public void getPrimaryIdentifier_EscapesName() {
+        final ResourceModel model = ResourceModel.builder().name("a\"b\\c/d").build();
+
+        assertThat(ResourceModelExtensions.getPrimaryIdentifier(model).toString())
+            .isEqualTo(jsonIdentifier("a\"b\\c/d"));
+    }
+
+    @Test
+    public void getPrimaryIdentifier_RendersOnce() {
+        final PrimaryIdentifier identifier =
+            ResourceModelExtensions.getPrimaryIdentifier(ResourceModel.builder().name("test-set").build());
+
+        assertThat(identifier.toString()).isSameAs(identifier.toString());
+    }
+
+    @Test
+    public void getPrimaryIdentifier_NullName() {
+        final ResourceModel model = ResourceModel.builder().build();
+
+        assertThat(ResourceModelExtensions.getPrimaryIdentifier(model).toString()).isEqualTo("{\"Name\":[null]}");
+    }
+}
@@ -0,0 +1,21 @@
+package software.amazon.ses.configurationset;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SesApiTest {
+
+    @Test
+    public void parse_DefaultsToV1() {
+        assertThat(SesApi.parse(null)).isEqualTo(SesApi.V1);
+        assertThat(SesApi.parse(" ")).isEqualTo(SesApi.V1);
+        assertThat(SesApi.parse(" v2 ")).isEqualTo(SesApi.V2);
+    }
+
+    @Test
+    public void parse_RejectsUnknownApi() {
+        assertThrows(IllegalArgumentException.class, () -> SesApi.parse("V3"));
+    }
+}
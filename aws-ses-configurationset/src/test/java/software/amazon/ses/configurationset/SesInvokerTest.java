@@ -0,0 +1,72 @@
+package software.amazon.ses.configurationset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.ses.SesAsyncClient;
+import software.amazon.awssdk.services.ses.SesClient;
+import software.amazon.awssdk.services.ses.model.ConfigurationSetDoesNotExistException;
+import software.amazon.awssdk.services.ses.model.DeleteConfigurationSetRequest;
+import software.amazon.awssdk.services.ses.model.DeleteConfigurationSetResponse;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class SesInvokerTest {
+
+    private final AmazonWebServicesClientProxy proxy = MockProxy.create();
+
+    @BeforeEach
+    public void setup() {
+        RateLimiter.shared().reset();
+    }
+    private final DeleteConfigurationSetRequest request = DeleteConfigurationSetRequest.builder()
+        .configurationSetName("test-set")
+        .build();
+
+    @Test
+    public void invoke_Sync_CompletesOnCallingThread() {
+        final DeleteConfigurationSetResponse deleted = DeleteConfigurationSetResponse.builder().build();
+        doReturn(deleted).when(proxy).injectCredentialsAndInvokeV2(any(), any());
+
+        final CompletableFuture<DeleteConfigurationSetResponse> response = new SesInvoker(SesInvoker.Mode.SYNC, proxy, null)
+            .invoke(request, SesClient::deleteConfigurationSet, SesAsyncClient::deleteConfigurationSet);
+
+        assertThat(response).isCompletedWithValue(deleted);
+        verify(proxy, never()).injectCredentialsAndInvokeV2Async(any(), any());
+    }
+
+    @Test
+    public void invoke_Sync_FailureCompletesExceptionally() {
+        doThrow(ConfigurationSetDoesNotExistException.builder().build())
+            .when(proxy).injectCredentialsAndInvokeV2(any(), any());
+
+        final CompletableFuture<DeleteConfigurationSetResponse> response = new SesInvoker(SesInvoker.Mode.SYNC, proxy, null)
+            .invoke(request, SesClient::deleteConfigurationSet, SesAsyncClient::deleteConfigurationSet);
+
+        final ExecutionException thrown = assertThrows(ExecutionException.class, response::get);
+        assertThat(thrown.getCause()).isInstanceOf(ConfigurationSetDoesNotExistException.class);
+    }
+
+    @Test
+    public void invoke_Async_ReturnsPendingFuture() {
+        final CompletableFuture<DeleteConfigurationSetResponse> pending = new CompletableFuture<>();
+        doReturn(pending).when(proxy).injectCredentialsAndInvokeV2Async(any(), any());
+
+        final SesInvoker invoker = new SesInvoker(SesInvoker.Mode.ASYNC, proxy, null);
+        final CompletableFuture<DeleteConfigurationSetResponse> response =
+            invoker.invoke(request, SesClient::deleteConfigurationSet, SesAsyncClient::deleteConfigurationSet);
+
+        assertThat(invoker.getMode()).isEqualTo(SesInvoker.Mode.ASYNC);
+        assertThat(response).isSameAs(pending).isNotDone();
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(), any());
+    }
+}
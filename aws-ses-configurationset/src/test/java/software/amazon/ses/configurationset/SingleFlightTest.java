@@ -0,0 +1,84 @@
+package software.amazon.ses.configurationset;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SingleFlightTest {
+
+    @Test
+    public void execute_ConcurrentIdenticalCallsShareOneInvocation() throws Exception {
+        final SingleFlight<String> singleFlight = new SingleFlight<>();
+        final AtomicInteger invocations = new AtomicInteger();
+        final CountDownLatch leaderStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                invocations.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return "value";
+            }));
+            leaderStarted.await(5, TimeUnit.SECONDS);
+
+            final Future<String> follower = executor.submit(() -> singleFlight.execute("key", () -> {
+                invocations.incrementAndGet();
+                return "other";
+            }));
+            // give the follower time to find the in-flight call before releasing the leader
+            while (singleFlight.getCoalescedCalls() == 0 && !follower.isDone()) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+            assertThat(invocations.get()).isEqualTo(1);
+            assertThat(singleFlight.getCoalescedCalls()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void execute_SequentialCallsAreNotCoalesced() {
+        final SingleFlight<String> singleFlight = new SingleFlight<>();
+        final AtomicInteger invocations = new AtomicInteger();
+
+        singleFlight.execute("key", () -> "value" + invocations.incrementAndGet());
+        final String second = singleFlight.execute("key", () -> "value" + invocations.incrementAndGet());
+
+        assertThat(second).isEqualTo("value2");
+        assertThat(singleFlight.getCoalescedCalls()).isEqualTo(0);
+    }
+
+    @Test
+    public void execute_PropagatesException() {
+        final SingleFlight<String> singleFlight = new SingleFlight<>();
+
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("key", () -> {
+            throw new IllegalStateException("test error");
+        }));
+
+        // the failed call is not remembered
+        assertThat(singleFlight.execute("key", () -> "value")).isEqualTo("value");
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
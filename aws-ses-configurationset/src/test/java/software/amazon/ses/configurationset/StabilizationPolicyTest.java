@@ -0,0 +1,38 @@
+package software.amazon.ses.configurationset;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StabilizationPolicyTest {
+
+    @Test
+    public void nextDelaySeconds_DoublesUpToCap() {
+        final StabilizationPolicy policy = new StabilizationPolicy(() -> 0L);
+        final CallbackContext context = new CallbackContext();
+        policy.start(context);
+
+        assertThat(policy.nextDelaySeconds(context)).isEqualTo(1);
+        assertThat(policy.nextDelaySeconds(context)).isEqualTo(2);
+        assertThat(policy.nextDelaySeconds(context)).isEqualTo(4);
+        assertThat(policy.nextDelaySeconds(context)).isEqualTo(8);
+        assertThat(policy.nextDelaySeconds(context)).isEqualTo(StabilizationPolicy.MAX_POLL_DELAY_SECONDS);
+        assertThat(policy.nextDelaySeconds(context)).isEqualTo(StabilizationPolicy.MAX_POLL_DELAY_SECONDS);
+        assertThat(context.getStabilizationAttempts()).isEqualTo(6);
+    }
+
+    @Test
+    public void isTimedOut_AfterTimeout() {
+        final long[] now = {1_000L};
+        final StabilizationPolicy policy = new StabilizationPolicy(() -> now[0]);
+        final CallbackContext context = new CallbackContext();
+        policy.start(context);
+
+        now[0] += StabilizationPolicy.TIMEOUT_MILLIS - 1;
+        assertThat(policy.isTimedOut(context)).isFalse();
+
+        now[0] += 1;
+        assertThat(policy.isTimedOut(context)).isTrue();
+        assertThat(policy.elapsedMillis(context)).isEqualTo(StabilizationPolicy.TIMEOUT_MILLIS);
+    }
+}
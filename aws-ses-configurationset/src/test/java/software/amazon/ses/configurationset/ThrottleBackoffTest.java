@@ -0,0 +1,71 @@
+package software.amazon.ses.configurationset;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ThrottleBackoffTest {
+
+    @Test
+    public void delaySeconds_GrowsExponentiallyUpToCap() {
+        // a random source that always picks the upper bound exposes the ceiling
+        final Random maxRandom = new Random() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public int nextInt(final int bound) {
+                return bound - 1;
+            }
+        };
+        final ThrottleBackoff backoff = new ThrottleBackoff(() -> 0L, () -> maxRandom);
+
+        assertThat(backoff.delaySeconds(0)).isEqualTo(2);
+        assertThat(backoff.delaySeconds(1)).isEqualTo(4);
+        assertThat(backoff.delaySeconds(4)).isEqualTo(32);
+        assertThat(backoff.delaySeconds(5)).isEqualTo(ThrottleBackoff.MAX_DELAY_SECONDS);
+        assertThat(backoff.delaySeconds(100)).isEqualTo(ThrottleBackoff.MAX_DELAY_SECONDS);
+    }
+
+    @Test
+    public void delaySeconds_AtLeastOneSecond() {
+        final Random minRandom = new Random() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public int nextInt(final int bound) {
+                return 0;
+            }
+        };
+        final ThrottleBackoff backoff = new ThrottleBackoff(() -> 0L, () -> minRandom);
+
+        assertThat(backoff.delaySeconds(10)).isEqualTo(1);
+    }
+
+    @Test
+    public void retry_StartsWindowThenFailsAfterDeadline() {
+        final long[] now = {1_000L};
+        final ThrottleBackoff backoff = new ThrottleBackoff(() -> now[0], Random::new);
+        final CallbackContext context = new CallbackContext();
+        final ResourceModel model = ResourceModel.builder().name("test-set").build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> event =
+            backoff.retry(model, context, () -> new CfnThrottlingException("op"));
+
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(context.getThrottleRetryDeadline()).isEqualTo(1_000L + ThrottleBackoff.RETRY_WINDOW_MILLIS);
+
+        now[0] = context.getThrottleRetryDeadline();
+        assertThrows(CfnThrottlingException.class,
+            () -> backoff.retry(model, context, () -> new CfnThrottlingException("op")));
+
+        ThrottleBackoff.reset(context);
+        assertThat(context.getThrottledAttempts()).isEqualTo(0);
+        assertThat(context.getThrottleRetryDeadline()).isNull();
+    }
+}
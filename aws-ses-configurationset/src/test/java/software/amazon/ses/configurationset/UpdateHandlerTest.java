@@ -1,7 +1,9 @@
 package software.amazon.ses.configurationset;
 
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnNotUpdatableException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
-import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
@@ -9,11 +11,35 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.ses.model.ConfigurationSet;
+import software.amazon.awssdk.services.ses.model.ConfigurationSetDoesNotExistException;
+import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetRequest;
+import software.amazon.awssdk.services.ses.model.DescribeConfigurationSetResponse;
+import software.amazon.awssdk.services.ses.model.InvalidDeliveryOptionsException;
+import software.amazon.awssdk.services.ses.model.LimitExceededException;
+import software.amazon.awssdk.services.ses.model.PutConfigurationSetDeliveryOptionsRequest;
+import software.amazon.awssdk.services.ses.model.SesException;
+import software.amazon.awssdk.services.sesv2.model.PutConfigurationSetReputationOptionsRequest;
+import software.amazon.awssdk.services.sesv2.model.PutConfigurationSetSendingOptionsRequest;
+import software.amazon.awssdk.services.sesv2.model.PutConfigurationSetTrackingOptionsRequest;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 public class UpdateHandlerTest {
@@ -26,29 +52,229 @@ public class UpdateHandlerTest {
 
     @BeforeEach
     public void setup() {
-        proxy = mock(AmazonWebServicesClientProxy.class);
+        proxy = MockProxy.create();
         logger = mock(Logger.class);
+        DescribeCache.shared().clear();
+        RateLimiter.shared().reset();
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final String previousName, final String desiredName) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+            .previousResourceState(ResourceModel.builder().name(previousName).build())
+            .desiredResourceState(ResourceModel.builder().name(desiredName).build())
+            .build();
     }
 
     @Test
-    public void handleRequest_NotUpdatable() {
+    public void handleRequest_NoChanges_ConfirmsExistence() {
         final UpdateHandler handler = new UpdateHandler();
 
-        final ResourceModel model = ResourceModel.builder().build();
-
-        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
-            .desiredResourceState(model)
-            .build();
+        doReturn(DescribeConfigurationSetResponse.builder()
+            .configurationSet(ConfigurationSet.builder().name("test-set").build())
+            .build())
+            .when(proxy)
+            .injectCredentialsAndInvokeV2(
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any()
+            );
 
+        final ResourceHandlerRequest<ResourceModel> request = request("test-set", "test-set");
         final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
 
         assertThat(response).isNotNull();
-        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
         assertThat(response.getCallbackContext()).isNull();
         assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
-        assertThat(response.getResourceModel()).isNull();
+        assertThat(response.getResourceModel()).isEqualTo(request.getDesiredResourceState());
         assertThat(response.getResourceModels()).isNull();
         assertThat(response.getMessage()).isNull();
-        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.NotUpdatable);
+        assertThat(response.getErrorCode()).isNull();
+
+        final ArgumentCaptor<DescribeConfigurationSetRequest> describe =
+            ArgumentCaptor.forClass(DescribeConfigurationSetRequest.class);
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(describe.capture(), ArgumentMatchers.any());
+        assertThat(describe.getValue().configurationSetAttributeNames()).isEmpty();
+    }
+
+    @Test
+    public void handleRequest_ReadDuringMutations_DoesNotStayCached() {
+        final UpdateHandler handler = new UpdateHandler();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .previousResourceState(ResourceModel.builder().name("test-set").build())
+            .desiredResourceState(ResourceModel.builder()
+                .name("test-set")
+                .deliveryOptions(DeliveryOptions.builder().tlsPolicy("REQUIRE").build())
+                .build())
+            .build();
+        final String cacheKey = DescribeCache.key(request, "test-set");
+
+        // a Read overlapping the update caches the state from before it
+        doAnswer(invocation -> {
+            DescribeCache.shared().put(cacheKey, new DescribeCache.Described(DescribeConfigurationSetResponse.builder()
+                .configurationSet(ConfigurationSet.builder().name("test-set").build())
+                .build(), Collections.emptyList()));
+            final CompletableFuture<Object> failed = new CompletableFuture<>();
+            failed.completeExceptionally(InvalidDeliveryOptionsException.builder().message("invalid").build());
+            return failed;
+        })
+            .doAnswer(invocation -> {
+                DescribeCache.shared().put(cacheKey, new DescribeCache.Described(DescribeConfigurationSetResponse.builder()
+                    .configurationSet(ConfigurationSet.builder().name("test-set").build())
+                    .build(), Collections.emptyList()));
+                return CompletableFuture.completedFuture(null);
+            })
+            .when(proxy)
+            .injectCredentialsAndInvokeV2Async(
+                ArgumentMatchers.any(PutConfigurationSetDeliveryOptionsRequest.class),
+                ArgumentMatchers.any()
+            );
+
+        final CfnInvalidRequestException e = assertThrows(CfnInvalidRequestException.class,
+            () -> handler.handleRequest(proxy, request, null, logger));
+        assertThat(e.getMessage()).contains("invalid");
+        assertThat(DescribeCache.shared().get(cacheKey)).isNull();
+
+        assertThat(handler.handleRequest(proxy, request, null, logger).getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(DescribeCache.shared().get(cacheKey)).isNull();
+    }
+
+    @Test
+    public void handleRequest_V2WithoutPreviousState_PutsEveryOptionGroup() {
+        final UpdateHandler handler = new UpdateHandler(SesInvoker.Mode.ASYNC, SesApi.V2);
+        doReturn(CompletableFuture.completedFuture(null))
+            .when(proxy)
+            .injectCredentialsAndInvokeV2Async(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder()
+                .name("test-set")
+                .reputationOptions(ReputationOptions.builder().reputationMetricsEnabled(true).build())
+                .sendingOptions(SendingOptions.builder().sendingEnabled(false).build())
+                .deliveryOptions(DeliveryOptions.builder().tlsPolicy("REQUIRE").build())
+                .trackingOptions(TrackingOptions.builder().customRedirectDomain("a.example.com").build())
+                .build())
+            .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        verify(proxy).injectCredentialsAndInvokeV2Async(
+            ArgumentMatchers.any(PutConfigurationSetReputationOptionsRequest.class), ArgumentMatchers.any());
+        verify(proxy).injectCredentialsAndInvokeV2Async(
+            ArgumentMatchers.any(PutConfigurationSetSendingOptionsRequest.class), ArgumentMatchers.any());
+        verify(proxy).injectCredentialsAndInvokeV2Async(
+            ArgumentMatchers.any(software.amazon.awssdk.services.sesv2.model.PutConfigurationSetDeliveryOptionsRequest.class),
+            ArgumentMatchers.any());
+        verify(proxy).injectCredentialsAndInvokeV2Async(
+            ArgumentMatchers.any(PutConfigurationSetTrackingOptionsRequest.class), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void handleRequest_OptionsChanged_AppliesOnlyTheDifference() {
+        final UpdateHandler handler = new UpdateHandler();
+
+        doReturn(CompletableFuture.completedFuture(null))
+            .when(proxy)
+            .injectCredentialsAndInvokeV2Async(
+                ArgumentMatchers.any(PutConfigurationSetDeliveryOptionsRequest.class),
+                ArgumentMatchers.any()
+            );
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .previousResourceState(ResourceModel.builder()
+                .name("test-set")
+                .sendingOptions(SendingOptions.builder().sendingEnabled(false).build())
+                .build())
+            .desiredResourceState(ResourceModel.builder()
+                .name("test-set")
+                .sendingOptions(SendingOptions.builder().sendingEnabled(false).build())
+                .deliveryOptions(DeliveryOptions.builder().tlsPolicy("REQUIRE").build())
+                .build())
+            .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel()).isEqualTo(request.getDesiredResourceState());
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2Async(ArgumentMatchers.any(), ArgumentMatchers.any());
+        verify(proxy, never()).injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void handleRequest_NotFound() {
+        final UpdateHandler handler = new UpdateHandler();
+
+        doThrow(ConfigurationSetDoesNotExistException.class)
+            .when(proxy)
+            .injectCredentialsAndInvokeV2(
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any()
+            );
+
+        assertThrows(CfnNotFoundException.class,
+            () -> handler.handleRequest(proxy, request("test-set", "test-set"), null, logger));
+    }
+
+    @Test
+    public void handleRequest_CreateOnlyPropertyChanged_NotUpdatable() {
+        final UpdateHandler handler = new UpdateHandler();
+
+        assertThrows(CfnNotUpdatableException.class,
+            () -> handler.handleRequest(proxy, request("test-set", "other-set"), null, logger));
+
+        verify(proxy, never()).injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void handleRequest_LimitExceeded_RetriesWithBackoff() {
+        final UpdateHandler handler = new UpdateHandler();
+
+        doThrow(LimitExceededException.class)
+            .when(proxy)
+            .injectCredentialsAndInvokeV2(
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any()
+            );
+
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+            handler.handleRequest(proxy, request("test-set", "test-set"), null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackContext().getThrottledAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    public void handleRequest_Throttled_RetriesWithBackoff() {
+        final UpdateHandler handler = new UpdateHandler();
+
+        doThrow(SesException.builder()
+            .awsErrorDetails(AwsErrorDetails.builder().errorCode("Throttling").build())
+            .build())
+            .when(proxy)
+            .injectCredentialsAndInvokeV2(
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any()
+            );
+
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+            handler.handleRequest(proxy, request("test-set", "test-set"), null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackContext().getThrottledAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    public void handleRequest_FailWith_NonThrottlingServiceException() {
+        final UpdateHandler handler = new UpdateHandler();
+
+        doThrow(SesException.builder()
+            .awsErrorDetails(AwsErrorDetails.builder().errorCode("InternalFailure").build())
+            .build())
+            .when(proxy)
+            .injectCredentialsAndInvokeV2(
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any()
+            );
+
+        assertThrows(SesException.class,
+            () -> handler.handleRequest(proxy, request("test-set", "test-set"), null, logger));
     }
 }